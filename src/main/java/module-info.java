@@ -40,6 +40,9 @@ module org.iogp.gigs {
     requires java.prefs;
     requires java.logging;
     requires java.desktop;
+    requires java.management;
+    requires jdk.management;
+    requires jdk.jfr;
     requires org.junit.platform.engine;
     requires org.junit.platform.launcher;
     /*
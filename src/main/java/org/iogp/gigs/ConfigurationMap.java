@@ -26,7 +26,9 @@ package org.iogp.gigs;
 
 import java.util.Map;
 import java.util.HashMap;
+import java.util.WeakHashMap;
 import java.util.Properties;
+import java.util.ServiceLoader;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.logging.LogRecord;
@@ -35,7 +37,11 @@ import java.nio.file.Paths;
 import java.io.InputStream;
 import java.io.IOException;
 import java.lang.reflect.Method;
+import javax.measure.spi.ServiceProvider;
+import org.iogp.gigs.internal.ExecutionContext;
 import org.iogp.gigs.internal.geoapi.Configuration;
+import org.iogp.gigs.internal.geoapi.Units;
+import org.iogp.gigs.internal.geoapi.ValidatorContainer;
 
 
 /**
@@ -50,15 +56,26 @@ import org.iogp.gigs.internal.geoapi.Configuration;
  * The first applicable choice in above list has precedence over the other choices.
  * For example if a system property is specified, the {@code META-INF/GIGS.properties} file is ignored.
  *
+ * <p>There is one configuration for each module layer of an implementation to test,
+ * because many implementations may be tested concurrently in the same JVM.
+ * For the same reason, this class also holds the units of measurement
+ * provided by each implementation.</p>
+ *
  * @author  Martin Desruisseaux (Geomatys)
  * @version 1.0
  * @since   1.0
  */
 final class ConfigurationMap {
     /**
-     * The unique instance of {@code ConfigurationMap}.
+     * The configuration used when no implementation is tested, for example when tests are run by Maven.
+     */
+    private static final ConfigurationMap DEFAULT = new ConfigurationMap(null);
+
+    /**
+     * The configurations of all implementations tested in this JVM, indexed by the module layers.
+     * All accesses to this map shall be synchronized on the map.
      */
-    static final ConfigurationMap INSTANCE = new ConfigurationMap();
+    private static final Map<ModuleLayer, ConfigurationMap> BY_LAYER = new WeakHashMap<>();
 
     /**
      * The global configuration.
@@ -72,47 +89,123 @@ final class ConfigurationMap {
     private final Map<Method, Map<Configuration.Key<Boolean>, Boolean>> byTest;
 
     /**
-     * The module layer for which the the configuration has been loaded.
-     * If no configuration has been loaded yet, then this is {@code null}.
+     * Units factory provided by the implementation, or {@code null} for the default.
+     */
+    private final Units units;
+
+    /**
+     * Validators using the units provided by the implementation, or {@code null} for the default.
      */
-    private ModuleLayer loaded;
+    private final ValidatorContainer validators;
 
     /**
-     * Creates the unique instance.
+     * Creates an initially empty configuration for the implementation in the given module layer.
+     * If the implementation provides units of measurement, then the units factory and the validators
+     * are created for those units. Otherwise the default units and validators will be used.
+     *
+     * @param  layer  module layer of the implementation to test, or {@code null} if none.
      */
-    private ConfigurationMap() {
+    private ConfigurationMap(final ModuleLayer layer) {
         global = new Configuration();
         byTest = new HashMap<>();
+        if (layer != null && ServiceLoader.load(layer, ServiceProvider.class).findFirst().isPresent()) {
+            /*
+             * Validators take their units from `Units.getInstance()` at construction time.
+             * Set temporarily the default instance to the units of the implementation.
+             */
+            synchronized (Units.class) {
+                Units.setInstance(layer);
+                units      = Units.getInstance();
+                validators = new ValidatorContainer();
+                Units.setInstance((ModuleLayer) null);
+            }
+        } else {
+            units      = null;
+            validators = null;
+        }
     }
 
     /**
-     * Loads the configuration declared by the system property or by the implementer.
-     * If the module layer is the same one than the layer specified in the last call,
-     * then this method does nothing.
+     * Returns the configuration of the implementation under test in the current thread.
+     *
+     * @return configuration for the current execution context.
+     */
+    static ConfigurationMap current() {
+        return forLayer(ExecutionContext.current().layer());
+    }
+
+    /**
+     * Returns the configuration for the implementation in the given module layer.
+     * The configuration is loaded from the system property or from the implementation
+     * when this method is first invoked for a given layer.
      *
      * @param  layer  module layer of the implementation to test, or {@code null} if none.
+     * @return the configuration for the given layer.
      */
-    final void configureFor(final ModuleLayer layer) {
-        if (layer != null && layer != loaded) {
-            loaded = layer;
-            global.clear();
-            byTest.clear();
-            if (!loadProperties("org.iogp.gigs.config")) {
-                final Properties properties = new Properties();
-                for (final Module module : layer.modules()) {
-                    try (InputStream in = module.getResourceAsStream("META-INF/GIGS.properties")) {
-                        if (in != null) {
-                            properties.load(in);
-                            parse(properties);
-                            /*
-                             * Continue iteration. There is usually at most one "GIGS.properties" file.
-                             * But if more than one file is nevertheless found, they will be merged.
-                             * If the same property is defined twice, the last one has precedence.
-                             */
-                        }
-                    } catch (IOException e) {
-                        warning("Can not load from META-INF.", e);
+    static ConfigurationMap forLayer(final ModuleLayer layer) {
+        if (layer == null) {
+            return DEFAULT;
+        }
+        synchronized (BY_LAYER) {
+            return BY_LAYER.computeIfAbsent(layer, (key) -> {
+                final var config = new ConfigurationMap(key);
+                config.load(key);
+                return config;
+            });
+        }
+    }
+
+    /**
+     * Returns the units factory to use for the implementation to test.
+     *
+     * @return the units of the implementation, or the default units if the implementation provides none.
+     */
+    final Units units() {
+        return (units != null) ? units : Units.getInstance();
+    }
+
+    /**
+     * Returns the validators to use for the implementation to test.
+     *
+     * @return validators using the units of the implementation, or {@link ValidatorContainer#DEFAULT}.
+     */
+    final ValidatorContainer validators() {
+        return (validators != null) ? validators : ValidatorContainer.DEFAULT;
+    }
+
+    /**
+     * Discards the configuration of the implementation in the given module layer.
+     * This method should be invoked when the layer will not be used anymore.
+     *
+     * @param  layer  module layer of the implementation which has been tested.
+     */
+    static void dispose(final ModuleLayer layer) {
+        synchronized (BY_LAYER) {
+            BY_LAYER.remove(layer);
+        }
+    }
+
+    /**
+     * Loads the configuration declared by the system property or by the implementer.
+     *
+     * @param  layer  module layer of the implementation to test.
+     */
+    private void load(final ModuleLayer layer) {
+        if (!loadProperties("org.iogp.gigs.config")) {
+            final Properties properties = new Properties();
+            for (final Module module : layer.modules()) {
+                try (InputStream in = module.getResourceAsStream("META-INF/GIGS.properties")) {
+                    if (in != null) {
+                        properties.load(in);
+                        parse(properties);
+                        /*
+                         * Continue iteration. There is usually at most one "GIGS.properties" file.
+                         * But if more than one file is nevertheless found, they will be merged.
+                         * If the same property is defined twice, the last one has precedence.
+                         */
                     }
+                } catch (IOException e) {
+                    warning("Can not load from META-INF.", e);
                 }
             }
         }
@@ -255,6 +348,29 @@ final class ConfigurationMap {
         }
     }
 
+    /**
+     * Gets the options which apply to the given test method, including the global configuration.
+     * Options specific to the given method have precedence over the global options.
+     *
+     * @param  method  the test method for which to get the options.
+     * @return options of the given test, with option names as keys.
+     */
+    final Properties getEffectiveConfiguration(final Method method) {
+        final Properties properties = new Properties();
+        synchronized (byTest) {
+            for (final Map.Entry<Configuration.Key<?>, Object> option : global.map().entrySet()) {
+                properties.setProperty(option.getKey().name(), String.valueOf(option.getValue()));
+            }
+            final Map<Configuration.Key<Boolean>, Boolean> options = byTest.get(method);
+            if (options != null) {
+                for (final Map.Entry<Configuration.Key<Boolean>, Boolean> option : options.entrySet()) {
+                    properties.setProperty(option.getKey().name(), option.getValue().toString());
+                }
+            }
+        }
+        return properties;
+    }
+
     /**
      * Gets the configuration of tests as a properties file.
      * The returned map does not include the global configuration.
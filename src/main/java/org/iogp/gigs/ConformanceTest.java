@@ -87,8 +87,9 @@ abstract class ConformanceTest {
      * Creates a new test.
      */
     ConformanceTest() {
-        units = Units.getInstance();
-        validators = ValidatorContainer.DEFAULT;
+        final ConfigurationMap config = ConfigurationMap.current();
+        units = config.units();
+        validators = config.validators();
     }
 
     /**
@@ -25,6 +25,7 @@
 package org.iogp.gigs;
 
 import java.util.Properties;
+import java.util.function.BiConsumer;
 import java.lang.reflect.Method;
 import javax.measure.Unit;
 import javax.measure.quantity.Angle;
@@ -32,17 +33,20 @@ import javax.measure.quantity.Length;
 import org.opengis.util.Factory;
 import org.opengis.util.NoSuchIdentifierException;
 import org.opengis.metadata.Identifier;
+import org.opengis.metadata.extent.Extent;
 import org.opengis.referencing.IdentifiedObject;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.opengis.referencing.cs.AxisDirection;
 import org.opengis.referencing.cs.CoordinateSystem;
 import org.opengis.referencing.cs.CoordinateSystemAxis;
 import org.opengis.referencing.datum.Ellipsoid;
 import org.opengis.referencing.datum.PrimeMeridian;
+import org.opengis.referencing.operation.CoordinateOperation;
 import org.iogp.gigs.internal.geoapi.Configuration;
-import org.iogp.gigs.internal.ExecutionContext;
+import org.iogp.gigs.internal.ExecutionExtension;
 import org.iogp.gigs.internal.PrivateAccessor;
+import org.iogp.gigs.internal.TransformStatistics;
 import org.opentest4j.TestAbortedException;
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.TestInfo;
@@ -84,6 +88,14 @@ public abstract class IntegrityTest extends ConformanceTest {
      */
     static final double ANGULAR_TOLERANCE = 1E-7;
 
+    /**
+     * Whether the same {@link org.opengis.referencing.operation.MathTransform} instance can be used concurrently
+     * by many threads. This key is specific to GIGS tests: it is not a constant of {@link Configuration.Key}
+     * (which is a copy of GeoAPI) but is added to that extensible code list when this class is initialized.
+     */
+    static final Configuration.Key<Boolean> CONCURRENT_TRANSFORM_SUPPORTED =
+            Configuration.Key.valueOf("isConcurrentTransformSupported", Boolean.class).cast(Boolean.class);
+
     /*
      * Hack for allowing accesses to package-private methods from other packages.
      * This hack may be removed in a future version after we settle a public API.
@@ -91,33 +103,45 @@ public abstract class IntegrityTest extends ConformanceTest {
     static {
         PrivateAccessor.INSTANCE = new PrivateAccessor() {
             @Override
-            public void configureFor(final ModuleLayer layer) {
-                ConfigurationMap.INSTANCE.configureFor(layer);
+            public void dispose(final ModuleLayer layer) {
+                ConfigurationMap.dispose(layer);
             }
 
             @Override
-            public Configuration configuration(final IntegrityTest test) {
+            protected Configuration configuration(final IntegrityTest test) {
                 return test.configuration();
             }
 
             @Override
-            public void setTestSpecificOption(Method method, Configuration.Key<Boolean> aspect, Boolean value) {
-                ConfigurationMap.INSTANCE.setTestSpecificOption(method, aspect, value);
+            protected Configuration.Key<Boolean> configurationTip(final IntegrityTest test) {
+                return test.configurationTip;
+            }
+
+            @Override
+            public void setTestSpecificOption(ModuleLayer layer, Method method, String aspect, Boolean value) {
+                ConfigurationMap.forLayer(layer).setTestSpecificOption(method,
+                        Configuration.Key.valueOf(aspect, Boolean.class).cast(Boolean.class), value);
             }
 
             @Override
-            public Properties getTestConfigurations() {
-                return ConfigurationMap.INSTANCE.getTestConfigurations();
+            public Properties getTestConfigurations(final ModuleLayer layer) {
+                return ConfigurationMap.forLayer(layer).getTestConfigurations();
+            }
+
+            @Override
+            public Properties getEffectiveConfiguration(final ModuleLayer layer, final Method method) {
+                return ConfigurationMap.forLayer(layer).getEffectiveConfiguration(method);
             }
         };
     }
 
     /**
      * The extension which will perform dependency injection. When a constructor has arguments of {@code Factory} subtypes,
-     * the {@link ExecutionContext#resolveParameter resolveParameter(…)} method is invoked for providing the factory instances.
+     * the {@link ExecutionExtension#resolveParameter resolveParameter(…)} method is invoked for providing the factory instances.
+     * This extension also keeps a reference to each test instance after execution, for fetching configuration information.
      */
     @RegisterExtension
-    static final ExecutionContext INJECTION = ExecutionContext.INSTANCE;
+    static final ExecutionExtension INJECTION = ExecutionExtension.INSTANCE;
 
     /**
      * Whether to skip {@link #verifyIdentification(IdentifiedObject, String, String)}.
@@ -162,7 +186,7 @@ public abstract class IntegrityTest extends ConformanceTest {
      * This method assumes that the initial value of all flags is {@code false}.
      */
     final void initialize() {
-        final Configuration config = ConfigurationMap.INSTANCE.global;
+        final Configuration config = ConfigurationMap.current().global;
         final Configuration.Key<Boolean>[] keys = getOptionKeys();
         for (int i=0; i<keys.length; i++) {
             final Boolean enabled = config.get(keys[i]);
@@ -179,17 +203,7 @@ public abstract class IntegrityTest extends ConformanceTest {
      */
     @BeforeEach
     final void configureTestCase(final TestInfo info) {
-        info.getTestMethod().ifPresent((method) -> ConfigurationMap.INSTANCE.applyTestSpecificOptions(this, method));
-    }
-
-    /**
-     * Keeps a reference to the instance of the test which has been executed.
-     * It will be used for fetching configuration information if needed.
-     */
-    @AfterEach
-    final void saveReference() {
-        ExecutionContext.INSTANCE.executing = this;
-        ExecutionContext.INSTANCE.configurationTip = configurationTip;
+        info.getTestMethod().ifPresent((method) -> ConfigurationMap.current().applyTestSpecificOptions(this, method));
     }
 
     /**
@@ -237,6 +251,98 @@ public abstract class IntegrityTest extends ConformanceTest {
         return null;
     }
 
+    /**
+     * Compares the derivatives of the math transform of the given operation with estimations by finite differences.
+     * The derivatives are evaluated on a grid of points over the domain of validity of the operation, and the number
+     * of evaluations per second is recorded for the operation method.
+     * Callers should invoke this method only if the {@code isDerivativeSupported} flag is {@code true}.
+     *
+     * @param  operation  the operation to verify.
+     * @param  sourceCRS  the source CRS, or {@code null} for the source CRS of the operation.
+     * @param  fallback   the domain to use if the operation does not declare one, or {@code null}.
+     *
+     * @see #verifyTransform(Configuration.Key, CoordinateOperation, CoordinateReferenceSystem, Extent, BiConsumer)
+     */
+    final void verifyDerivative(final CoordinateOperation operation, final CoordinateReferenceSystem sourceCRS,
+                                final Extent fallback)
+    {
+        verifyTransform(Configuration.Key.isDerivativeSupported, operation, sourceCRS, fallback,
+                        TransformVerifier::verifyDerivative);
+    }
+
+    /**
+     * Transforms a lattice of points over the domain of validity of the given operation forward then backward,
+     * and compares the round-tripped points with the original points. The maximal and RMS residuals and a heat
+     * map of the residuals are recorded for the operation method. The residuals are asserted to be within the
+     * accuracy declared by the operation, if any.
+     * Callers should invoke this method only if the {@code isInverseTransformSupported} flag is {@code true}.
+     *
+     * @param  operation  the operation to verify.
+     * @param  sourceCRS  the source CRS, or {@code null} for the source CRS of the operation.
+     * @param  fallback   the domain to use if the operation does not declare one, or {@code null}.
+     * @param  parallel   the {@code isConcurrentTransformSupported} flag. If {@code false}, points are transformed
+     *                    in the current thread only.
+     *
+     * @see #verifyTransform(Configuration.Key, CoordinateOperation, CoordinateReferenceSystem, Extent, BiConsumer)
+     */
+    final void verifyRoundTrip(final CoordinateOperation operation, final CoordinateReferenceSystem sourceCRS,
+                               final Extent fallback, final boolean parallel)
+    {
+        verifyTransform(Configuration.Key.isInverseTransformSupported, operation, sourceCRS, fallback,
+                        (verifier, statistics) -> verifier.verifyRoundTrip(statistics, parallel));
+    }
+
+    /**
+     * Transforms a lattice of points with the math transform of the given operation from an increasing number
+     * of threads, and verifies that the results are bit-identical to the results of a single thread.
+     * The throughput is recorded for each number of threads.
+     * Callers should invoke this method only if the {@code isConcurrentTransformSupported} flag is {@code true}.
+     *
+     * @param  operation  the operation to verify.
+     * @param  sourceCRS  the source CRS, or {@code null} for the source CRS of the operation.
+     * @param  fallback   the domain to use if the operation does not declare one, or {@code null}.
+     *
+     * @see #verifyTransform(Configuration.Key, CoordinateOperation, CoordinateReferenceSystem, Extent, BiConsumer)
+     */
+    final void verifyConcurrency(final CoordinateOperation operation, final CoordinateReferenceSystem sourceCRS,
+                                 final Extent fallback)
+    {
+        verifyTransform(CONCURRENT_TRANSFORM_SUPPORTED, operation, sourceCRS, fallback,
+                        TransformVerifier::verifyConcurrency);
+    }
+
+    /**
+     * Runs a verification on the math transform of the given operation. The transform is exercised on points
+     * over the domain of validity of the operation (or the fallback domain), and the measurements are recorded
+     * in the statistics of the operation method. If the operation has no math transform (as in defining
+     * conversions) or no geographic source CRS, then this method does nothing. While the verification is
+     * running, the given configuration key is reported as the tip for disabling the test in case of failure.
+     * If the verification is aborted (for example because the transform is not invertible), no tip is reported.
+     *
+     * @param  key        the configuration key which controls the verification.
+     * @param  operation  the operation to verify.
+     * @param  sourceCRS  the source CRS, or {@code null} for the source CRS of the operation.
+     * @param  fallback   the domain to use if the operation does not declare one, or {@code null}.
+     * @param  action     the verification to run with the statistics of the current operation method.
+     */
+    private void verifyTransform(final Configuration.Key<Boolean> key, final CoordinateOperation operation,
+                                 final CoordinateReferenceSystem sourceCRS, final Extent fallback,
+                                 final BiConsumer<TransformVerifier, TransformStatistics> action)
+    {
+        final TransformVerifier verifier = TransformVerifier.forOperation(operation, sourceCRS, fallback, units);
+        if (verifier != null) {
+            final Configuration.Key<Boolean> previous = configurationTip;
+            configurationTip = key;
+            try {
+                action.accept(verifier, TransformStatistics.current());
+            } catch (TestAbortedException e) {
+                configurationTip = previous;        // Not a failure of the verified aspect.
+                throw e;
+            }
+            configurationTip = previous;
+        }
+    }
+
     /*
      * ――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――――
      *   Methods below this point were copied from `org.opengis.test.referencing.ReferencingTestCase`
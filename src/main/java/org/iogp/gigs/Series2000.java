@@ -127,6 +127,36 @@ public abstract class Series2000<T> extends IntegrityTest {
      */
     protected boolean isOperationVersionSupported;
 
+    /**
+     * {@code true} if the {@link org.opengis.referencing.operation.MathTransform} of the tested operations
+     * support {@linkplain org.opengis.referencing.operation.MathTransform#derivative derivative} calculation.
+     * If {@code true} (the default), then the test methods will compare the derivatives with estimations
+     * by finite differences. If {@code false}, then the derivatives are not computed.
+     *
+     * <p>This flag is significant only for tests on map projections having a math transform.</p>
+     */
+    protected boolean isDerivativeSupported;
+
+    /**
+     * {@code true} if the {@link org.opengis.referencing.operation.MathTransform} of the tested operations
+     * support {@linkplain org.opengis.referencing.operation.MathTransform#inverse() inverse} transforms.
+     * If {@code true} (the default), then the test methods will transform a lattice of points forward and
+     * backward and compare with the original points. If {@code false}, then the inverses are not tested.
+     *
+     * <p>This flag is significant only for tests on operations having a math transform.</p>
+     */
+    protected boolean isInverseTransformSupported;
+
+    /**
+     * {@code true} if the {@link org.opengis.referencing.operation.MathTransform} of the tested operations
+     * can be used concurrently by many threads. If {@code true} (the default), then the lattice of points
+     * used for verifying inverse transforms is split in chunks transformed in parallel.
+     * If {@code false}, then the transforms are used from a single thread only.
+     *
+     * <p>This flag is significant only for tests on operations having a math transform.</p>
+     */
+    protected boolean isConcurrentTransformSupported;
+
     /**
      * Creates a new test.
      */
@@ -155,7 +185,10 @@ public abstract class Series2000<T> extends IntegrityTest {
             /* [2] */ Configuration.Key.isStandardAliasSupported,
             /* [3] */ Configuration.Key.isDependencyIdentificationSupported,
             /* [4] */ Configuration.Key.isDeprecatedObjectCreationSupported,
-            /* [5] */ Configuration.Key.isOperationVersionSupported};
+            /* [5] */ Configuration.Key.isOperationVersionSupported,
+            /* [6] */ Configuration.Key.isDerivativeSupported,
+            /* [7] */ Configuration.Key.isInverseTransformSupported,
+            /* [8] */ CONCURRENT_TRANSFORM_SUPPORTED};
 
     /**
      * Enables or disables an optional aspect to be verified.
@@ -170,6 +203,9 @@ public abstract class Series2000<T> extends IntegrityTest {
             case  3: isDependencyIdentificationSupported = value; break;
             case  4: isDeprecatedObjectCreationSupported = value; break;
             case  5: isOperationVersionSupported         = value; break;
+            case  6: isDerivativeSupported               = value; break;
+            case  7: isInverseTransformSupported         = value; break;
+            case  8: isConcurrentTransformSupported      = value; break;
             default: throw new AssertionError(key);
         }
     }
@@ -201,6 +237,9 @@ public abstract class Series2000<T> extends IntegrityTest {
      *       <li>{@link #isDependencyIdentificationSupported}</li>
      *       <li>{@link #isDeprecatedObjectCreationSupported}</li>
      *       <li>{@link #isOperationVersionSupported} (only in transformation tests)</li>
+     *       <li>{@link #isDerivativeSupported} (only in map projection tests)</li>
+     *       <li>{@link #isInverseTransformSupported} (only in conversion and transformation tests)</li>
+     *       <li>{@link #isConcurrentTransformSupported} (only in conversion and transformation tests)</li>
      *       <li>The factories used by the test (provided by subclasses)</li>
      *     </ul>
      *   </li>
@@ -216,7 +255,8 @@ public abstract class Series2000<T> extends IntegrityTest {
         assertNull(op.put(Configuration.Key.isStandardAliasSupported,            isStandardAliasSupported));
         assertNull(op.put(Configuration.Key.isDependencyIdentificationSupported, isDependencyIdentificationSupported));
         assertNull(op.put(Configuration.Key.isDeprecatedObjectCreationSupported, isDeprecatedObjectCreationSupported));
-        // isOperationVersionSupported not added here. Should be added only by subclasses that use it.
+        // isOperationVersionSupported, isDerivativeSupported, isInverseTransformSupported and
+        // isConcurrentTransformSupported not added here. Should be added only by subclasses that use them.
         return op;
     }
 
@@ -88,6 +88,37 @@ public abstract class Series3000<T> extends IntegrityTest {
      */
     protected boolean isFactoryPreservingUserValues;
 
+    /**
+     * {@code true} if the {@link org.opengis.referencing.operation.MathTransform} of the tested operations
+     * support {@linkplain org.opengis.referencing.operation.MathTransform#derivative derivative} calculation.
+     * If {@code true} (the default), then the test methods will compare the derivatives with estimations
+     * by finite differences. If {@code false}, then the derivatives are not computed.
+     *
+     * <p>This flag is significant only for tests on map projections having a math transform.</p>
+     */
+    protected boolean isDerivativeSupported;
+
+    /**
+     * {@code true} if the {@link org.opengis.referencing.operation.MathTransform} of the tested operations
+     * support {@linkplain org.opengis.referencing.operation.MathTransform#inverse() inverse} transforms.
+     * If {@code true} (the default), then the test methods will transform a lattice of points forward and
+     * backward and compare with the original points. If {@code false}, then the inverses are not tested.
+     *
+     * <p>This flag is significant only for tests on operations having a math transform.</p>
+     */
+    protected boolean isInverseTransformSupported;
+
+    /**
+     * {@code true} if the {@link org.opengis.referencing.operation.MathTransform} of the tested operations
+     * can be used concurrently by many threads. If {@code true} (the default), then the test methods will
+     * transform points from an increasing number of threads and compare with the results of a single thread,
+     * and the round trips will be computed in parallel. If {@code false}, then the transforms are used from
+     * a single thread only.
+     *
+     * <p>This flag is significant only for tests on operations having a math transform.</p>
+     */
+    protected boolean isConcurrentTransformSupported;
+
     /**
      * If {@code true}, initialize the data but do not run the test.
      */
@@ -117,7 +148,10 @@ public abstract class Series3000<T> extends IntegrityTest {
      */
     @SuppressWarnings({"rawtypes", "unchecked"})
     private static final Configuration.Key<Boolean>[] OPTION_KEYS = new Configuration.Key[] {
-            /* [0] */ Configuration.Key.isFactoryPreservingUserValues};
+            /* [0] */ Configuration.Key.isFactoryPreservingUserValues,
+            /* [1] */ Configuration.Key.isDerivativeSupported,
+            /* [2] */ Configuration.Key.isInverseTransformSupported,
+            /* [3] */ CONCURRENT_TRANSFORM_SUPPORTED};
 
     /**
      * Enables or disables an optional aspect to be verified.
@@ -126,7 +160,10 @@ public abstract class Series3000<T> extends IntegrityTest {
     @Override
     final void setOptionEnabled(final int key, final boolean value) {
         switch (key) {
-            case  0: isFactoryPreservingUserValues = value; break;
+            case  0: isFactoryPreservingUserValues  = value; break;
+            case  1: isDerivativeSupported          = value; break;
+            case  2: isInverseTransformSupported    = value; break;
+            case  3: isConcurrentTransformSupported = value; break;
             default: throw new AssertionError(key);
         }
     }
@@ -139,6 +176,9 @@ public abstract class Series3000<T> extends IntegrityTest {
      *   <li>All the following values associated to the {@link Configuration.Key} of the same name:
      *     <ul>
      *       <li>{@link #isFactoryPreservingUserValues}</li>
+     *       <li>{@link #isDerivativeSupported} (only in map projection tests)</li>
+     *       <li>{@link #isInverseTransformSupported} (only in conversion and transformation tests)</li>
+     *       <li>{@link #isConcurrentTransformSupported} (only in conversion and transformation tests)</li>
      *       <li>The factories used by the test (provided by subclasses)</li>
      *     </ul>
      *   </li>
@@ -150,6 +190,8 @@ public abstract class Series3000<T> extends IntegrityTest {
     Configuration configuration() {
         final Configuration op = super.configuration();
         assertNull(op.put(Configuration.Key.isFactoryPreservingUserValues, isFactoryPreservingUserValues));
+        // isDerivativeSupported, isInverseTransformSupported and isConcurrentTransformSupported
+        // not added here. Should be added only by subclasses that use them.
         return op;
     }
 
@@ -160,7 +202,10 @@ public abstract class Series3000<T> extends IntegrityTest {
      * @param  sous  the test class from which to copy the configuration.
      */
     final void copyConfigurationFrom(final Series3000<?> source) {
-        isFactoryPreservingUserValues = source.isFactoryPreservingUserValues;
+        isFactoryPreservingUserValues  = source.isFactoryPreservingUserValues;
+        isDerivativeSupported          = source.isDerivativeSupported;
+        isInverseTransformSupported    = source.isInverseTransformSupported;
+        isConcurrentTransformSupported = source.isConcurrentTransformSupported;
         skipIdentificationCheck |= source.skipIdentificationCheck;
         skipTests = false;
     }
@@ -0,0 +1,487 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs;
+
+import java.util.Arrays;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.iogp.gigs.internal.TransformStatistics;
+import org.iogp.gigs.internal.geoapi.Configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+
+/**
+ * Base class for tests of coordinate operations applied on coordinate values (5000 series).
+ * The test procedures in this series evaluate the software’s capabilities to transform
+ * large arrays of coordinates with the {@link MathTransform} API. The results are compared
+ * against reference coordinates, and the number of points transformed per second is recorded
+ * for each operation method.
+ *
+ * <h2>Array types</h2>
+ * Coordinates are transformed with the four {@code MathTransform.transform(…)} methods working on
+ * packed arrays of {@code double} or {@code float} values. Each method can be disabled individually
+ * if the implementation does not support it yet. The {@code double[]} method is also tested with
+ * source and target regions overlapping in the same array, which allows applications to transform
+ * very large arrays in place without doubling the memory usage.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+public abstract class Series5000 extends IntegrityTest {
+    /**
+     * Number of points in the arrays to transform.
+     */
+    static final int POINT_COUNT = 1 << 20;
+
+    /**
+     * Interval between two occurrences of the reference point in the arrays to transform.
+     * All other points are distributed around the reference point.
+     */
+    private static final int REFERENCE_STRIDE = 1 << 10;
+
+    /**
+     * Interval between two points which are verified against a transformation of a single point.
+     */
+    private static final int SAMPLE_STRIDE = 97;
+
+    /**
+     * Number of points in the windows transformed in overlapping regions of the same array.
+     */
+    private static final int WINDOW = 4096;
+
+    /**
+     * Number of points between the source and target regions of overlapping windows.
+     * This is smaller than {@link #WINDOW} for ensuring that the regions overlap.
+     */
+    private static final int SHIFT = WINDOW / 3;
+
+    /**
+     * {@code true} if {@link MathTransform#transform(double[], int, double[], int, int)} is supported.
+     */
+    protected boolean isDoubleToDoubleSupported;
+
+    /**
+     * {@code true} if {@link MathTransform#transform(float[], int, float[], int, int)} is supported.
+     */
+    protected boolean isFloatToFloatSupported;
+
+    /**
+     * {@code true} if {@link MathTransform#transform(double[], int, float[], int, int)} is supported.
+     */
+    protected boolean isDoubleToFloatSupported;
+
+    /**
+     * {@code true} if {@link MathTransform#transform(float[], int, double[], int, int)} is supported.
+     */
+    protected boolean isFloatToDoubleSupported;
+
+    /**
+     * {@code true} if source and destination arrays can overlap in {@link MathTransform} operations.
+     */
+    protected boolean isOverlappingArraySupported;
+
+    /**
+     * The name of the operation method of the transform to test. This field is set by subclasses
+     * together with {@link #transform}, and is used as a label in the throughput statistics.
+     */
+    String methodName;
+
+    /**
+     * The transform to test. This field is set by subclasses before to invoke {@link #verifyTransform()}.
+     */
+    MathTransform transform;
+
+    /**
+     * Coordinates of the reference point in the source CRS of {@link #transform}.
+     */
+    double[] sourcePoint;
+
+    /**
+     * Expected coordinates of the reference point in the target CRS of {@link #transform}.
+     */
+    double[] targetPoint;
+
+    /**
+     * Half the size of the region where to distribute the points around the reference point,
+     * in units of the source CRS. The array length is the number of source dimensions.
+     */
+    double[] sourceSpan;
+
+    /**
+     * Maximal difference between the expected and actual coordinates of the reference point,
+     * in units of the target CRS.
+     */
+    double tolerance;
+
+    /**
+     * Creates a new test.
+     */
+    Series5000() {
+        initialize();
+    }
+
+    /**
+     * Returns the configuration keys for enabling or disabling optional aspects to be verified.
+     * This method does not clone the returned array. It is okay because this method is not public.
+     */
+    @Override
+    @SuppressWarnings("ReturnOfCollectionOrArrayField")
+    final Configuration.Key<Boolean>[] getOptionKeys() {
+        return OPTION_KEYS;
+    }
+
+    /**
+     * The array returned by {@link #getOptionKeys()}.
+     * Shall not be modified, because it will not be cloned.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final Configuration.Key<Boolean>[] OPTION_KEYS = new Configuration.Key[] {
+            /* [0] */ Configuration.Key.isDoubleToDoubleSupported,
+            /* [1] */ Configuration.Key.isFloatToFloatSupported,
+            /* [2] */ Configuration.Key.isDoubleToFloatSupported,
+            /* [3] */ Configuration.Key.isFloatToDoubleSupported,
+            /* [4] */ Configuration.Key.isOverlappingArraySupported};
+
+    /**
+     * Enables or disables an optional aspect to be verified.
+     * The {@code key} argument value shall be an index in the {@link #OPTION_KEYS} array.
+     */
+    @Override
+    final void setOptionEnabled(final int key, final boolean value) {
+        switch (key) {
+            case  0: isDoubleToDoubleSupported = value; break;
+            case  1: isFloatToFloatSupported   = value; break;
+            case  2: isDoubleToFloatSupported  = value; break;
+            case  3: isFloatToDoubleSupported  = value; break;
+            case  4: isOverlappingArraySupported = value; break;
+            default: throw new AssertionError(key);
+        }
+    }
+
+    /**
+     * Returns information about the configuration of the test which has been run.
+     * This method returns a map containing:
+     *
+     * <ul>
+     *   <li>All the following values associated to the {@link Configuration.Key} of the same name:
+     *     <ul>
+     *       <li>{@link #isDoubleToDoubleSupported}</li>
+     *       <li>{@link #isFloatToFloatSupported}</li>
+     *       <li>{@link #isDoubleToFloatSupported}</li>
+     *       <li>{@link #isFloatToDoubleSupported}</li>
+     *       <li>{@link #isOverlappingArraySupported}</li>
+     *       <li>The factories used by the test (provided by subclasses)</li>
+     *     </ul>
+     *   </li>
+     * </ul>
+     *
+     * @return the configuration of the test being run.
+     */
+    @Override
+    Configuration configuration() {
+        final Configuration op = super.configuration();
+        assertNull(op.put(Configuration.Key.isDoubleToDoubleSupported, isDoubleToDoubleSupported));
+        assertNull(op.put(Configuration.Key.isFloatToFloatSupported,   isFloatToFloatSupported));
+        assertNull(op.put(Configuration.Key.isDoubleToFloatSupported,  isDoubleToFloatSupported));
+        assertNull(op.put(Configuration.Key.isFloatToDoubleSupported,  isFloatToDoubleSupported));
+        assertNull(op.put(Configuration.Key.isOverlappingArraySupported, isOverlappingArraySupported));
+        return op;
+    }
+
+    /**
+     * Creates the source coordinates to transform. The reference point is repeated every
+     * {@value #REFERENCE_STRIDE} points, and other points are distributed in a deterministic
+     * pseudo-random way in the region of size {@link #sourceSpan} around the reference point.
+     *
+     * @return packed source coordinates of {@link #POINT_COUNT} points.
+     */
+    final double[] createSourcePoints() {
+        final int dimension = sourcePoint.length;
+        final double[] points = new double[POINT_COUNT * dimension];
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i=0; i<POINT_COUNT; i++) {
+            for (int j=0; j<dimension; j++) {
+                double value = sourcePoint[j];
+                if ((i % REFERENCE_STRIDE) != 0) {
+                    seed = seed * 6364136223846793005L + 1442695040888963407L;
+                    value += sourceSpan[j] * ((seed >>> 11) * 0x1.0p-53 * 2 - 1);
+                }
+                points[i*dimension + j] = value;
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Transforms a single point using the {@code double[]} API.
+     *
+     * @param  source  packed source coordinates.
+     * @param  index   index of the point to transform.
+     * @return transformed coordinates of the specified point.
+     * @throws TransformException if the point can not be transformed.
+     */
+    final double[] transform(final double[] source, final int index) throws TransformException {
+        final double[] target = new double[transform.getTargetDimensions()];
+        transform.transform(source, index * transform.getSourceDimensions(), target, 0, 1);
+        return target;
+    }
+
+    /**
+     * Transforms the reference point and compares against the expected coordinates.
+     * Then transforms a large array of points with each {@code MathTransform.transform(…)} method
+     * and verifies the results against the transformation of the points one by one.
+     *
+     * @throws TransformException if the coordinates can not be transformed.
+     */
+    final void verifyTransform() throws TransformException {
+        final int srcDim = transform.getSourceDimensions();
+        final int tgtDim = transform.getTargetDimensions();
+        assumeTrue(srcDim == sourcePoint.length && tgtDim == targetPoint.length,
+                   "Unexpected number of dimensions.");
+        final double[] source = createSourcePoints();
+        final double[] single = transform(source, 0);
+        for (int j=0; j<tgtDim; j++) {
+            assertEquals(targetPoint[j], single[j], tolerance, "Reference point");
+        }
+        final TransformStatistics statistics = TransformStatistics.current();
+        /*
+         * double[] → double[]. The result is used as the reference for all other array types,
+         * after verification that it is consistent with the transformation of single points.
+         */
+        double[] expected = null;
+        if (isDoubleToDoubleSupported) {
+            configurationTip = Configuration.Key.isDoubleToDoubleSupported;
+            final double[] target = new double[POINT_COUNT * tgtDim];
+            transform.transform(source, 0, target, 0, POINT_COUNT / 16);               // Warmup.
+            final long start = System.nanoTime();
+            transform.transform(source, 0, target, 0, POINT_COUNT);
+            statistics.record("double[] to double[]", methodName, POINT_COUNT, System.nanoTime() - start);
+            for (int i=0; i<POINT_COUNT; i += REFERENCE_STRIDE) {
+                for (int j=0; j<tgtDim; j++) {
+                    assertEquals(targetPoint[j], target[i*tgtDim + j], tolerance, "Reference point in array");
+                }
+            }
+            for (int i=0; i<POINT_COUNT; i += SAMPLE_STRIDE) {
+                final double[] point = transform(source, i);
+                for (int j=0; j<tgtDim; j++) {
+                    assertEquals(point[j], target[i*tgtDim + j], ulps(point[j]), "Point in double[] array");
+                }
+            }
+            expected = target;
+        }
+        /*
+         * Arrays of single-precision values. The source points are rounded to `float` values,
+         * so the expected values are computed from the rounded values for the float → * cases.
+         */
+        final float[] sourceAsFloats = new float[source.length];
+        for (int i=0; i<source.length; i++) {
+            sourceAsFloats[i] = (float) source[i];
+        }
+        if (isFloatToFloatSupported) {
+            configurationTip = Configuration.Key.isFloatToFloatSupported;
+            final float[] target = new float[POINT_COUNT * tgtDim];
+            transform.transform(sourceAsFloats, 0, target, 0, POINT_COUNT / 16);       // Warmup.
+            final long start = System.nanoTime();
+            transform.transform(sourceAsFloats, 0, target, 0, POINT_COUNT);
+            statistics.record("float[] to float[]", methodName, POINT_COUNT, System.nanoTime() - start);
+            verifyFloats(sourceAsFloats, target, "Point in float[] array");
+        }
+        if (isDoubleToFloatSupported) {
+            configurationTip = Configuration.Key.isDoubleToFloatSupported;
+            final float[] target = new float[POINT_COUNT * tgtDim];
+            transform.transform(source, 0, target, 0, POINT_COUNT / 16);               // Warmup.
+            final long start = System.nanoTime();
+            transform.transform(source, 0, target, 0, POINT_COUNT);
+            statistics.record("double[] to float[]", methodName, POINT_COUNT, System.nanoTime() - start);
+            for (int i=0; i<POINT_COUNT; i += SAMPLE_STRIDE) {
+                final double[] point = (expected != null) ? null : transform(source, i);
+                for (int j=0; j<tgtDim; j++) {
+                    final double e = (point != null) ? point[j] : expected[i*tgtDim + j];
+                    assertEquals((float) e, target[i*tgtDim + j], Math.ulp((float) e), "Point in double[] → float[] arrays");
+                }
+            }
+        }
+        if (isFloatToDoubleSupported) {
+            configurationTip = Configuration.Key.isFloatToDoubleSupported;
+            final double[] target = new double[POINT_COUNT * tgtDim];
+            transform.transform(sourceAsFloats, 0, target, 0, POINT_COUNT / 16);       // Warmup.
+            final long start = System.nanoTime();
+            transform.transform(sourceAsFloats, 0, target, 0, POINT_COUNT);
+            statistics.record("float[] to double[]", methodName, POINT_COUNT, System.nanoTime() - start);
+            final double[] rounded = new double[srcDim];
+            final double[] point = new double[tgtDim];
+            for (int i=0; i<POINT_COUNT; i += SAMPLE_STRIDE) {
+                for (int j=0; j<srcDim; j++) {
+                    rounded[j] = sourceAsFloats[i*srcDim + j];
+                }
+                transform.transform(rounded, 0, point, 0, 1);
+                for (int j=0; j<tgtDim; j++) {
+                    assertEquals(point[j], target[i*tgtDim + j], ulps(point[j]), "Point in float[] → double[] arrays");
+                }
+            }
+        }
+        /*
+         * Overlapping arrays are verified last, because that verification
+         * aborts the test if the source and target dimensions differ.
+         */
+        if (isOverlappingArraySupported && expected != null) {
+            verifyOverlappingArrays(source, expected, statistics);
+        }
+        configurationTip = null;
+    }
+
+    /**
+     * Transforms coordinates in overlapping regions of the same array and compares with the result
+     * of the transformation in a separated array. The following cases are tested:
+     *
+     * <ul>
+     *   <li>In-place transformation of the whole array (same source and target offsets).</li>
+     *   <li>Windows of {@value #WINDOW} points sliding toward the beginning of the array, with each
+     *       target region starting {@value #SHIFT} points before its source region.</li>
+     *   <li>Windows of {@value #WINDOW} points sliding toward the end of the array, with each
+     *       target region starting {@value #SHIFT} points after its source region.</li>
+     * </ul>
+     *
+     * The time of the in-place transformation is also compared to the time of a transformation
+     * in a separated array, as done by applications which copy the coordinates. The allocation
+     * of that array is not included in the measured time, and both paths are warmed up the same way.
+     * If the source and target dimensions differ, the test is aborted since the regions can not be compared.
+     *
+     * @param  source      the source coordinates.
+     * @param  expected    the result of the transformation in a separated array.
+     * @param  statistics  where to record the throughput.
+     * @throws TransformException if the coordinates can not be transformed.
+     */
+    private void verifyOverlappingArrays(final double[] source, final double[] expected,
+            final TransformStatistics statistics) throws TransformException
+    {
+        final int srcDim = transform.getSourceDimensions();
+        final int tgtDim = transform.getTargetDimensions();
+        assumeTrue(srcDim == tgtDim, "Overlapping arrays require the same number of source and target dimensions.");
+        configurationTip = Configuration.Key.isOverlappingArraySupported;
+        final int dim = srcDim;
+        /*
+         * In-place transformation, compared to the transformation in a separated array.
+         * Both arrays are allocated and both paths are warmed up before the measurements.
+         */
+        final double[] buffer = source.clone();
+        final double[] copy   = new double[POINT_COUNT * dim];
+        transform.transform(buffer, 0, buffer, 0, POINT_COUNT / 16);               // Warmup.
+        transform.transform(source, 0, copy,   0, POINT_COUNT / 16);               // Warmup.
+        System.arraycopy(source, 0, buffer, 0, buffer.length);
+        long start = System.nanoTime();
+        transform.transform(buffer, 0, buffer, 0, POINT_COUNT);
+        statistics.record("double[] in place", methodName, POINT_COUNT, System.nanoTime() - start);
+        assertValuesEqual(expected, 0, buffer, 0, "In-place transformation");
+        start = System.nanoTime();
+        transform.transform(source, 0, copy, 0, POINT_COUNT);
+        statistics.record("double[] to new array", methodName, POINT_COUNT, System.nanoTime() - start);
+        /*
+         * Windows sliding toward the beginning of the array. The source coordinates are stored
+         * after a margin of SHIFT points, and the results are written at the array beginning.
+         * Windows are processed in increasing order so that no source is overwritten before use.
+         */
+        final double[] window = new double[(POINT_COUNT + SHIFT) * dim];
+        System.arraycopy(source, 0, window, SHIFT * dim, POINT_COUNT * dim);
+        for (int i=0; i<POINT_COUNT; i += WINDOW) {
+            final int n = Math.min(WINDOW, POINT_COUNT - i);
+            transform.transform(window, (i + SHIFT) * dim, window, i * dim, n);
+        }
+        assertValuesEqual(expected, 0, window, 0, "Backward overlapping windows");
+        /*
+         * Windows sliding toward the end of the array. Windows are processed in decreasing order.
+         */
+        Arrays.fill(window, Double.NaN);
+        System.arraycopy(source, 0, window, 0, POINT_COUNT * dim);
+        for (int i = ((POINT_COUNT - 1) / WINDOW) * WINDOW; i >= 0; i -= WINDOW) {
+            final int n = Math.min(WINDOW, POINT_COUNT - i);
+            transform.transform(window, i * dim, window, (i + SHIFT) * dim, n);
+        }
+        assertValuesEqual(expected, 0, window, SHIFT * dim, "Forward overlapping windows");
+    }
+
+    /**
+     * Compares the results of a transformation in overlapping arrays with the expected values.
+     * The comparison uses the same tolerance than the comparison of bulk and single-point transformations.
+     *
+     * @param  expected  the result of the transformation in a separated array.
+     * @param  expOff    index of the first expected value.
+     * @param  actual    the result of the transformation in overlapping arrays.
+     * @param  actOff    index of the first actual value.
+     * @param  message   the message to show in case of failure.
+     */
+    private static void assertValuesEqual(final double[] expected, final int expOff,
+            final double[] actual, final int actOff, final String message)
+    {
+        for (int i = expected.length - expOff; --i >= 0;) {
+            final double e = expected[expOff + i];
+            final double a = actual[actOff + i];
+            if (Double.doubleToLongBits(e) != Double.doubleToLongBits(a)) {
+                assertEquals(e, a, ulps(e), message);
+            }
+        }
+    }
+
+    /**
+     * Verifies the transformation of an array of {@code float} coordinates.
+     * The expected values are computed by transforming the source points one by one in double precision.
+     *
+     * @param  source   the source coordinates.
+     * @param  target   the transformed coordinates to verify.
+     * @param  message  the message to show in case of failure.
+     * @throws TransformException if a point can not be transformed.
+     */
+    private void verifyFloats(final float[] source, final float[] target, final String message) throws TransformException {
+        final int srcDim = transform.getSourceDimensions();
+        final int tgtDim = transform.getTargetDimensions();
+        final double[] rounded = new double[srcDim];
+        final double[] point = new double[tgtDim];
+        for (int i=0; i<POINT_COUNT; i += SAMPLE_STRIDE) {
+            for (int j=0; j<srcDim; j++) {
+                rounded[j] = source[i*srcDim + j];
+            }
+            transform.transform(rounded, 0, point, 0, 1);
+            for (int j=0; j<tgtDim; j++) {
+                final float e = (float) point[j];
+                assertEquals(e, target[i*tgtDim + j], 2 * Math.ulp(e), message);
+            }
+        }
+    }
+
+    /**
+     * Returns the tolerance for comparing the result of a bulk transformation with the transformation
+     * of a single point. Implementations may use different code paths for arrays, for example with
+     * optimizations that change the order of arithmetic operations, so a few ULPs are accepted.
+     *
+     * @param  expected  the expected value.
+     * @return tolerance threshold for the given value.
+     */
+    private static double ulps(final double expected) {
+        return Math.max(Math.ulp(expected) * 16, TOLERANCE);
+    }
+}
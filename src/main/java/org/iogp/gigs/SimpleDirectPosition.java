@@ -0,0 +1,146 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs;
+
+import java.util.Arrays;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+
+/**
+ * A simple implementation of {@link DirectPosition}, used for GIGS testing purpose only.
+ * The coordinate reference system is unspecified.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class SimpleDirectPosition implements DirectPosition {
+    /**
+     * The coordinate values. This array is modified in-place by the tests.
+     */
+    final double[] coordinates;
+
+    /**
+     * Creates a new position of the given number of dimensions.
+     *
+     * @param  dimension  number of dimensions.
+     */
+    SimpleDirectPosition(final int dimension) {
+        coordinates = new double[dimension];
+    }
+
+    /**
+     * Returns the direct position, which is this object itself.
+     *
+     * @return {@code this}.
+     */
+    @Override
+    public DirectPosition getDirectPosition() {
+        return this;
+    }
+
+    /**
+     * Returns the coordinate reference system, which is unspecified.
+     *
+     * @return {@code null}.
+     */
+    @Override
+    public CoordinateReferenceSystem getCoordinateReferenceSystem() {
+        return null;
+    }
+
+    /**
+     * Returns the number of dimensions specified at construction time.
+     *
+     * @return number of dimensions.
+     */
+    @Override
+    public int getDimension() {
+        return coordinates.length;
+    }
+
+    /**
+     * Returns a copy of the coordinate values.
+     *
+     * @return the coordinate values.
+     */
+    @Override
+    public double[] getCoordinate() {
+        return coordinates.clone();
+    }
+
+    /**
+     * Returns the coordinate value at the given dimension.
+     *
+     * @param  dimension  the dimension in the range 0 to {@linkplain #getDimension() dimension}-1.
+     * @return the coordinate value at the given dimension.
+     */
+    @Override
+    public double getOrdinate(final int dimension) {
+        return coordinates[dimension];
+    }
+
+    /**
+     * Sets the coordinate value at the given dimension.
+     *
+     * @param  dimension  the dimension in the range 0 to {@linkplain #getDimension() dimension}-1.
+     * @param  value      the coordinate value.
+     */
+    @Override
+    public void setOrdinate(final int dimension, final double value) {
+        coordinates[dimension] = value;
+    }
+
+    /**
+     * Returns a string representation of this position.
+     */
+    @Override
+    public String toString() {
+        return "POINT" + Arrays.toString(coordinates).replace('[', '(').replace(']', ')').replace(",", "");
+    }
+
+    /**
+     * Returns a hash code value for this position.
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(coordinates);
+    }
+
+    /**
+     * Compares this position with the given object for equality.
+     * The comparison is performed as documented in {@link DirectPosition#equals(Object)}.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof DirectPosition) {
+            final DirectPosition other = (DirectPosition) obj;
+            return other.getCoordinateReferenceSystem() == null
+                    && Arrays.equals(coordinates, other.getCoordinate());
+        }
+        return false;
+    }
+}
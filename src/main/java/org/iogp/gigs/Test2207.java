@@ -148,6 +148,9 @@ public class Test2207 extends Series2000<ProjectedCRS> {
      *       <li>{@link #isStandardAliasSupported}</li>
      *       <li>{@link #isDependencyIdentificationSupported}</li>
      *       <li>{@link #isDeprecatedObjectCreationSupported}</li>
+     *       <li>{@link #isDerivativeSupported}</li>
+     *       <li>{@link #isInverseTransformSupported}</li>
+     *       <li>{@link #isConcurrentTransformSupported}</li>
      *       <li>{@link #crsAuthorityFactory}</li>
      *     </ul>
      *   </li>
@@ -158,7 +161,10 @@ public class Test2207 extends Series2000<ProjectedCRS> {
     @Override
     Configuration configuration() {
         final Configuration op = super.configuration();
-        assertNull(op.put(Configuration.Key.crsAuthorityFactory, crsAuthorityFactory));
+        assertNull(op.put(Configuration.Key.isDerivativeSupported,       isDerivativeSupported));
+        assertNull(op.put(Configuration.Key.isInverseTransformSupported, isInverseTransformSupported));
+        assertNull(op.put(CONCURRENT_TRANSFORM_SUPPORTED,                isConcurrentTransformSupported));
+        assertNull(op.put(Configuration.Key.crsAuthorityFactory,         crsAuthorityFactory));
         return op;
     }
 
@@ -227,6 +233,15 @@ public class Test2207 extends Series2000<ProjectedCRS> {
         directions[isNorthAxisFirst ? 1 : 0] = isWestOrientated  ? AxisDirection.WEST  : AxisDirection.EAST;
         directions[isNorthAxisFirst ? 0 : 1] = isSouthOrientated ? AxisDirection.SOUTH : AxisDirection.NORTH;
         assertAxisDirectionsEqual("ProjectedCRS.getCoordinateSystem().getAxis(*)", cs, directions);
+
+        // Derivatives and round trips of the conversion from the base CRS.
+        if (isDerivativeSupported) {
+            verifyDerivative(crs.getConversionFromBase(), crs.getBaseCRS(), crs.getDomainOfValidity());
+        }
+        if (isInverseTransformSupported) {
+            verifyRoundTrip(crs.getConversionFromBase(), crs.getBaseCRS(), crs.getDomainOfValidity(),
+                            isConcurrentTransformSupported);
+        }
     }
 
     /**
@@ -129,6 +129,8 @@ public class Test2208 extends Series2000<Transformation> {
      *       <li>{@link #isDependencyIdentificationSupported}</li>
      *       <li>{@link #isDeprecatedObjectCreationSupported}</li>
      *       <li>{@link #isOperationVersionSupported}</li>
+     *       <li>{@link #isInverseTransformSupported}</li>
+     *       <li>{@link #isConcurrentTransformSupported}</li>
      *       <li>{@link #copAuthorityFactory}</li>
      *     </ul>
      *   </li>
@@ -140,7 +142,9 @@ public class Test2208 extends Series2000<Transformation> {
     Configuration configuration() {
         final Configuration op = super.configuration();
         assertNull(op.put(Configuration.Key.isOperationVersionSupported, isOperationVersionSupported));
-        assertNull(op.put(Configuration.Key.copAuthorityFactory, copAuthorityFactory));
+        assertNull(op.put(Configuration.Key.isInverseTransformSupported, isInverseTransformSupported));
+        assertNull(op.put(CONCURRENT_TRANSFORM_SUPPORTED,                isConcurrentTransformSupported));
+        assertNull(op.put(Configuration.Key.copAuthorityFactory,         copAuthorityFactory));
         return op;
     }
 
@@ -202,6 +206,9 @@ public class Test2208 extends Series2000<Transformation> {
         if (isOperationVersionSupported) {
             assertEquals(version, transformation.getOperationVersion(), "Transformation.getOperationVersion()");
         }
+        if (isInverseTransformSupported) {
+            verifyRoundTrip(transformation, null, null, isConcurrentTransformSupported);
+        }
     }
 
     /**
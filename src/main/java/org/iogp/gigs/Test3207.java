@@ -213,6 +213,9 @@ public class Test3207 extends Series3000<ProjectedCRS> {
      *   <li>All the following values associated to the {@link Configuration.Key} of the same name:
      *     <ul>
      *       <li>{@link #isFactoryPreservingUserValues}</li>
+     *       <li>{@link #isDerivativeSupported}</li>
+     *       <li>{@link #isInverseTransformSupported}</li>
+     *       <li>{@link #isConcurrentTransformSupported}</li>
      *       <li>{@link #copFactory}</li>
      *       <li>{@link #mtFactory}</li>
      *       <li>{@link #datumFactory}</li>
@@ -229,13 +232,16 @@ public class Test3207 extends Series3000<ProjectedCRS> {
     @Override
     Configuration configuration() {
         final Configuration op = super.configuration();
-        assertNull(op.put(Configuration.Key.copFactory,            copFactory));
-        assertNull(op.put(Configuration.Key.mtFactory,             mtFactory));
-        assertNull(op.put(Configuration.Key.datumFactory,          datumFactory));
-        assertNull(op.put(Configuration.Key.csFactory,             csFactory));
-        assertNull(op.put(Configuration.Key.crsFactory,            crsFactory));
-        assertNull(op.put(Configuration.Key.copAuthorityFactory,   copAuthorityFactory));
-        assertNull(op.put(Configuration.Key.datumAuthorityFactory, datumAuthorityFactory));
+        assertNull(op.put(Configuration.Key.isDerivativeSupported,       isDerivativeSupported));
+        assertNull(op.put(Configuration.Key.isInverseTransformSupported, isInverseTransformSupported));
+        assertNull(op.put(CONCURRENT_TRANSFORM_SUPPORTED,                isConcurrentTransformSupported));
+        assertNull(op.put(Configuration.Key.copFactory,                  copFactory));
+        assertNull(op.put(Configuration.Key.mtFactory,                   mtFactory));
+        assertNull(op.put(Configuration.Key.datumFactory,                datumFactory));
+        assertNull(op.put(Configuration.Key.csFactory,                   csFactory));
+        assertNull(op.put(Configuration.Key.crsFactory,                  crsFactory));
+        assertNull(op.put(Configuration.Key.copAuthorityFactory,         copAuthorityFactory));
+        assertNull(op.put(Configuration.Key.datumAuthorityFactory,       datumAuthorityFactory));
         return op;
     }
 
@@ -362,6 +368,15 @@ public class Test3207 extends Series3000<ProjectedCRS> {
         final CartesianCS cs = crs.getCoordinateSystem();
         assertNotNull(crs, "ProjectedCRS.getCoordinateSystem()");
         assertEquals(2, cs.getDimension(), "ProjectedCRS.getCoordinateSystem().getDimension()");
+
+        // Derivatives and round trips of the conversion from the base CRS.
+        if (isDerivativeSupported) {
+            verifyDerivative(crs.getConversionFromBase(), crs.getBaseCRS(), crs.getDomainOfValidity());
+        }
+        if (isInverseTransformSupported) {
+            verifyRoundTrip(crs.getConversionFromBase(), crs.getBaseCRS(), crs.getDomainOfValidity(),
+                            isConcurrentTransformSupported);
+        }
     }
 
     /**
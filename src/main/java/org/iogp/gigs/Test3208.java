@@ -216,6 +216,8 @@ public class Test3208 extends Series3000<Transformation> {
      *   <li>All the following values associated to the {@link Configuration.Key} of the same name:
      *     <ul>
      *       <li>{@link #isFactoryPreservingUserValues}</li>
+     *       <li>{@link #isInverseTransformSupported}</li>
+     *       <li>{@link #isConcurrentTransformSupported}</li>
      *       <li>{@link #mtFactory}</li>
      *       <li>{@link #copFactory}</li>
      *       <li>{@link #crsFactory}</li>
@@ -232,13 +234,15 @@ public class Test3208 extends Series3000<Transformation> {
     @Override
     Configuration configuration() {
         final Configuration op = super.configuration();
-        assertNull(op.put(Configuration.Key.mtFactory,             mtFactory));
-        assertNull(op.put(Configuration.Key.copFactory,            copFactory));
-        assertNull(op.put(Configuration.Key.crsFactory,            crsFactory));
-        assertNull(op.put(Configuration.Key.csFactory,             csFactory));
-        assertNull(op.put(Configuration.Key.datumFactory,          datumFactory));
-        assertNull(op.put(Configuration.Key.crsAuthorityFactory,   crsAuthorityFactory));
-        assertNull(op.put(Configuration.Key.datumAuthorityFactory, datumAuthorityFactory));
+        assertNull(op.put(Configuration.Key.isInverseTransformSupported, isInverseTransformSupported));
+        assertNull(op.put(CONCURRENT_TRANSFORM_SUPPORTED,                isConcurrentTransformSupported));
+        assertNull(op.put(Configuration.Key.mtFactory,                   mtFactory));
+        assertNull(op.put(Configuration.Key.copFactory,                  copFactory));
+        assertNull(op.put(Configuration.Key.crsFactory,                  crsFactory));
+        assertNull(op.put(Configuration.Key.csFactory,                   csFactory));
+        assertNull(op.put(Configuration.Key.datumFactory,                datumFactory));
+        assertNull(op.put(Configuration.Key.crsAuthorityFactory,         crsAuthorityFactory));
+        assertNull(op.put(Configuration.Key.datumAuthorityFactory,       datumAuthorityFactory));
         return op;
     }
 
@@ -388,6 +392,12 @@ public class Test3208 extends Series3000<Transformation> {
                 p.verify(definition);
             }
         }
+        if (isInverseTransformSupported) {
+            verifyRoundTrip(transformation, sourceCRS, sourceCRS.getDomainOfValidity(), isConcurrentTransformSupported);
+        }
+        if (isConcurrentTransformSupported) {
+            verifyConcurrency(transformation, sourceCRS, sourceCRS.getDomainOfValidity());
+        }
     }
 
     /**
@@ -193,6 +193,8 @@ public class Test3212 extends Series3000<ConcatenatedOperation> {
      *   <li>All the following values associated to the {@link Configuration.Key} of the same name:
      *     <ul>
      *       <li>{@link #isFactoryPreservingUserValues}</li>
+     *       <li>{@link #isInverseTransformSupported}</li>
+     *       <li>{@link #isConcurrentTransformSupported}</li>
      *       <li>{@link #mtFactory}</li>
      *       <li>{@link #copFactory}</li>
      *       <li>{@link #datumFactory}</li>
@@ -209,13 +211,15 @@ public class Test3212 extends Series3000<ConcatenatedOperation> {
     @Override
     Configuration configuration() {
         final Configuration op = super.configuration();
-        assertNull(op.put(Configuration.Key.mtFactory,             mtFactory));
-        assertNull(op.put(Configuration.Key.copFactory,            copFactory));
-        assertNull(op.put(Configuration.Key.crsFactory,            crsFactory));
-        assertNull(op.put(Configuration.Key.csFactory,             csFactory));
-        assertNull(op.put(Configuration.Key.datumFactory,          datumFactory));
-        assertNull(op.put(Configuration.Key.crsAuthorityFactory,   crsAuthorityFactory));
-        assertNull(op.put(Configuration.Key.datumAuthorityFactory, datumAuthorityFactory));
+        assertNull(op.put(Configuration.Key.isInverseTransformSupported, isInverseTransformSupported));
+        assertNull(op.put(CONCURRENT_TRANSFORM_SUPPORTED,                isConcurrentTransformSupported));
+        assertNull(op.put(Configuration.Key.mtFactory,                   mtFactory));
+        assertNull(op.put(Configuration.Key.copFactory,                  copFactory));
+        assertNull(op.put(Configuration.Key.crsFactory,                  crsFactory));
+        assertNull(op.put(Configuration.Key.csFactory,                   csFactory));
+        assertNull(op.put(Configuration.Key.datumFactory,                datumFactory));
+        assertNull(op.put(Configuration.Key.crsAuthorityFactory,         crsAuthorityFactory));
+        assertNull(op.put(Configuration.Key.datumAuthorityFactory,       datumAuthorityFactory));
         return op;
     }
 
@@ -259,6 +263,13 @@ public class Test3212 extends Series3000<ConcatenatedOperation> {
         step2TransformationTest.copyConfigurationFrom(this);
         step2TransformationTest.setIdentifiedObject(step2Transformation);
         step2TransformationTest.verifyTransformation();
+
+        if (isInverseTransformSupported) {
+            verifyRoundTrip(concatTransformation, null, null, isConcurrentTransformSupported);
+        }
+        if (isConcurrentTransformSupported) {
+            verifyConcurrency(concatTransformation, null, null);
+        }
     }
 
     /**
@@ -0,0 +1,377 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs;
+
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+import javax.measure.quantity.Length;
+import javax.measure.IncommensurableException;
+import org.opengis.util.FactoryException;
+import org.opengis.util.NoSuchIdentifierException;
+import org.opengis.referencing.crs.CRSAuthorityFactory;
+import org.opengis.referencing.crs.ProjectedCRS;
+import org.opengis.referencing.cs.AxisDirection;
+import org.opengis.referencing.cs.CoordinateSystem;
+import org.opengis.referencing.cs.CoordinateSystemAxis;
+import org.opengis.referencing.operation.Conversion;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.iogp.gigs.internal.geoapi.Configuration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+
+/**
+ * Verifies the bulk conversion of coordinates by map projections bundled with the geoscience software.
+ *
+ * <table class="gigs">
+ * <caption>Test description</caption>
+ * <tr>
+ *   <th>Test method:</th>
+ *   <td>Convert large arrays of geographic coordinates to projected coordinates
+ *       with each {@code MathTransform.transform(…)} method working on arrays.</td>
+ * </tr><tr>
+ *   <th>Test data:</th>
+ *   <td>Examples of IOGP Guidance Note 7-2 (Coordinate Conversions and Transformations including Formulas),
+ *       distributed with many points around the reference point.</td>
+ * </tr><tr>
+ *   <th>Tested API:</th>
+ *   <td>{@link CRSAuthorityFactory#createProjectedCRS(String)},<br>
+ *       {@link MathTransform#transform(double[], int, double[], int, int)},<br>
+ *       {@link MathTransform#transform(float[], int, float[], int, int)},<br>
+ *       {@link MathTransform#transform(double[], int, float[], int, int)} and<br>
+ *       {@link MathTransform#transform(float[], int, double[], int, int)},
+ *       including with overlapping source and target regions in the same array.</td>
+ * </tr><tr>
+ *   <th>Expected result:</th>
+ *   <td>The reference point should be converted to the expected coordinates within 1 cm,
+ *       and all points in the arrays should be converted consistently with the conversion
+ *       of a single point. The number of points converted per second is reported.</td>
+ * </tr></table>
+ *
+ *
+ * <h2>Usage example</h2>
+ * in order to specify their factories and run the tests in a JUnit framework,
+ * implementers can define a subclass in their own test suite as in the example below:
+ *
+ * {@snippet lang="java" :
+ * public class MyTest extends Test5100 {
+ *     public MyTest() {
+ *         super(new MyCRSAuthorityFactory());
+ *     }
+ * }
+ * }
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+@DisplayName("Bulk conversion")
+public class Test5100 extends Series5000 {
+    /**
+     * The EPSG code of the projected CRS to test.
+     * This field is set by all test methods before to create the projected CRS.
+     */
+    public int code;
+
+    /**
+     * Factory to use for building {@link ProjectedCRS} instances, or {@code null} if none.
+     */
+    protected final CRSAuthorityFactory crsAuthorityFactory;
+
+    /**
+     * Creates a new test using the given factory. If a given factory is {@code null},
+     * then the tests which depend on it will be skipped.
+     *
+     * @param crsFactory  factory for creating {@link ProjectedCRS} instances.
+     */
+    public Test5100(final CRSAuthorityFactory crsFactory) {
+        crsAuthorityFactory = crsFactory;
+    }
+
+    /**
+     * Returns information about the configuration of the test which has been run.
+     * This method returns a map containing:
+     *
+     * <ul>
+     *   <li>All the following values associated to the {@link Configuration.Key} of the same name:
+     *     <ul>
+     *       <li>{@link #isDoubleToDoubleSupported}</li>
+     *       <li>{@link #isFloatToFloatSupported}</li>
+     *       <li>{@link #isDoubleToFloatSupported}</li>
+     *       <li>{@link #isFloatToDoubleSupported}</li>
+     *       <li>{@link #isOverlappingArraySupported}</li>
+     *       <li>{@link #crsAuthorityFactory}</li>
+     *     </ul>
+     *   </li>
+     * </ul>
+     *
+     * @return the configuration of the test being run.
+     */
+    @Override
+    Configuration configuration() {
+        final Configuration op = super.configuration();
+        assertNull(op.put(Configuration.Key.crsAuthorityFactory, crsAuthorityFactory));
+        return op;
+    }
+
+    /**
+     * Creates the projected CRS for the given code and verifies the conversion of coordinates
+     * from its base CRS. The coordinates given to this method are in the EPSG order,
+     * (latitude, longitude) and (easting, northing). They are reordered and converted
+     * to the axis order and units of the coordinate systems of the CRS if needed.
+     *
+     * @param  code       EPSG code of the projected CRS.
+     * @param  latitude   latitude of the reference point, in degrees.
+     * @param  longitude  longitude of the reference point, in degrees.
+     * @param  easting    expected easting of the reference point.
+     * @param  northing   expected northing of the reference point.
+     * @param  unit       unit of the expected easting and northing.
+     * @throws FactoryException if an error occurred while creating the projected CRS.
+     * @throws TransformException if an error occurred while converting coordinates.
+     */
+    private void createAndVerify(final int code, final double latitude, final double longitude,
+            final double easting, final double northing, final Unit<Length> unit)
+            throws FactoryException, TransformException
+    {
+        this.code = code;
+        assumeNotNull(crsAuthorityFactory);
+        final ProjectedCRS crs;
+        try {
+            crs = crsAuthorityFactory.createProjectedCRS(String.valueOf(code));
+        } catch (NoSuchIdentifierException e) {
+            unsupportedCode(ProjectedCRS.class, code, e);
+            throw e;
+        }
+        assertNotNull(crs, "ProjectedCRS");
+        final Conversion conversion = crs.getConversionFromBase();
+        assertNotNull(conversion, "ProjectedCRS.getConversionFromBase()");
+        transform = conversion.getMathTransform();
+        assertNotNull(transform, "Conversion.getMathTransform()");
+        methodName = getName(conversion.getMethod());
+        /*
+         * Reorder and convert the source coordinates for the base CRS. The region where
+         * points are distributed is ±1° in latitude and longitude around the reference point.
+         */
+        final CoordinateSystem sourceCS = crs.getBaseCRS().getCoordinateSystem();
+        final CoordinateSystem targetCS = crs.getCoordinateSystem();
+        assumeTrue(sourceCS.getDimension() == 2 && targetCS.getDimension() == 2, "Unexpected number of dimensions.");
+        final AxisDirection first = sourceCS.getAxis(0).getDirection();
+        final boolean lonFirst = AxisDirection.EAST.equals(first) || AxisDirection.WEST.equals(first);
+        final UnitConverter c0 = angularConverter(sourceCS.getAxis(0));
+        final UnitConverter c1 = angularConverter(sourceCS.getAxis(1));
+        sourcePoint = new double[] {
+            c0.convert(lonFirst ? longitude : latitude),
+            c1.convert(lonFirst ? latitude : longitude)
+        };
+        sourceSpan = new double[] {c0.convert(1), c1.convert(1)};
+        /*
+         * Reorder and convert the expected coordinates for the projected CRS.
+         */
+        final boolean northFirst = isNorthing(targetCS.getAxis(0));
+        final UnitConverter t0 = linearConverter(unit, targetCS.getAxis(0));
+        final UnitConverter t1 = linearConverter(unit, targetCS.getAxis(1));
+        targetPoint = new double[] {
+            t0.convert(northFirst ? northing : easting),
+            t1.convert(northFirst ? easting : northing)
+        };
+        tolerance = Math.abs(t0.convert(0.01) - t0.convert(0));
+        verifyTransform();
+    }
+
+    /**
+     * Returns the converter from degrees to the unit of the given axis.
+     *
+     * @param  axis  axis of a geographic coordinate system.
+     * @return converter from degrees to the axis unit.
+     */
+    private UnitConverter angularConverter(final CoordinateSystemAxis axis) {
+        try {
+            return units.degree().getConverterToAny(axis.getUnit());
+        } catch (IncommensurableException e) {
+            throw new AssertionError("Unexpected unit for axis " + getName(axis), e);
+        }
+    }
+
+    /**
+     * Returns the converter from the given unit to the unit of the given axis.
+     *
+     * @param  unit  unit of the expected coordinates.
+     * @param  axis  axis of a projected coordinate system.
+     * @return converter from the given unit to the axis unit.
+     */
+    private static UnitConverter linearConverter(final Unit<Length> unit, final CoordinateSystemAxis axis) {
+        try {
+            return unit.getConverterToAny(axis.getUnit());
+        } catch (IncommensurableException e) {
+            throw new AssertionError("Unexpected unit for axis " + getName(axis), e);
+        }
+    }
+
+    /**
+     * Returns whether the given axis of a projected coordinate system is for northing values.
+     * For polar projections, the axis direction is not sufficient (e.g. the "N" axis of UPS North
+     * is oriented toward south along the 180°E meridian), so the abbreviation is also checked.
+     *
+     * @param  axis  axis of a projected coordinate system.
+     * @return whether the given axis is for northing values.
+     */
+    private static boolean isNorthing(final CoordinateSystemAxis axis) {
+        if (AxisDirection.NORTH.equals(axis.getDirection())) {
+            return true;
+        }
+        final String abbreviation = axis.getAbbreviation();
+        return "N".equalsIgnoreCase(abbreviation) || "Y".equalsIgnoreCase(abbreviation);
+    }
+
+    /**
+     * Tests the bulk conversion of coordinates from the base CRS of “OSGB36 / British National Grid” (EPSG:27700).
+     *
+     * <ul>
+     *   <li>Operation method: <b>Transverse Mercator</b></li>
+     *   <li>Source point: <b>50°30′00″N, 0°30′00″E</b></li>
+     *   <li>Expected point: <b>E = 577274.99, N = 69740.50</b> metres</li>
+     * </ul>
+     *
+     * @throws FactoryException if an error occurred while creating the projected CRS.
+     * @throws TransformException if an error occurred while converting coordinates.
+     */
+    @Test
+    @DisplayName("OSGB36 / British National Grid")
+    public void EPSG_27700() throws FactoryException, TransformException {
+        createAndVerify(27700, 50.5, 0.5, 577274.99, 69740.50, units.metre());
+    }
+
+    /**
+     * Tests the bulk conversion of coordinates from the base CRS of “Makassar / NEIEZ” (EPSG:3002).
+     *
+     * <ul>
+     *   <li>Operation method: <b>Mercator (variant A)</b></li>
+     *   <li>Source point: <b>3°00′00″S, 120°00′00″E</b></li>
+     *   <li>Expected point: <b>E = 5009726.58, N = 569150.82</b> metres</li>
+     * </ul>
+     *
+     * @throws FactoryException if an error occurred while creating the projected CRS.
+     * @throws TransformException if an error occurred while converting coordinates.
+     */
+    @Test
+    @DisplayName("Makassar / NEIEZ")
+    public void EPSG_3002() throws FactoryException, TransformException {
+        createAndVerify(3002, -3, 120, 5009726.58, 569150.82, units.metre());
+    }
+
+    /**
+     * Tests the bulk conversion of coordinates from the base CRS of “JAD69 / Jamaica National Grid” (EPSG:24200).
+     *
+     * <ul>
+     *   <li>Operation method: <b>Lambert Conic Conformal (1SP)</b></li>
+     *   <li>Source point: <b>17°55′55.80″N, 76°56′37.26″W</b></li>
+     *   <li>Expected point: <b>E = 255966.58, N = 142493.51</b> metres</li>
+     * </ul>
+     *
+     * @throws FactoryException if an error occurred while creating the projected CRS.
+     * @throws TransformException if an error occurred while converting coordinates.
+     */
+    @Test
+    @DisplayName("JAD69 / Jamaica National Grid")
+    public void EPSG_24200() throws FactoryException, TransformException {
+        createAndVerify(24200, 17 + (55 + 55.80/60)/60, -(76 + (56 + 37.26/60)/60), 255966.58, 142493.51, units.metre());
+    }
+
+    /**
+     * Tests the bulk conversion of coordinates from the base CRS of “NAD27 / Texas South Central” (EPSG:32040).
+     *
+     * <ul>
+     *   <li>Operation method: <b>Lambert Conic Conformal (2SP)</b></li>
+     *   <li>Source point: <b>28°30′00″N, 96°00′00″W</b></li>
+     *   <li>Expected point: <b>E = 2963503.91, N = 254759.80</b> US survey feet</li>
+     * </ul>
+     *
+     * @throws FactoryException if an error occurred while creating the projected CRS.
+     * @throws TransformException if an error occurred while converting coordinates.
+     */
+    @Test
+    @DisplayName("NAD27 / Texas South Central")
+    public void EPSG_32040() throws FactoryException, TransformException {
+        createAndVerify(32040, 28.5, -96, 2963503.91, 254759.80, units.footSurveyUS());
+    }
+
+    /**
+     * Tests the bulk conversion of coordinates from the base CRS of “Amersfoort / RD New” (EPSG:28992).
+     *
+     * <ul>
+     *   <li>Operation method: <b>Oblique Stereographic</b></li>
+     *   <li>Source point: <b>53°00′00″N, 6°00′00″E</b></li>
+     *   <li>Expected point: <b>E = 196105.283, N = 557057.739</b> metres</li>
+     * </ul>
+     *
+     * @throws FactoryException if an error occurred while creating the projected CRS.
+     * @throws TransformException if an error occurred while converting coordinates.
+     */
+    @Test
+    @DisplayName("Amersfoort / RD New")
+    public void EPSG_28992() throws FactoryException, TransformException {
+        createAndVerify(28992, 53, 6, 196105.283, 557057.739, units.metre());
+    }
+
+    /**
+     * Tests the bulk conversion of coordinates from the base CRS of “WGS 84 / UPS North (N,E)” (EPSG:32661).
+     *
+     * <ul>
+     *   <li>Operation method: <b>Polar Stereographic (variant A)</b></li>
+     *   <li>Source point: <b>73°00′00″N, 44°00′00″E</b></li>
+     *   <li>Expected point: <b>E = 3320416.75, N = 632668.43</b> metres</li>
+     * </ul>
+     *
+     * @throws FactoryException if an error occurred while creating the projected CRS.
+     * @throws TransformException if an error occurred while converting coordinates.
+     */
+    @Test
+    @DisplayName("WGS 84 / UPS North (N,E)")
+    public void EPSG_32661() throws FactoryException, TransformException {
+        createAndVerify(32661, 73, 44, 3320416.75, 632668.43, units.metre());
+    }
+
+    /**
+     * Tests the bulk conversion of coordinates from the base CRS of “ETRS89-extended / LAEA Europe” (EPSG:3035).
+     *
+     * <ul>
+     *   <li>Operation method: <b>Lambert Azimuthal Equal Area</b></li>
+     *   <li>Source point: <b>50°00′00″N, 5°00′00″E</b></li>
+     *   <li>Expected point: <b>E = 3962799.45, N = 2999718.85</b> metres</li>
+     * </ul>
+     *
+     * @throws FactoryException if an error occurred while creating the projected CRS.
+     * @throws TransformException if an error occurred while converting coordinates.
+     */
+    @Test
+    @DisplayName("ETRS89-extended / LAEA Europe")
+    public void EPSG_3035() throws FactoryException, TransformException {
+        createAndVerify(3035, 50, 5, 3962799.45, 2999718.85, units.metre());
+    }
+}
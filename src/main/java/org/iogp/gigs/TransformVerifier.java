@@ -0,0 +1,715 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import javax.measure.UnitConverter;
+import javax.measure.IncommensurableException;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.metadata.extent.Extent;
+import org.opengis.metadata.extent.GeographicExtent;
+import org.opengis.metadata.extent.GeographicBoundingBox;
+import org.opengis.metadata.quality.PositionalAccuracy;
+import org.opengis.metadata.quality.QuantitativeResult;
+import org.opengis.metadata.quality.Result;
+import org.opengis.parameter.GeneralParameterValue;
+import org.opengis.parameter.ParameterValue;
+import org.opengis.parameter.ParameterValueGroup;
+import org.opengis.referencing.cs.AxisDirection;
+import org.opengis.referencing.cs.CoordinateSystem;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.CoordinateOperation;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.NoninvertibleTransformException;
+import org.opengis.referencing.operation.SingleOperation;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.util.Record;
+import org.iogp.gigs.internal.ExecutionContext;
+import org.iogp.gigs.internal.RoundTripAccuracy;
+import org.iogp.gigs.internal.TransformStatistics;
+import org.iogp.gigs.internal.geoapi.Units;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.abort;
+
+
+/**
+ * Verifications of the {@link MathTransform} of a coordinate operation on points distributed
+ * over the domain of validity of that operation. The domain is taken from the geographic bounding box
+ * of the operation or of the CRS, or is a small region around the origin of the operation if no extent
+ * is declared (as for user-defined conversions), or is the whole world if the operation has no origin
+ * (as for user-defined transformations). The domain is expressed in units and axis order of
+ * the source CRS, which must be geographic. The verifications are the comparison of derivatives with
+ * finite differences, the comparison of round-trip transformations with the original points, and the
+ * comparison of transformations executed concurrently with the result of a single thread.
+ * Round-trip residuals are always recorded, but are asserted only against the accuracy
+ * declared by the operation, if any.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class TransformVerifier {
+    /**
+     * Number of points along each geographic dimension of the grid where derivatives are verified.
+     */
+    private static final int DERIVATIVE_GRID_SIZE = 64;
+
+    /**
+     * Step in degrees for computing the derivatives by finite differences.
+     */
+    private static final double DERIVATIVE_STEP = 1E-6;
+
+    /**
+     * Tolerance relative to the largest derivative of each row of the Jacobian matrix.
+     */
+    private static final double DERIVATIVE_TOLERANCE = 1E-6;
+
+    /**
+     * Number of points along each geographic dimension of the lattice where round trips are verified.
+     * With two geographic dimensions, the lattice contains about one million points.
+     */
+    private static final int ROUND_TRIP_GRID_SIZE = 1024;
+
+    /**
+     * Number of points in each chunk of the lattice transformed by a task of the fork-join pool.
+     */
+    private static final int CHUNK_SIZE = 16384;
+
+    /**
+     * Number of points along each geographic dimension of the lattice transformed concurrently.
+     */
+    private static final int CONCURRENCY_GRID_SIZE = 512;
+
+    /**
+     * Number of times that each thread transforms its part of the lattice during a concurrency test.
+     */
+    private static final int CONCURRENCY_PASSES = 4;
+
+    /**
+     * Number of metres in one degree on a sphere of the same surface as the WGS 84 ellipsoid.
+     * This is used for expressing the round-trip residuals in metres.
+     */
+    private static final double METRES_PER_DEGREE = 6371007 * Math.PI / 180;
+
+    /**
+     * Half the size in degrees of the region around the origin of the operation,
+     * used when the operation and the CRS do not declare a domain of validity.
+     */
+    private static final double ORIGIN_MARGIN = 3;
+
+    /**
+     * Maximal absolute value of latitudes. Points closer to the poles
+     * are excluded because many map projections are singular there.
+     */
+    private static final double MAX_LATITUDE = 89;
+
+    /**
+     * The transform to verify.
+     */
+    final MathTransform transform;
+
+    /**
+     * The name of the operation method, used as a label in the throughput statistics.
+     */
+    final String methodName;
+
+    /**
+     * Minimal and maximal coordinate values of the domain, in units of the source CRS.
+     * Dimensions other than latitude and longitude have a span of zero.
+     */
+    private final double[] minimum, maximum;
+
+    /**
+     * The step for computing derivatives by finite differences, in units of the source CRS.
+     */
+    private final double[] step;
+
+    /**
+     * Number of degrees in one unit of the source CRS, for each dimension. This value is negative
+     * for axes oriented toward west or south, and {@link Double#NaN} for non-geographic dimensions.
+     */
+    private final double[] degreesPerUnit;
+
+    /**
+     * Dimensions of longitude and latitude in the source CRS, or -1 if none.
+     */
+    private final int longitudeDimension, latitudeDimension;
+
+    /**
+     * Maximal distance in metres between the original and the round-tripped points, or {@link Double#NaN}
+     * if none. This is the largest accuracy declared by the operation, for example the EPSG accuracy
+     * of a transformation.
+     */
+    private final double tolerance;
+
+    /**
+     * Creates a new verifier for the given transform and domain.
+     *
+     * @param  transform           the transform to verify.
+     * @param  methodName          name of the operation method, used as a label in the statistics.
+     * @param  minimum             minimal coordinate values of the domain, in units of the source CRS.
+     * @param  maximum             maximal coordinate values of the domain, in units of the source CRS.
+     * @param  step                step for computing derivatives by finite differences, in units of the source CRS.
+     * @param  degreesPerUnit      number of degrees in one unit of the source CRS, or NaN if not geographic.
+     * @param  longitudeDimension  dimension of longitude in the source CRS, or -1 if none.
+     * @param  latitudeDimension   dimension of latitude in the source CRS, or -1 if none.
+     * @param  tolerance           maximal round-trip residual in metres, or NaN if none.
+     */
+    private TransformVerifier(final MathTransform transform, final String methodName,
+                              final double[] minimum, final double[] maximum, final double[] step,
+                              final double[] degreesPerUnit, final int longitudeDimension, final int latitudeDimension,
+                              final double tolerance)
+    {
+        this.transform          = transform;
+        this.methodName         = methodName;
+        this.minimum            = minimum;
+        this.maximum            = maximum;
+        this.step               = step;
+        this.degreesPerUnit     = degreesPerUnit;
+        this.longitudeDimension = longitudeDimension;
+        this.latitudeDimension  = latitudeDimension;
+        this.tolerance          = tolerance;
+    }
+
+    /**
+     * Creates a verifier for the transform of the given operation. This method returns {@code null}
+     * if the operation is a defining conversion (without source CRS or math transform),
+     * or if the source CRS is not geographic.
+     *
+     * @param  operation  the operation to verify.
+     * @param  sourceCRS  the source CRS, or {@code null} for the source CRS of the operation.
+     * @param  fallback   the domain to use if the operation does not declare one, or {@code null}.
+     * @param  units      the provider of the degree and metre units.
+     * @return the verifier, or {@code null} if the operation can not be verified.
+     */
+    static TransformVerifier forOperation(final CoordinateOperation operation, CoordinateReferenceSystem sourceCRS,
+                                          final Extent fallback, final Units units)
+    {
+        final MathTransform transform = operation.getMathTransform();
+        if (sourceCRS == null) {
+            sourceCRS = operation.getSourceCRS();
+        }
+        if (transform == null || sourceCRS == null) {
+            return null;
+        }
+        final CoordinateSystem cs = sourceCRS.getCoordinateSystem();
+        final int dimension = cs.getDimension();
+        if (dimension != transform.getSourceDimensions()) {
+            return null;
+        }
+        /*
+         * Domain in degrees: the geographic bounding box of the operation, or of the CRS,
+         * or a region around the origin declared in the parameters of the operation.
+         */
+        double[] box = boundingBox(operation.getDomainOfValidity());
+        if (box == null) {
+            box = boundingBox(fallback);
+            if (box == null) {
+                box = originRegion(operation, units);
+                if (box == null) {
+                    box = new double[] {-180, +180, -90, +90};
+                }
+            }
+        }
+        box[2] = Math.max(box[2], -MAX_LATITUDE);
+        box[3] = Math.min(box[3], +MAX_LATITUDE);
+        /*
+         * Convert the domain to the units and axis order of the source CRS.
+         */
+        final double[] minimum = new double[dimension];
+        final double[] maximum = new double[dimension];
+        final double[] step    = new double[dimension];
+        final double[] degreesPerUnit = new double[dimension];
+        int longitudeDimension = -1, latitudeDimension = -1;
+        for (int i=0; i<dimension; i++) {
+            final AxisDirection direction = cs.getAxis(i).getDirection();
+            final int offset;
+            boolean negate = false;
+            if (direction == AxisDirection.EAST || (negate = (direction == AxisDirection.WEST))) {
+                longitudeDimension = i;
+                offset = 0;
+            } else if (direction == AxisDirection.NORTH || (negate = (direction == AxisDirection.SOUTH))) {
+                latitudeDimension = i;
+                offset = 2;
+            } else {
+                degreesPerUnit[i] = Double.NaN;
+                step[i] = 1E-3;           // Typically ellipsoidal height, kept at zero.
+                continue;
+            }
+            final UnitConverter c;
+            try {
+                c = units.degree().getConverterToAny(cs.getAxis(i).getUnit());
+            } catch (IncommensurableException e) {
+                return null;                // Not a geographic CRS.
+            }
+            double unitsPerDegree = c.convert(1) - c.convert(0);
+            if (negate) {
+                unitsPerDegree = -unitsPerDegree;
+            }
+            final double min = box[offset]     * unitsPerDegree;
+            final double max = box[offset + 1] * unitsPerDegree;
+            minimum[i] = Math.min(min, max);
+            maximum[i] = Math.max(min, max);
+            step[i] = Math.abs(DERIVATIVE_STEP * unitsPerDegree);
+            degreesPerUnit[i] = 1 / unitsPerDegree;
+        }
+        if (longitudeDimension < 0 && latitudeDimension < 0) {
+            return null;
+        }
+        final String methodName;
+        if (operation instanceof SingleOperation) {
+            methodName = ((SingleOperation) operation).getMethod().getName().getCode();
+        } else {
+            methodName = operation.getName().getCode();
+        }
+        return new TransformVerifier(transform, methodName, minimum, maximum, step,
+                                     degreesPerUnit, longitudeDimension, latitudeDimension,
+                                     declaredAccuracy(operation, units));
+    }
+
+    /**
+     * Returns the largest positional accuracy in metres declared by the given operation, or NaN if none.
+     * Values which are not numbers, or which are in units other than lengths, are ignored.
+     * Values without unit are assumed in metres.
+     *
+     * @param  operation  the operation from which to get the accuracy.
+     * @param  units      the provider of the metre unit.
+     * @return the largest declared accuracy in metres, or {@link Double#NaN} if none.
+     */
+    private static double declaredAccuracy(final CoordinateOperation operation, final Units units) {
+        double accuracy = Double.NaN;
+        for (final PositionalAccuracy element : operation.getCoordinateOperationAccuracy()) {
+            for (final Result result : element.getResults()) {
+                if (result instanceof QuantitativeResult) {
+                    final QuantitativeResult q = (QuantitativeResult) result;
+                    UnitConverter c = null;
+                    if (q.getValueUnit() != null) try {
+                        c = q.getValueUnit().getConverterToAny(units.metre());
+                    } catch (IncommensurableException e) {
+                        continue;                   // Not a linear accuracy.
+                    }
+                    for (final Record record : q.getValues()) {
+                        for (final Object attribute : record.getAttributes().values()) {
+                            if (attribute instanceof Number) {
+                                double value = ((Number) attribute).doubleValue();
+                                if (c != null) value = c.convert(value);
+                                if (!(value <= accuracy)) accuracy = value;     // Use `!` for replacing NaN.
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return accuracy;
+    }
+
+    /**
+     * Returns the union of the geographic bounding boxes of the given extent, or {@code null} if none.
+     * If a box crosses the anti-meridian, its east bound is shifted by 360°.
+     *
+     * @param  extent  the extent from which to get the bounding box, or {@code null}.
+     * @return the west, east, south and north bounds in degrees, or {@code null}.
+     */
+    private static double[] boundingBox(final Extent extent) {
+        if (extent == null) {
+            return null;
+        }
+        double[] box = null;
+        for (final GeographicExtent element : extent.getGeographicElements()) {
+            if (element instanceof GeographicBoundingBox && !Boolean.FALSE.equals(element.getInclusion())) {
+                final GeographicBoundingBox bbox = (GeographicBoundingBox) element;
+                double west = bbox.getWestBoundLongitude();
+                double east = bbox.getEastBoundLongitude();
+                if (east < west) east += 360;
+                final double[] b = {west, east, bbox.getSouthBoundLatitude(), bbox.getNorthBoundLatitude()};
+                if (box == null) {
+                    box = b;
+                } else {
+                    box[0] = Math.min(box[0], b[0]);
+                    box[1] = Math.max(box[1], b[1]);
+                    box[2] = Math.min(box[2], b[2]);
+                    box[3] = Math.max(box[3], b[3]);
+                }
+            }
+        }
+        if (box != null) {
+            for (final double value : box) {
+                if (!Double.isFinite(value)) return null;
+            }
+        }
+        return box;
+    }
+
+    /**
+     * Returns a region around the origin of the operation, or {@code null} if none.
+     * The origin is given by the first parameters having a name starting with
+     * "Longitude of" and "Latitude of", for example "Longitude of natural origin".
+     *
+     * @param  operation  the operation from which to get the origin.
+     * @param  units      the provider of the degree unit.
+     * @return the west, east, south and north bounds in degrees, or {@code null}.
+     */
+    private static double[] originRegion(final CoordinateOperation operation, final Units units) {
+        if (!(operation instanceof SingleOperation)) {
+            return null;
+        }
+        final ParameterValueGroup parameters = ((SingleOperation) operation).getParameterValues();
+        if (parameters == null) {
+            return null;
+        }
+        double longitude = Double.NaN;
+        double latitude  = Double.NaN;
+        for (final GeneralParameterValue parameter : parameters.values()) {
+            if (parameter instanceof ParameterValue<?>) {
+                final String name = parameter.getDescriptor().getName().getCode();
+                final boolean isLongitude = name.startsWith("Longitude of");
+                if (isLongitude ? Double.isNaN(longitude) : name.startsWith("Latitude of") && Double.isNaN(latitude)) {
+                    final double value;
+                    try {
+                        value = ((ParameterValue<?>) parameter).doubleValue(units.degree());
+                    } catch (IllegalStateException e) {
+                        continue;                   // No value or not an angle.
+                    }
+                    if (isLongitude) longitude = value;
+                    else latitude = value;
+                }
+            }
+        }
+        if (Double.isNaN(longitude) || Double.isNaN(latitude)) {
+            return null;
+        }
+        return new double[] {
+            longitude - ORIGIN_MARGIN,
+            longitude + ORIGIN_MARGIN,
+            latitude  - ORIGIN_MARGIN,
+            latitude  + ORIGIN_MARGIN
+        };
+    }
+
+    /**
+     * Returns the number of points in a regular grid over the domain.
+     * Dimensions with a span of zero have only one point.
+     *
+     * @param  size  number of points along each geographic dimension.
+     * @return number of points in the grid.
+     * @throws ArithmeticException if the number of points overflows.
+     */
+    private int gridSize(final int size) {
+        int count = 1;
+        for (int i=0; i<minimum.length; i++) {
+            if (maximum[i] > minimum[i]) {
+                count = Math.multiplyExact(count, size);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes the coordinates of a range of points in a regular grid over the domain.
+     * Each geographic dimension has {@code size} points located at the center of the grid cells,
+     * so that no point is located on the domain borders.
+     *
+     * @param  size    number of points along each geographic dimension.
+     * @param  start   index of the first point to compute.
+     * @param  points  where to store the packed coordinates in the source CRS.
+     * @param  count   number of points to compute.
+     */
+    private void grid(final int size, final int start, final double[] points, final int count) {
+        final int dimension = minimum.length;
+        for (int p=0; p<count; p++) {
+            int index = start + p;
+            for (int i=0; i<dimension; i++) {
+                double value = minimum[i];
+                final double span = maximum[i] - minimum[i];
+                if (span > 0) {
+                    value += span * ((index % size) + 0.5) / size;
+                    index /= size;
+                }
+                points[p*dimension + i] = value;
+            }
+        }
+    }
+
+    /**
+     * Compares the derivatives computed by {@link MathTransform#derivative(DirectPosition)} with derivatives
+     * estimated by central finite differences on a grid of points over the domain. The number of derivatives
+     * evaluated per second is recorded in the given statistics. The time of finite differences is excluded.
+     *
+     * @param  statistics  where to record the throughput of derivative evaluations.
+     */
+    final void verifyDerivative(final TransformStatistics statistics) {
+        final int srcDim = transform.getSourceDimensions();
+        final int tgtDim = transform.getTargetDimensions();
+        final int count = gridSize(DERIVATIVE_GRID_SIZE);
+        final double[] points = new double[count * srcDim];
+        grid(DERIVATIVE_GRID_SIZE, 0, points, count);
+        final Matrix[] derivatives = new Matrix[count];
+        final SimpleDirectPosition position = new SimpleDirectPosition(srcDim);
+        try {
+            final long start = System.nanoTime();
+            for (int p=0; p<count; p++) {
+                System.arraycopy(points, p*srcDim, position.coordinates, 0, srcDim);
+                derivatives[p] = transform.derivative(position);
+            }
+            statistics.record("derivative", methodName, count, System.nanoTime() - start);
+            /*
+             * Estimate each column of the Jacobian matrix by central finite differences,
+             * then compare each row with a tolerance relative to the largest value of the row.
+             */
+            final double[] shifted = new double[srcDim * 2];
+            final double[] values  = new double[tgtDim * 2];
+            final double[][] expected = new double[tgtDim][srcDim];
+            for (int p=0; p<count; p++) {
+                System.arraycopy(points, p*srcDim, position.coordinates, 0, srcDim);
+                for (int j=0; j<srcDim; j++) {
+                    System.arraycopy(points, p*srcDim, shifted, 0,      srcDim);
+                    System.arraycopy(points, p*srcDim, shifted, srcDim, srcDim);
+                    shifted[j]          -= step[j];
+                    shifted[j + srcDim] += step[j];
+                    transform.transform(shifted, 0, values, 0, 2);
+                    for (int i=0; i<tgtDim; i++) {
+                        expected[i][j] = (values[i + tgtDim] - values[i]) / (2 * step[j]);
+                    }
+                }
+                final Matrix derivative = derivatives[p];
+                assertNotNull(derivative, "MathTransform.derivative(DirectPosition)");
+                assertEquals(tgtDim, derivative.getNumRow(), "Matrix.getNumRow()");
+                assertEquals(srcDim, derivative.getNumCol(), "Matrix.getNumCol()");
+                for (int i=0; i<tgtDim; i++) {
+                    double scale = 0;
+                    for (int j=0; j<srcDim; j++) {
+                        scale = Math.max(scale, Math.abs(expected[i][j]));
+                    }
+                    final double tolerance = Math.max(scale * DERIVATIVE_TOLERANCE, Double.MIN_NORMAL);
+                    for (int j=0; j<srcDim; j++) {
+                        final int row = i, column = j;
+                        assertEquals(expected[i][j], derivative.getElement(i, j), tolerance, () ->
+                                "Derivative of " + methodName + " at " + position + ", matrix element ("
+                                + row + ", " + column + ").");
+                    }
+                }
+            }
+        } catch (TransformException e) {
+            fail("Can not compute the derivative of " + methodName + " at " + position + '.', e);
+        }
+    }
+
+    /**
+     * Transforms a lattice of points over the domain forward then backward, and compares with the original points.
+     * The lattice is split in chunks which, if {@code parallel} is {@code true}, are transformed concurrently
+     * in the fork-join pool of parallel streams. Otherwise the chunks are transformed sequentially.
+     * The maximal and root mean square residuals, together with a heat map of the residuals, are recorded
+     * in the given statistics. Points which can not be transformed are counted but not verified.
+     * The maximal residual is asserted only if the operation declares a positive accuracy,
+     * since a fixed tolerance would not suit all operation methods.
+     * If the transform is not invertible, then the test is aborted.
+     *
+     * @param  statistics  where to record the residuals and the throughput of round trips.
+     * @param  parallel    whether the transform can be used concurrently by many threads.
+     */
+    final void verifyRoundTrip(final TransformStatistics statistics, final boolean parallel) {
+        final MathTransform inverse;
+        try {
+            inverse = transform.inverse();
+        } catch (NoninvertibleTransformException e) {
+            abort("The transform of " + methodName + " is not invertible: " + e);
+            return;
+        }
+        final int count  = gridSize(ROUND_TRIP_GRID_SIZE);
+        final int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final long start = System.nanoTime();
+        IntStream stream = IntStream.range(0, chunks);
+        if (parallel) {
+            stream = stream.parallel();
+        }
+        final RoundTripAccuracy residuals = stream
+                .mapToObj((chunk) -> roundTrip(inverse, chunk * CHUNK_SIZE, Math.min(CHUNK_SIZE, count - chunk * CHUNK_SIZE)))
+                .collect(() -> new RoundTripAccuracy(methodName), RoundTripAccuracy::merge, RoundTripAccuracy::merge);
+        statistics.record("round trip", methodName, count, System.nanoTime() - start);
+        statistics.record(residuals);
+        if (tolerance > 0) {
+            assertTrue(residuals.max() <= tolerance, () -> String.format(
+                    "Round trip of %s has a residual of %.3g metres at longitude %.4f and latitude %.4f degrees, "
+                    + "while the declared accuracy is %.3g metres.", methodName, residuals.max(),
+                    residuals.maxLongitude(), residuals.maxLatitude(), tolerance));
+        }
+    }
+
+    /**
+     * Transforms a chunk of the lattice forward then backward, and returns the residuals.
+     * If the chunk can not be transformed, then the points are transformed one by one
+     * and the points which can not be transformed are counted.
+     *
+     * @param  inverse  the inverse of the transform to verify.
+     * @param  start    index of the first point of the chunk in the lattice.
+     * @param  count    number of points in the chunk.
+     * @return the residuals of the points in the chunk.
+     */
+    private RoundTripAccuracy roundTrip(final MathTransform inverse, final int start, final int count) {
+        final int srcDim = transform.getSourceDimensions();
+        final int tgtDim = transform.getTargetDimensions();
+        final double[] source = new double[count * srcDim];
+        final double[] target = new double[count * tgtDim];
+        final double[] result = new double[count * srcDim];
+        grid(ROUND_TRIP_GRID_SIZE, start, source, count);
+        try {
+            transform.transform(source, 0, target, 0, count);
+            inverse.transform(target, 0, result, 0, count);
+        } catch (TransformException e) {
+            for (int p=0; p<count; p++) {
+                try {
+                    transform.transform(source, p*srcDim, target, p*tgtDim, 1);
+                    inverse.transform(target, p*tgtDim, result, p*srcDim, 1);
+                } catch (TransformException f) {
+                    Arrays.fill(result, p*srcDim, (p+1)*srcDim, Double.NaN);
+                }
+            }
+        }
+        final var residuals = new RoundTripAccuracy(methodName);
+        for (int p=0; p<count; p++) {
+            final int offset = p * srcDim;
+            final double longitude = (longitudeDimension >= 0) ? source[offset + longitudeDimension] * degreesPerUnit[longitudeDimension] : 0;
+            final double latitude  = (latitudeDimension  >= 0) ? source[offset + latitudeDimension]  * degreesPerUnit[latitudeDimension]  : 0;
+            double sum = 0;
+            for (int i=0; i<srcDim; i++) {
+                double delta = result[offset + i] - source[offset + i];
+                final double scale = degreesPerUnit[i];
+                if (!Double.isNaN(scale)) {
+                    delta *= scale;
+                    if (i == longitudeDimension) {
+                        delta = Math.IEEEremainder(delta, 360) * Math.cos(Math.toRadians(latitude));
+                    }
+                    delta *= METRES_PER_DEGREE;
+                }
+                sum += delta * delta;
+            }
+            if (Double.isFinite(sum)) {
+                residuals.add(longitude, latitude, Math.sqrt(sum));
+            } else {
+                residuals.addUntransformed(1);
+            }
+        }
+        return residuals;
+    }
+
+    /**
+     * Transforms a lattice of points concurrently from 1, 2, 4, <i>etc.</i> threads up to the number of processors,
+     * and verifies that the results are bit-identical to the results of a single-threaded transformation.
+     * Each thread transforms a disjoint part of the lattice many times, using the same transform instance.
+     * The number of points transformed per second is recorded for each number of threads, which gives the
+     * throughput scaling curve. This is used for detecting transforms having thread-unsafe internal state
+     * or synchronized caches. The threads are taken from the pool shared by all tests of the current execution,
+     * and the measurements of different tests are serialized so that they do not compete for those threads.
+     *
+     * @param  statistics  where to record the throughput for each number of threads.
+     */
+    final void verifyConcurrency(final TransformStatistics statistics) {
+        final int srcDim = transform.getSourceDimensions();
+        final int tgtDim = transform.getTargetDimensions();
+        final int count  = gridSize(CONCURRENCY_GRID_SIZE);
+        final double[] source   = new double[count * srcDim];
+        final double[] expected = new double[count * tgtDim];
+        grid(CONCURRENCY_GRID_SIZE, 0, source, count);
+        transformAll(source, expected, 0, count);
+        final int maxThreads = Runtime.getRuntime().availableProcessors();
+        final ExecutorService executor = ExecutionContext.current().transformWorkers();
+        synchronized (executor) {
+            try {
+                for (int n=1; ; n = Math.min(n*2, maxThreads)) {
+                    final double[][] results = new double[CONCURRENCY_PASSES][count * tgtDim];
+                    final var startSignal = new CountDownLatch(1);
+                    final List<Future<?>> tasks = new ArrayList<>(n);
+                    for (int t=0; t<n; t++) {
+                        final int lower = (int) ((long) count *  t    / n);
+                        final int upper = (int) ((long) count * (t+1) / n);
+                        tasks.add(executor.submit(() -> {
+                            startSignal.await();
+                            for (final double[] target : results) {
+                                transformAll(source, target, lower, upper - lower);
+                            }
+                            return null;
+                        }));
+                    }
+                    final long start = System.nanoTime();
+                    startSignal.countDown();
+                    for (final Future<?> task : tasks) {
+                        task.get();
+                    }
+                    statistics.record(n + (n == 1 ? " thread" : " threads"), methodName,
+                                      (long) count * CONCURRENCY_PASSES, System.nanoTime() - start);
+                    for (final double[] actual : results) {
+                        for (int i=0; i<expected.length; i++) {
+                            if (Double.doubleToLongBits(expected[i]) != Double.doubleToLongBits(actual[i])) {
+                                fail(String.format("Transform of %s executed by %d threads gives %s instead of %s for point %d.",
+                                                   methodName, n, actual[i], expected[i], i / tgtDim));
+                            }
+                        }
+                    }
+                    if (n == maxThreads) break;
+                }
+            } catch (ExecutionException e) {
+                fail("Transform of " + methodName + " failed in a concurrent thread.", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Concurrent transforms of " + methodName + " have been interrupted.", e);
+            }
+        }
+    }
+
+    /**
+     * Transforms a range of points. If the points can not be transformed together,
+     * then they are transformed one by one and the points which can not be transformed
+     * are set to NaN. This is used for getting reproducible results on all points.
+     *
+     * @param  source  packed source coordinates.
+     * @param  target  where to store the packed target coordinates.
+     * @param  start   index of the first point to transform, in both arrays.
+     * @param  count   number of points to transform.
+     */
+    private void transformAll(final double[] source, final double[] target, final int start, final int count) {
+        final int srcDim = transform.getSourceDimensions();
+        final int tgtDim = transform.getTargetDimensions();
+        try {
+            transform.transform(source, start*srcDim, target, start*tgtDim, count);
+        } catch (TransformException e) {
+            for (int p = start; p < start + count; p++) {
+                try {
+                    transform.transform(source, p*srcDim, target, p*tgtDim, 1);
+                } catch (TransformException f) {
+                    Arrays.fill(target, p*tgtDim, (p+1)*tgtDim, Double.NaN);
+                }
+            }
+        }
+    }
+}
@@ -24,6 +24,9 @@
  */
 package org.iogp.gigs.internal;
 
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Optional;
 import java.util.ServiceLoader;
 import org.opengis.util.Factory;
 import org.opengis.util.InternationalString;
@@ -43,6 +46,9 @@ import org.iogp.gigs.Factories;
 
 /**
  * Factories that are automatically discovered using {@link ServiceLoader}.
+ * Factories are discovered lazily, when first requested by a test. Consequently, if only a subset
+ * of the tests is executed, only the factories needed by those tests are instantiated.
+ * The fields inherited from {@link Factories} are assigned only by {@link #resolveAll()}.
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @version 1.0
@@ -57,18 +63,83 @@ final class DiscoveredFactories extends Factories {
     private static final String AUTHORITY = "EPSG";
 
     /**
-     * Creates a set of factories discovered using the specified module layer.
+     * The module layer to use for discovering factories.
      */
-    DiscoveredFactories(final ModuleLayer layer) {
-        crsAuthorityFactory   = find(layer, CRSAuthorityFactory.class);
-        crsFactory            = find(layer, CRSFactory.class);
-        csAuthorityFactory    = find(layer, CSAuthorityFactory.class);
-        csFactory             = find(layer, CSFactory.class);
-        datumAuthorityFactory = find(layer, DatumAuthorityFactory.class);
-        datumFactory          = find(layer, DatumFactory.class);
-        copAuthorityFactory   = find(layer, CoordinateOperationAuthorityFactory.class);
-        copFactory            = find(layer, CoordinateOperationFactory.class);
-        mtFactory             = find(layer, MathTransformFactory.class);
+    private final ModuleLayer layer;
+
+    /**
+     * The profiler where to record the latency of factory calls, or {@code null} if none.
+     */
+    private final FactoryProfiler profiler;
+
+    /**
+     * Factories discovered so far, indexed by their GeoAPI interface.
+     * Values are empty if no factory has been found for the interface.
+     * All accesses to this map shall be synchronized on {@code this}.
+     */
+    private final Map<Class<?>, Optional<?>> discovered;
+
+    /**
+     * Whether {@link #resolveAll()} has been invoked.
+     * All accesses to this field shall be synchronized on {@code this}.
+     */
+    private boolean allResolved;
+
+    /**
+     * Creates a set of factories to be discovered using the specified module layer.
+     * No factory is instantiated by this constructor.
+     *
+     * @param  layer     the module layer to use for discovering factories.
+     * @param  profiler  where to record the latency of factory calls, or {@code null} if none.
+     */
+    DiscoveredFactories(final ModuleLayer layer, final FactoryProfiler profiler) {
+        this.layer    = layer;
+        this.profiler = profiler;
+        discovered = new HashMap<>();
+    }
+
+    /**
+     * Returns the factory of the given type, discovering it if not already done.
+     * If profiling or recording is enabled, the returned factory is a proxy measuring the latency of all calls.
+     *
+     * @param  <T>   compile-time value of the {@code type} argument.
+     * @param  type  GeoAPI interface of the desired factory.
+     * @return factory for the specified interface, or {@code null} if none.
+     */
+    final synchronized <T extends Factory> T factory(final Class<T> type) {
+        Optional<?> factory = discovered.get(type);
+        if (factory == null) {
+            T found = find(layer, type);
+            if (profiler != null) {
+                found = profiler.wrap(type, found);
+            }
+            factory = Optional.ofNullable(found);
+            discovered.put(type, factory);
+        }
+        return type.cast(factory.orElse(null));
+    }
+
+    /**
+     * Discovers all factories and assigns them to the fields inherited from {@link Factories}.
+     * This is required when a test requests the {@code Factories} object as a whole,
+     * since its fields are read directly.
+     *
+     * @return {@code this}.
+     */
+    final synchronized Factories resolveAll() {
+        if (!allResolved) {
+            crsAuthorityFactory   = factory(CRSAuthorityFactory.class);
+            crsFactory            = factory(CRSFactory.class);
+            csAuthorityFactory    = factory(CSAuthorityFactory.class);
+            csFactory             = factory(CSFactory.class);
+            datumAuthorityFactory = factory(DatumAuthorityFactory.class);
+            datumFactory          = factory(DatumFactory.class);
+            copAuthorityFactory   = factory(CoordinateOperationAuthorityFactory.class);
+            copFactory            = factory(CoordinateOperationFactory.class);
+            mtFactory             = factory(MathTransformFactory.class);
+            allResolved = true;
+        }
+        return this;
     }
 
     /**
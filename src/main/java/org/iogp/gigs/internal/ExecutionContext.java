@@ -26,22 +26,29 @@ package org.iogp.gigs.internal;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.iogp.gigs.*;
 import org.iogp.gigs.internal.geoapi.Configuration;
-import org.iogp.gigs.internal.geoapi.Units;
 import org.junit.jupiter.api.extension.ExtensionContext;
-import org.junit.jupiter.api.extension.ParameterContext;
-import org.junit.jupiter.api.extension.ParameterResolver;
-import org.junit.platform.engine.DiscoverySelector;
-import org.junit.platform.launcher.Launcher;
-import org.junit.platform.launcher.LauncherDiscoveryRequest;
-import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
 
 
 /**
- * Context about the execution of a test.
+ * Context about the execution of tests. Each context is identified by a
+ * {@linkplain #configurationParameters() JUnit configuration parameter}, which is used by {@link ExecutionExtension}
+ * for finding this context from the JUnit {@link ExtensionContext}. Consequently, many tests
+ * can be executed concurrently, including with the JUnit parallel execution mode enabled
+ * by the {@code junit.jupiter.execution.parallel.enabled} system property.
+ *
+ * <p>Different contexts may test different implementations concurrently in the same JVM.
+ * The context of the test under construction or execution in the current thread is
+ * available by {@link #current()}.</p>
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @version 1.0
@@ -49,46 +56,156 @@ import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
  *
  * @todo To move to GeoAPI internal.
  */
-public final class ExecutionContext implements ParameterResolver {
+public final class ExecutionContext {
+    /**
+     * Name of the JUnit configuration parameter identifying the context of an execution.
+     * The value is the {@link #identifier} of the context.
+     */
+    static final String PARAMETER = "org.iogp.gigs.context";
+
+    /**
+     * Generator of context identifiers.
+     */
+    private static final AtomicLong IDENTIFIERS = new AtomicLong();
+
+    /**
+     * All contexts for which tests are currently executed, indexed by their identifiers.
+     */
+    private static final Map<String,ExecutionContext> RUNNING = new ConcurrentHashMap<>();
+
+    /**
+     * The context to use when tests are not executed between {@link #start start(…)} and {@link #stop()},
+     * for example when run by Maven. In such case, no factory is available.
+     */
+    static final ExecutionContext DETACHED = new ExecutionContext();
+
+    /**
+     * The context of the test constructed or executed in the current thread.
+     * This is set by {@link ExecutionExtension} before a test instance is created,
+     * and cleared after the test instance has been used.
+     */
+    private static final ThreadLocal<ExecutionContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The value of the {@value #PARAMETER} configuration parameter for this context.
+     */
+    private final String identifier;
+
+    /**
+     * Module layer of the implementation to test.
+     * This field is non-null only during test execution.
+     */
+    private volatile ModuleLayer layer;
+
     /**
-     * All factories found. May contain null elements.
+     * All factories of the implementation to test, discovered when first needed.
      * This field is non-null only during test execution.
      */
-    private volatile Factories factories;
+    private volatile DiscoveredFactories factories;
+
+    /**
+     * Outcomes of tests which have been executed but not yet consumed, indexed by JUnit unique identifiers.
+     * Entries are added by {@link ExecutionExtension} after each test and removed by {@link #outcome(String)}.
+     */
+    private final Map<String,Outcome> outcomes;
+
+    /**
+     * Threads shared by all concurrency tests of this context, created when first needed.
+     *
+     * @see #transformWorkers()
+     */
+    private ExecutorService transformWorkers;
+
+    /**
+     * Creates a new context.
+     */
+    public ExecutionContext() {
+        identifier = Long.toString(IDENTIFIERS.incrementAndGet());
+        outcomes   = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the context identified by the configuration parameter of the given JUnit context.
+     *
+     * @param  ec  the JUnit extension context.
+     * @return the execution context, or {@link #DETACHED} if none.
+     */
+    static ExecutionContext find(final ExtensionContext ec) {
+        return ec.getConfigurationParameter(PARAMETER).map(RUNNING::get).orElse(DETACHED);
+    }
+
+    /**
+     * Returns the context of the test constructed or executed in the current thread.
+     *
+     * @return the current execution context, or a context without implementation if none.
+     */
+    public static ExecutionContext current() {
+        final ExecutionContext context = CURRENT.get();
+        return (context != null) ? context : DETACHED;
+    }
 
     /**
-     * The test under execution, or {@code null} if none.
-     * This is set by {@link IntegrityTest#saveReference()} after test execution.
+     * Sets or clears the context of tests constructed or executed in the current thread.
+     *
+     * @param  context  the execution context, or {@code null} for clearing.
      */
-    public volatile IntegrityTest executing;
+    static void setCurrent(final ExecutionContext context) {
+        if (context != null) {
+            CURRENT.set(context);
+        } else {
+            CURRENT.remove();
+        }
+    }
 
     /**
-     * If a test failure occurred in an optional test, the configuration key for disabling that test.
-     * Otherwise {@code null}. This is set by {@link IntegrityTest#saveReference()} after test execution.
+     * Discards all resources cached for the given module layer, including the test configuration.
+     * This method shall be invoked when the layer of a tested implementation will not be used anymore.
+     * The next execution of tests on the same layer, if any, will discover the resources again.
+     *
+     * @param  layer  module layer of the implementation which has been tested.
      */
-    public volatile Configuration.Key<Boolean> configurationTip;
+    public static void dispose(final ModuleLayer layer) {
+        LayerResources.dispose(layer);
+        PrivateAccessor.INSTANCE.dispose(layer);
+    }
 
     /**
-     * Creates a new suite.
+     * Creates a pool of worker threads for executing tests.
+     * The pool may be shared by many execution contexts.
+     *
+     * @param  parallelism  number of worker threads.
+     * @return a new pool of daemon threads.
      */
-    private ExecutionContext() {
+    public static ExecutorService newWorkerPool(final int parallelism) {
+        final var count = new AtomicInteger();
+        return Executors.newFixedThreadPool(parallelism, (task) -> {
+            final var thread = new Thread(task, "GIGS worker #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
-     * The singleton instance of this context. Ideally we should not have this
-     * static field, but I did not yet found another way to get this reference.
+     * Returns the JUnit configuration parameters to add in the requests for executing tests in this context.
+     * Those parameters allow {@link ExecutionExtension} to find this context when a test is executed.
+     *
+     * @return configuration parameters of the JUnit requests.
      */
-    public static final ExecutionContext INSTANCE = new ExecutionContext();
+    public Map<String,String> configurationParameters() {
+        return Map.of(PARAMETER, identifier);
+    }
 
     /**
-     * Executes tests specified by the given selectors.
+     * Prepares this context for the execution of tests on the implementation in the given module layer.
+     * This method shall be invoked before JUnit requests are executed, and shall be followed by a call to
+     * {@link #stop()} in a {@code finally} block after all requests have been executed.
+     *
+     * <p>If pre-warming is enabled by the {@code org.iogp.gigs.prewarm} system property,
+     * factories are discovered in a background thread while JUnit discovers the tests.</p>
      *
-     * @param  layer      module layer to use for loading the factories provided by the implementation to test.
-     * @param  launcher   the JUnit object to use for running tests.
-     * @param  selectors  the tests to execute.
+     * @param  layer  module layer to use for loading the factories provided by the implementation to test.
      */
-    public void execute(final ModuleLayer layer, final Launcher launcher, final DiscoverySelector... selectors) {
-        final LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request().selectors(selectors).build();
+    public void start(final ModuleLayer layer) {
         try {
             // For class initialization before we invoke `PrivateAccessor.INSTANCE` mehod.
             Class.forName(IntegrityTest.class.getName(), true, ExecutionContext.class.getClassLoader());
@@ -96,64 +213,133 @@ public final class ExecutionContext implements ParameterResolver {
             // Should never happen. Continue anyway and let JVM handle the error.
             Logger.getLogger("org.iogp.gigs").log(Level.WARNING, e.toString(), e);
         }
-        try {
-            PrivateAccessor.INSTANCE.configureFor(layer);
-            factories = new DiscoveredFactories(layer);
-            Units.setInstance(layer);
-            launcher.execute(request);
-        } finally {
-            factories = null;
-            Units.setInstance(null);
-            PrivateAccessor.INSTANCE.configureFor(null);
+        final LayerResources resources = LayerResources.forLayer(layer);
+        this.layer = layer;
+        factories  = resources.factories;
+        RUNNING.put(identifier, this);
+        resources.prewarm();
+    }
+
+    /**
+     * Declares that the execution of tests in this context is finished.
+     * Tests can not find this context anymore after this method call.
+     */
+    public void stop() {
+        RUNNING.remove(identifier);
+        layer     = null;
+        factories = null;
+        synchronized (this) {
+            if (transformWorkers != null) {
+                transformWorkers.shutdown();
+                transformWorkers = null;
+            }
         }
     }
 
     /**
-     * Determines if this resolver supports resolution of an argument.
-     * This is used for dependency injection.
+     * Returns the threads shared by all concurrency tests of this context.
+     * The pool has one thread per processor, regardless the number of tests executed in parallel.
+     * Callers should synchronize on the returned pool during a measurement, so that concurrency tests
+     * executed in parallel do not compete for the same threads.
      *
-     * @param  pc  the context for the parameter for which an argument should be resolved.
-     * @param  ec  the extension context (ignored).
-     * @return whether this resolver can resolve the parameter.
+     * @return the pool of threads for executing transforms concurrently.
      */
-    @Override
-    public boolean supportsParameter(ParameterContext pc, ExtensionContext ec) {
-        return Factories.isSupported(pc.getParameter().getType());
+    public synchronized ExecutorService transformWorkers() {
+        if (transformWorkers == null) {
+            transformWorkers = newWorkerPool(Runtime.getRuntime().availableProcessors());
+        }
+        return transformWorkers;
     }
 
     /**
-     * Resolves an argument.
-     * This is used for dependency injection.
+     * Returns the factories to test, or {@code null} if tests are not under execution.
      *
-     * @param  pc  the context for the parameter for which an argument should be resolved.
-     * @param  ec  the extension context (ignored).
-     * @return the argument value (may be null).
-     */
-    @Override
-    public Object resolveParameter(ParameterContext pc, ExtensionContext ec) {
-        final Class<?> type = pc.getParameter().getType();
-        @SuppressWarnings("LocalVariableHidesMemberVariable")
-        final Factories factories = this.factories;
-        if (factories != null) {
-            return factories.get(type).orElse(null);
-        }
-        if (type == Factories.class) {
-            return new Factories() {};
+     * @return the factories to test, or {@code null}.
+     */
+    final DiscoveredFactories factories() {
+        return factories;
+    }
+
+    /**
+     * Returns the module layer of the implementation to test, or {@code null} if tests are not under execution.
+     *
+     * @return the module layer of the implementation to test, or {@code null}.
+     */
+    public ModuleLayer layer() {
+        return layer;
+    }
+
+    /**
+     * Saves information about a test which has just been executed.
+     * This method is invoked by {@link ExecutionExtension} after each test
+     * and may be invoked from any thread.
+     *
+     * @param  uniqueId  JUnit unique identifier of the test.
+     * @param  test      the test instance which has been executed.
+     */
+    final void finished(final String uniqueId, final IntegrityTest test) {
+        if (this != DETACHED) {
+            outcomes.put(uniqueId, new Outcome(test));
         }
-        return null;
     }
 
     /**
-     * Returns the configuration associated to the test under execution.
+     * Returns and forgets the outcome of the test identified by the given JUnit unique identifier.
+     * This method should be invoked by the {@link org.junit.platform.launcher.TestExecutionListener}
+     * when a test finished. Outcomes are not available if the test instance could not be created.
      *
-     * @return configuration of last executed test.
+     * @param  uniqueId  JUnit unique identifier of the test.
+     * @return outcome of the specified test, or {@link Outcome#NONE} if unknown.
+     */
+    public Outcome outcome(final String uniqueId) {
+        final Outcome outcome = outcomes.remove(uniqueId);
+        return (outcome != null) ? outcome : Outcome.NONE;
+    }
+
+    /**
+     * Information about a test which has been executed.
      */
-    public Map<Configuration.Key<?>,Object> configuration() {
-        @SuppressWarnings("LocalVariableHidesMemberVariable")
-        final IntegrityTest executing = this.executing;
-        if (executing != null) {
-            return PrivateAccessor.INSTANCE.configuration(executing).map();
+    public static final class Outcome {
+        /**
+         * The outcome to return when no information is available.
+         */
+        static final Outcome NONE = new Outcome(null);
+
+        /**
+         * The test which has been executed, or {@code null} if unknown.
+         */
+        private final IntegrityTest test;
+
+        /**
+         * If a test failure occurred in an optional test, name of the configuration key for disabling that test.
+         * Otherwise {@code null}.
+         */
+        public final String configurationTip;
+
+        /**
+         * Creates a new outcome for the given test.
+         *
+         * @param  test  the test which has been executed, or {@code null} if unknown.
+         */
+        private Outcome(final IntegrityTest test) {
+            this.test = test;
+            final Configuration.Key<Boolean> tip = (test != null) ? PrivateAccessor.INSTANCE.configurationTip(test) : null;
+            configurationTip = (tip != null) ? tip.name() : null;
+        }
+
+        /**
+         * Returns the configuration associated to the executed test.
+         * Keys are the names of the {@link Configuration.Key} constants, in iteration order of the configuration.
+         *
+         * @return configuration of the executed test.
+         */
+        public Map<String,Object> configuration() {
+            if (test != null) {
+                final Map<String,Object> map = new LinkedHashMap<>();
+                PrivateAccessor.INSTANCE.configuration(test).map().forEach((key, value) -> map.put(key.name(), value));
+                return map;
+            }
+            return Collections.emptyMap();
         }
-        return Collections.emptyMap();
     }
 }
@@ -0,0 +1,206 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2022-2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.internal;
+
+import org.iogp.gigs.*;
+import org.opengis.util.Factory;
+import org.iogp.gigs.internal.geoapi.Configuration;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.junit.jupiter.api.extension.TestInstanceFactoryContext;
+import org.junit.jupiter.api.extension.TestInstancePreConstructCallback;
+import org.junit.jupiter.api.extension.TestInstancePreDestroyCallback;
+import org.opentest4j.TestAbortedException;
+
+
+/**
+ * JUnit extension delegating to the {@link ExecutionContext} of the tests being executed.
+ * This extension performs dependency injection of factories and saves information about
+ * each test after its execution. The execution context is fetched from the JUnit configuration
+ * parameters and cached in the store of the root extension context, so this extension is stateless
+ * and can be used by many executions running concurrently.
+ *
+ * <p>This extension also makes the execution context {@linkplain ExecutionContext#current() current}
+ * in the thread where a test instance is constructed, and until that instance is destroyed.
+ * This is used for test configuration and units, which depend on the implementation to test.</p>
+ *
+ * <p>Each test execution is also reported to Java Flight Recorder as a {@link TestEvent}.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+public final class ExecutionExtension implements ParameterResolver, BeforeEachCallback, AfterEachCallback,
+        TestInstancePreConstructCallback, TestInstancePreDestroyCallback
+{
+    /**
+     * The namespace of values stored by this extension in JUnit extension contexts.
+     */
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(ExecutionExtension.class);
+
+    /**
+     * The singleton instance of this extension.
+     */
+    public static final ExecutionExtension INSTANCE = new ExecutionExtension();
+
+    /**
+     * Creates the singleton instance.
+     */
+    private ExecutionExtension() {
+    }
+
+    /**
+     * Returns the context of the execution which is running the test identified by the given JUnit context.
+     *
+     * @param  ec  the JUnit extension context.
+     * @return the execution context (never null).
+     */
+    private static ExecutionContext context(final ExtensionContext ec) {
+        return ec.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(
+                ExecutionContext.class, (key) -> ExecutionContext.find(ec), ExecutionContext.class);
+    }
+
+    /**
+     * Makes the execution context current before a test instance is created.
+     *
+     * @param  fc  the context of the test instance to construct (ignored).
+     * @param  ec  the extension context, used for finding the execution context.
+     */
+    @Override
+    public void preConstructTestInstance(final TestInstanceFactoryContext fc, final ExtensionContext ec) {
+        ExecutionContext.setCurrent(context(ec));
+    }
+
+    /**
+     * Clears the current execution context after a test instance has been used.
+     *
+     * @param  ec  the extension context (ignored).
+     */
+    @Override
+    public void preDestroyTestInstance(final ExtensionContext ec) {
+        ExecutionContext.setCurrent(null);
+    }
+
+    /**
+     * Determines if this resolver supports resolution of an argument.
+     * This is used for dependency injection.
+     *
+     * @param  pc  the context for the parameter for which an argument should be resolved.
+     * @param  ec  the extension context (ignored).
+     * @return whether this resolver can resolve the parameter.
+     */
+    @Override
+    public boolean supportsParameter(ParameterContext pc, ExtensionContext ec) {
+        return Factories.isSupported(pc.getParameter().getType());
+    }
+
+    /**
+     * Resolves an argument.
+     * This is used for dependency injection.
+     * Factories are discovered when first requested by this method.
+     *
+     * @param  pc  the context for the parameter for which an argument should be resolved.
+     * @param  ec  the extension context, used for finding the execution context.
+     * @return the argument value (may be null).
+     */
+    @Override
+    public Object resolveParameter(ParameterContext pc, ExtensionContext ec) {
+        final Class<?> type = pc.getParameter().getType();
+        final DiscoveredFactories factories = context(ec).factories();
+        if (factories != null) {
+            if (type == Factories.class) {
+                return factories.resolveAll();
+            }
+            return factories.factory(type.asSubclass(Factory.class));
+        }
+        if (type == Factories.class) {
+            return new Factories() {};
+        }
+        return null;
+    }
+
+    /**
+     * Starts the Java Flight Recorder event for the test which is about to be executed.
+     * The event is stored in the context of the test, for completion by {@link #afterEach(ExtensionContext)}.
+     * If the measurement of retained sizes is enabled, this method also makes current the measurement
+     * stored in the context of the test class, so that objects shared between test methods are counted once.
+     *
+     * @param  ec  the context of the test which is about to be executed.
+     */
+    @Override
+    public void beforeEach(final ExtensionContext ec) {
+        if (RetainedSize.isEnabled()) {
+            final FactoryProfiler profiler = FactoryProfiler.forLayer(context(ec).layer());
+            if (profiler != null) {
+                final String testClass = ec.getRequiredTestClass().getName();
+                RetainedSize.setCurrent(ec.getParent().orElse(ec).getStore(NAMESPACE).getOrComputeIfAbsent(
+                        RetainedSize.class, (key) -> profiler.retainedSize(testClass), RetainedSize.class));
+            }
+        }
+        final var event = new TestEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            ec.getStore(NAMESPACE).put(TestEvent.class, event);
+        }
+    }
+
+    /**
+     * Keeps a reference to the instance of the test which has been executed.
+     * It will be used for fetching configuration information if needed.
+     * This method also commits the Java Flight Recorder event of the test, if any,
+     * and clears the current measurement of retained sizes.
+     *
+     * @param  ec  the context of the test which has been executed.
+     */
+    @Override
+    public void afterEach(final ExtensionContext ec) {
+        RetainedSize.setCurrent(null);
+        final Object test = ec.getTestInstance().orElse(null);
+        if (test instanceof IntegrityTest) {
+            context(ec).finished(ec.getUniqueId(), (IntegrityTest) test);
+        }
+        final TestEvent event = ec.getStore(NAMESPACE).remove(TestEvent.class, TestEvent.class);
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                final Throwable exception = ec.getExecutionException().orElse(null);
+                event.testClass  = ec.getRequiredTestClass().getName();
+                event.testMethod = ec.getRequiredTestMethod().getName();
+                event.status     = (exception == null) ? "SUCCESSFUL"
+                                 : (exception instanceof TestAbortedException) ? "ABORTED" : "FAILED";
+                if (test instanceof IntegrityTest) {
+                    final Configuration.Key<Boolean> tip = PrivateAccessor.INSTANCE.configurationTip((IntegrityTest) test);
+                    if (tip != null) {
+                        event.configurationTip = tip.name();
+                    }
+                }
+                event.commit();
+            }
+        }
+    }
+}
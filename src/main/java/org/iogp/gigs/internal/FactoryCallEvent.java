@@ -0,0 +1,81 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * Java Flight Recorder event emitted for each call to a method of a factory of the tested implementation.
+ * The event duration is the time spent in the factory method. Those events are emitted by the proxies
+ * created by {@link FactoryProfiler}, which are installed only if profiling is enabled or if this event
+ * is enabled in a recording started with the JVM (e.g. by the {@code -XX:StartFlightRecording} option).
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+@Name("org.iogp.gigs.FactoryCall")
+@Label("GIGS Factory Call")
+@Category("GIGS")
+@Description("Call to a method of a factory of the tested implementation.")
+final class FactoryCallEvent extends Event {
+    /**
+     * Simple name of the GeoAPI interface of the factory, for example {@code "CRSAuthorityFactory"}.
+     */
+    @Label("Factory")
+    String factory;
+
+    /**
+     * Name of the factory method, for example {@code "createProjectedCRS"}.
+     */
+    @Label("Method")
+    String method;
+
+    /**
+     * The authority code given in argument to the method, or {@code null} if none.
+     */
+    @Label("Code")
+    String code;
+
+    /**
+     * Creates a new event.
+     */
+    FactoryCallEvent() {
+    }
+
+    /**
+     * Returns whether this event is enabled in a recording which is currently running.
+     *
+     * @return whether factory calls are recorded by Java Flight Recorder.
+     */
+    static boolean isRecording() {
+        return new FactoryCallEvent().isEnabled();
+    }
+}
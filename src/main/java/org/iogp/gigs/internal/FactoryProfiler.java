@@ -0,0 +1,491 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.internal;
+
+import java.util.Map;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Method;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import org.opengis.util.Factory;
+import org.opengis.referencing.AuthorityFactory;
+
+
+/**
+ * Measures the latency of all calls to the factories of an implementation.
+ * When profiling is enabled by the {@value #PROPERTY} system property, each discovered factory is wrapped
+ * in a dynamic proxy implementing the same GeoAPI interfaces. The proxy records the call count and a
+ * {@linkplain LatencyHistogram latency histogram} for each factory method and, for the {@code createFoo(String)}
+ * methods of authority factories, for each authority code. The number of bytes allocated by the thread during
+ * each call is also recorded, for detecting the objects which are unusually costly to create compared to other
+ * objects of the same type, and the datum, ellipsoid, prime meridian and coordinate system instances reached
+ * from the created objects are {@linkplain InstanceAudit audited} for detecting implementations which do not
+ * share them. Optionally, the {@linkplain RetainedSize retained size} of the created objects is
+ * also measured for each test class. The proxy also emits a {@link FactoryCallEvent}
+ * for Java Flight Recorder. When neither profiling nor recording is enabled, the factories are used directly
+ * and there is no overhead.
+ *
+ * <p>There is one profiler per module layer, cached together with the factories of that layer.
+ * Instances of this class are thread-safe.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+public final class FactoryProfiler {
+    /**
+     * Name of the system property for enabling the profiling of factories.
+     * The value shall be {@code "true"} for enabling profiling.
+     */
+    public static final String PROPERTY = "org.iogp.gigs.profile";
+
+    /**
+     * Prefix of the names of GeoAPI packages. Only the interfaces in those packages are implemented by proxies.
+     */
+    private static final String GEOAPI_PACKAGE = "org.opengis.";
+
+    /**
+     * The bean used for measuring the bytes allocated by a thread, or {@code null} if unsupported.
+     */
+    private static final com.sun.management.ThreadMXBean THREADS;
+    static {
+        final var bean = ManagementFactory.getThreadMXBean();
+        THREADS = (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported())
+                ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+
+    /**
+     * Statistics for each factory method and each authority code, indexed by {@link Entry#toString()}.
+     */
+    private final Map<String,Entry> entries;
+
+    /**
+     * Retained sizes of the objects created by each test class, indexed by fully qualified class name.
+     * This map stays empty unless the measurement of {@linkplain RetainedSize retained sizes} is enabled.
+     */
+    private final Map<String,RetainedSize.Summary> retainedSizes;
+
+    /**
+     * Audit of the sharing of components between the objects created from authority codes.
+     */
+    private final InstanceAudit audit;
+
+    /**
+     * Whether to record the latencies in histograms. If {@code false}, the proxies only emit
+     * {@link FactoryCallEvent}s for Java Flight Recorder.
+     */
+    private final boolean histograms;
+
+    /**
+     * Creates a new profiler with no statistics.
+     *
+     * @param  histograms  whether to record the latencies in histograms.
+     */
+    private FactoryProfiler(final boolean histograms) {
+        this.histograms = histograms;
+        entries = new ConcurrentHashMap<>();
+        retainedSizes = new ConcurrentHashMap<>();
+        audit = new InstanceAudit();
+    }
+
+    /**
+     * Creates a profiler if profiling is enabled or if factory calls are recorded by Java Flight Recorder.
+     *
+     * @return the profiler, or {@code null} if factories do not need to be wrapped.
+     */
+    static FactoryProfiler create() {
+        final boolean histograms = isEnabled();
+        if (histograms || FactoryCallEvent.isRecording()) {
+            return new FactoryProfiler(histograms);
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether profiling is enabled by the {@value #PROPERTY} system property.
+     *
+     * @return whether the factories shall be profiled.
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(PROPERTY);
+    }
+
+    /**
+     * Returns the profiler of the given module layer.
+     * The statistics of the returned profiler are empty if only Java Flight Recorder events are enabled.
+     *
+     * @param  layer  module layer of the implementation to test.
+     * @return profiler of the factories of the given layer, or {@code null} if profiling is disabled
+     *         or if no test has been executed on that layer.
+     */
+    public static FactoryProfiler forLayer(final ModuleLayer layer) {
+        final LayerResources resources = LayerResources.cached(layer);
+        return (resources != null) ? resources.profiler : null;
+    }
+
+    /**
+     * Wraps the given factory in a proxy which records the latency of all method calls.
+     * The proxy implements the given interface and all other GeoAPI interfaces of the factory.
+     *
+     * @param  <T>      compile-time value of the {@code type} argument.
+     * @param  type     GeoAPI interface of the factory.
+     * @param  factory  the factory to wrap, or {@code null}.
+     * @return the proxy, or {@code null} if the given factory was null.
+     */
+    final <T extends Factory> T wrap(final Class<T> type, final T factory) {
+        if (factory == null) {
+            return null;
+        }
+        final Set<Class<?>> interfaces = new LinkedHashSet<>();
+        interfaces.add(type);
+        for (Class<?> c = factory.getClass(); c != null; c = c.getSuperclass()) {
+            addInterfaces(c, interfaces);
+        }
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(),
+                interfaces.toArray(Class<?>[]::new), new Handler(type, factory)));
+    }
+
+    /**
+     * Adds the GeoAPI interfaces implemented by the given class or interface.
+     * Only the interfaces in exported packages are added, since the proxy must be able to implement them.
+     *
+     * @param  c           the class or interface for which to add the implemented interfaces.
+     * @param  interfaces  where to add the GeoAPI interfaces.
+     */
+    private static void addInterfaces(final Class<?> c, final Set<Class<?>> interfaces) {
+        for (final Class<?> i : c.getInterfaces()) {
+            if (i.getName().startsWith(GEOAPI_PACKAGE) && i.getModule().isExported(i.getPackageName())) {
+                interfaces.add(i);
+            }
+            addInterfaces(i, interfaces);
+        }
+    }
+
+    /**
+     * Returns the factory wrapped by the given proxy.
+     * If the given object is not a proxy created by this class, then it is returned unchanged.
+     *
+     * @param  factory  the factory to unwrap, or {@code null}.
+     * @return the factory of the implementation.
+     */
+    public static Object unwrap(final Object factory) {
+        if (factory != null && Proxy.isProxyClass(factory.getClass())) {
+            final InvocationHandler handler = Proxy.getInvocationHandler(factory);
+            if (handler instanceof Handler) {
+                return ((Handler) handler).factory;
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread until now.
+     *
+     * @return number of bytes allocated by the current thread, or -1 if unknown.
+     */
+    private static long allocatedBytes() {
+        if (THREADS != null && THREADS.isThreadAllocatedMemoryEnabled()) {
+            return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the statistics for the given factory method and authority code, creating them if needed.
+     *
+     * @param  type    simple name of the factory interface.
+     * @param  method  name of the factory method.
+     * @param  code    authority code, or {@code null} for the statistics of the method as a whole.
+     * @return statistics for the given method and code.
+     */
+    private Entry entry(final String type, final String method, final String code) {
+        final String key = Entry.key(type, method, code);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(key, (k) -> new Entry(type, method, code));
+        }
+        return entry;
+    }
+
+    /**
+     * Returns a snapshot of the statistics of all factory methods and authority codes invoked so far.
+     *
+     * @return the statistics, in no particular order.
+     */
+    public List<Entry> entries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Returns the audit of the sharing of datum, ellipsoid, prime meridian and coordinate system instances
+     * between the objects created from authority codes. The audit is empty if profiling is disabled.
+     *
+     * @return audit of the instances reached from the created objects.
+     */
+    public InstanceAudit instanceAudit() {
+        return audit;
+    }
+
+    /**
+     * Creates a new measurement of the retained sizes of the objects created by an execution of the given test class.
+     * If the methods of the class are executed in many batches, all measurements share the same statistics.
+     *
+     * @param  testClass  fully qualified name of the test class.
+     * @return a new measurement for an execution of the given test class.
+     */
+    final RetainedSize retainedSize(final String testClass) {
+        return new RetainedSize(retainedSizes.computeIfAbsent(testClass, RetainedSize.Summary::new));
+    }
+
+    /**
+     * Returns a snapshot of the retained sizes of the objects created by each test class.
+     * The list is empty unless the {@value RetainedSize#PROPERTY} system property is {@code true}.
+     *
+     * @return the retained sizes, in no particular order.
+     */
+    public List<RetainedSize.Summary> retainedSizes() {
+        return new ArrayList<>(retainedSizes.values());
+    }
+
+    /**
+     * Statistics about the calls to a factory method, optionally restricted to a single authority code.
+     */
+    public static final class Entry {
+        /**
+         * Simple name of the GeoAPI interface of the factory, for example {@code "CRSAuthorityFactory"}.
+         */
+        public final String factory;
+
+        /**
+         * Name of the factory method, for example {@code "createProjectedCRS"}.
+         */
+        public final String method;
+
+        /**
+         * The authority code given in argument to the method, or {@code null} if this entry
+         * is for all calls to the method regardless their arguments.
+         */
+        public final String code;
+
+        /**
+         * The latencies of the calls.
+         */
+        public final LatencyHistogram latencies;
+
+        /**
+         * Total number of bytes allocated by all calls.
+         */
+        private final LongAdder allocated;
+
+        /**
+         * Maximal number of bytes allocated by a single call.
+         */
+        private final LongAccumulator maxAllocated;
+
+        /**
+         * Creates new statistics for the given method and code.
+         *
+         * @param  factory  simple name of the factory interface.
+         * @param  method   name of the factory method.
+         * @param  code     authority code, or {@code null} for all calls to the method.
+         */
+        Entry(final String factory, final String method, final String code) {
+            this.factory = factory;
+            this.method  = method;
+            this.code    = code;
+            latencies    = new LatencyHistogram();
+            allocated    = new LongAdder();
+            maxAllocated = new LongAccumulator(Math::max, 0);
+        }
+
+        /**
+         * Records the resources used by a call.
+         *
+         * @param  time   latency of the call in nanoseconds.
+         * @param  bytes  number of bytes allocated by the call, or a negative value if unknown.
+         */
+        final void record(final long time, final long bytes) {
+            latencies.record(time);
+            if (bytes >= 0) {
+                allocated.add(bytes);
+                maxAllocated.accumulate(bytes);
+            }
+        }
+
+        /**
+         * Returns the total number of bytes allocated by all calls.
+         *
+         * @return bytes allocated by all calls, or 0 if unknown.
+         */
+        public long allocated() {
+            return allocated.sum();
+        }
+
+        /**
+         * Returns the maximal number of bytes allocated by a single call.
+         * For authority codes, this is usually the first call, before the implementation caches the object.
+         *
+         * @return maximal bytes allocated by a call, or 0 if unknown.
+         */
+        public long maxAllocated() {
+            return maxAllocated.get();
+        }
+
+        /**
+         * Returns the type of objects created by the method, for example {@code "ProjectedCRS"}.
+         * This is the method name without the {@code "create"} prefix.
+         *
+         * @return type of objects created by the method, or the method name if not a {@code createFoo} method.
+         */
+        public String objectType() {
+            return method.startsWith("create") ? method.substring(6) : method;
+        }
+
+        /**
+         * Returns the key of the statistics for the given method and code.
+         *
+         * @param  factory  simple name of the factory interface.
+         * @param  method   name of the factory method.
+         * @param  code     authority code, or {@code null} for all calls to the method.
+         * @return key in the map of entries.
+         */
+        static String key(final String factory, final String method, final String code) {
+            final String key = factory + '.' + method;
+            return (code != null) ? key + '(' + code + ')' : key;
+        }
+
+        /**
+         * Returns a string representation of this entry, for example
+         * {@code "CRSAuthorityFactory.createProjectedCRS(2165)"}.
+         */
+        @Override
+        public String toString() {
+            return key(factory, method, code);
+        }
+    }
+
+    /**
+     * The handler of a proxy measuring the latency of calls to a factory.
+     */
+    private final class Handler implements InvocationHandler {
+        /**
+         * Simple name of the GeoAPI interface of the factory.
+         */
+        private final String type;
+
+        /**
+         * The factory of the implementation.
+         */
+        final Object factory;
+
+        /**
+         * Whether the factory is an authority factory, in which case the codes are profiled.
+         */
+        private final boolean isAuthorityFactory;
+
+        /**
+         * Creates a new handler for the given factory.
+         *
+         * @param  type     GeoAPI interface of the factory.
+         * @param  factory  the factory of the implementation.
+         */
+        Handler(final Class<?> type, final Object factory) {
+            this.type    = type.getSimpleName();
+            this.factory = factory;
+            isAuthorityFactory = (factory instanceof AuthorityFactory);
+        }
+
+        /**
+         * Invokes the given method on the factory and records the latency.
+         * The methods inherited from {@link Object} are delegated without measurement.
+         *
+         * @param  proxy   the proxy instance.
+         * @param  method  the method invoked on the proxy.
+         * @param  args    the method arguments, or {@code null} if none.
+         * @return the value returned by the factory.
+         * @throws Throwable the exception thrown by the factory.
+         */
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":   return proxy == args[0] || factory.equals(unwrap(args[0]));
+                    case "hashCode": return factory.hashCode();
+                    default:         return method.invoke(factory, args);
+                }
+            }
+            final var event = new FactoryCallEvent();
+            event.begin();
+            final long bytes = histograms ? allocatedBytes() : -1;
+            final long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = method.invoke(factory, args);
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                final long time = System.nanoTime() - start;
+                event.end();
+                final String name = method.getName();
+                final String code = (isAuthorityFactory && args != null && args.length == 1
+                        && args[0] instanceof String && name.startsWith("create")) ? (String) args[0] : null;
+                if (histograms) {
+                    final long used = (bytes >= 0) ? allocatedBytes() - bytes : -1;
+                    entry(type, name, null).record(time, used);
+                    if (code != null) {
+                        entry(type, name, code).record(time, used);
+                    }
+                }
+                if (code != null && result != null) {
+                    if (histograms) try {
+                        audit.add(result);
+                    } catch (RuntimeException e) {
+                        // Ignore since this error will be reported by the test.
+                    }
+                    final RetainedSize measurement = RetainedSize.current();
+                    if (measurement != null) {
+                        measurement.add(code, result);
+                    }
+                }
+                if (event.shouldCommit()) {
+                    event.factory = type;
+                    event.method  = name;
+                    event.code    = code;
+                    event.commit();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,392 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.internal;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.ArrayList;
+import org.opengis.referencing.IdentifiedObject;
+import org.opengis.referencing.ReferenceIdentifier;
+import org.opengis.referencing.crs.CompoundCRS;
+import org.opengis.referencing.crs.GeneralDerivedCRS;
+import org.opengis.referencing.crs.SingleCRS;
+import org.opengis.referencing.cs.CoordinateSystem;
+import org.opengis.referencing.datum.Datum;
+import org.opengis.referencing.datum.Ellipsoid;
+import org.opengis.referencing.datum.GeodeticDatum;
+import org.opengis.referencing.datum.PrimeMeridian;
+
+
+/**
+ * Audit of the sharing of datum, ellipsoid, prime meridian and coordinate system instances.
+ * Many objects created by the tests reference the same components, for example the WGS 84 datum
+ * (EPSG:6326) and ellipsoid (EPSG:7030). An implementation which caches the objects created from
+ * authority codes returns the same instance each time, while an implementation without cache
+ * creates a new instance for each reference, which wastes memory and time.
+ *
+ * <p>For each component reached from a created object and having an EPSG identifier, this audit records
+ * the {@linkplain System#identityHashCode(Object) identity hash code} of the instance together with the
+ * class which declares the {@code equals(Object)} method used for comparing the instances. The objects
+ * themselves are not retained: the audit uses a map of integer codes to small arrays of integer hashes.
+ * Consequently, two distinct instances having the same identity hash code are counted as one,
+ * and a garbage-collected instance may be counted again if a new instance has a different hash code.</p>
+ *
+ * <p>There is one audit per {@linkplain FactoryProfiler profiler}. Instances of this class are thread-safe.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+public final class InstanceAudit {
+    /**
+     * The types of components which are audited.
+     */
+    public enum Type {
+        /** Datum of any kind. */
+        DATUM,
+
+        /** Ellipsoid of a geodetic datum. */
+        ELLIPSOID,
+
+        /** Prime meridian of a geodetic datum. */
+        PRIME_MERIDIAN,
+
+        /** Coordinate system of a single CRS. */
+        COORDINATE_SYSTEM
+    }
+
+    /**
+     * The EPSG code space, compared ignoring case.
+     */
+    private static final String EPSG = "EPSG";
+
+    /**
+     * Name of the class which declares the {@code equals(Object)} method of each class.
+     */
+    private static final ClassValue<String> EQUALS = new EqualsDeclarer();
+
+    /**
+     * The cache of the names of the classes which declare the {@code equals(Object)} method.
+     */
+    private static final class EqualsDeclarer extends ClassValue<String> {
+        /**
+         * Creates an initially empty cache.
+         */
+        EqualsDeclarer() {
+        }
+
+        /**
+         * Returns the name of the class which declares the {@code equals(Object)} method of the given class.
+         *
+         * @param  type  the class of an audited component.
+         * @return name of the class which declares the {@code equals(Object)} method.
+         */
+        @Override
+        protected String computeValue(final Class<?> type) {
+            try {
+                return type.getMethod("equals", Object.class).getDeclaringClass().getName();
+            } catch (NoSuchMethodException e) {
+                return Object.class.getName();      // Should never happen.
+            }
+        }
+    }
+
+    /**
+     * The instances found for each type of component, indexed by {@link Type#ordinal()}.
+     * All accesses to those maps must be synchronized on {@code this}.
+     */
+    private final Codes[] codes;
+
+    /**
+     * Creates a new audit with no record.
+     */
+    InstanceAudit() {
+        codes = new Codes[Type.values().length];
+        for (int i=0; i<codes.length; i++) {
+            codes[i] = new Codes();
+        }
+    }
+
+    /**
+     * Records the components of the given object created by a factory.
+     * If the given object is itself a datum, ellipsoid, prime meridian or coordinate system,
+     * then it is also recorded. Objects of other types are ignored.
+     *
+     * @param  object  the object created by a factory.
+     */
+    final void add(final Object object) {
+        if (object instanceof CompoundCRS) {
+            for (final Object component : ((CompoundCRS) object).getComponents()) {
+                add(component);
+            }
+        } else {
+            if (object instanceof GeneralDerivedCRS) {
+                add(((GeneralDerivedCRS) object).getBaseCRS());
+            }
+            if (object instanceof SingleCRS) {
+                final SingleCRS crs = (SingleCRS) object;
+                add(crs.getDatum());
+                add(crs.getCoordinateSystem());
+            } else if (object instanceof Datum) {
+                record(Type.DATUM, (Datum) object);
+                if (object instanceof GeodeticDatum) {
+                    final GeodeticDatum datum = (GeodeticDatum) object;
+                    record(Type.ELLIPSOID,      datum.getEllipsoid());
+                    record(Type.PRIME_MERIDIAN, datum.getPrimeMeridian());
+                }
+            } else if (object instanceof Ellipsoid) {
+                record(Type.ELLIPSOID, (Ellipsoid) object);
+            } else if (object instanceof PrimeMeridian) {
+                record(Type.PRIME_MERIDIAN, (PrimeMeridian) object);
+            } else if (object instanceof CoordinateSystem) {
+                record(Type.COORDINATE_SYSTEM, (CoordinateSystem) object);
+            }
+        }
+    }
+
+    /**
+     * Records the given component if it has an EPSG code.
+     *
+     * @param  type    the type of the component.
+     * @param  object  the component, or {@code null}.
+     */
+    private void record(final Type type, final IdentifiedObject object) {
+        if (object != null) {
+            final int code = code(object);
+            if (code != 0) {
+                final int hash = System.identityHashCode(object);
+                final String equals = EQUALS.get(object.getClass());
+                synchronized (this) {
+                    codes[type.ordinal()].add(code, hash, equals);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the EPSG code of the given object.
+     *
+     * @param  object  the object for which to get the EPSG code.
+     * @return the EPSG code, or 0 if none.
+     */
+    private static int code(final IdentifiedObject object) {
+        for (final ReferenceIdentifier id : object.getIdentifiers()) {
+            final String codeSpace = id.getCodeSpace();
+            if (codeSpace != null && EPSG.equalsIgnoreCase(codeSpace.trim())) try {
+                return Integer.parseInt(id.getCode().trim());
+            } catch (RuntimeException e) {
+                // Not a numerical code. Ignore, since the tests will report it.
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns a snapshot of the instances found for all EPSG codes.
+     *
+     * @return the number of instances for each EPSG code, sorted by type and code.
+     */
+    public synchronized List<Entry> entries() {
+        final List<Entry> entries = new ArrayList<>();
+        for (final Type type : Type.values()) {
+            codes[type.ordinal()].addTo(type, entries);
+        }
+        return entries;
+    }
+
+    /**
+     * The number of distinct instances found for a component identified by an EPSG code.
+     */
+    public static final class Entry {
+        /** The type of the component. */
+        public final Type type;
+
+        /** The EPSG code of the component. */
+        public final int code;
+
+        /** Number of distinct instances found for that code. */
+        public final int instances;
+
+        /** Number of times that an instance has been reached. */
+        public final int references;
+
+        /** Name of the class which declares the {@code equals(Object)} method of the instances. */
+        public final String equalsClass;
+
+        /**
+         * Creates a new entry.
+         *
+         * @param  type         the type of the component.
+         * @param  code         the EPSG code of the component.
+         * @param  instances    number of distinct instances found for that code.
+         * @param  references   number of times that an instance has been reached.
+         * @param  equalsClass  name of the class which declares the {@code equals(Object)} method.
+         */
+        Entry(final Type type, final int code, final int instances, final int references, final String equalsClass) {
+            this.type        = type;
+            this.code        = code;
+            this.instances   = instances;
+            this.references  = references;
+            this.equalsClass = equalsClass;
+        }
+
+        /**
+         * Returns a string representation of this entry for debugging purposes.
+         */
+        @Override
+        public String toString() {
+            return type + " EPSG:" + code + ": " + instances + " instances in " + references + " references";
+        }
+    }
+
+    /**
+     * Identity hash codes of the instances found for each EPSG code, for a single type of component.
+     * This is an open addressing hash map with {@code int} keys, which does not retain the instances.
+     * This class is not thread-safe; synchronization is done by the enclosing class.
+     */
+    static final class Codes {
+        /** The EPSG codes, or 0 for empty slots. The length is a power of 2. */
+        private int[] keys;
+
+        /** Identity hash codes of the instances for each code, in the first {@link #sizes} elements. */
+        private int[][] hashes;
+
+        /** Number of valid elements in each {@link #hashes} array. */
+        private int[] sizes;
+
+        /** Number of times that an instance has been reached for each code. */
+        private int[] references;
+
+        /** Name of the class declaring {@code equals(Object)} for the last instance of each code. */
+        private String[] equals;
+
+        /** Number of codes in this map. */
+        private int count;
+
+        /**
+         * Creates an initially empty map.
+         */
+        Codes() {
+            allocate(64);
+        }
+
+        /**
+         * Allocates the arrays for the given capacity, which must be a power of 2.
+         *
+         * @param  capacity  the new capacity.
+         */
+        private void allocate(final int capacity) {
+            keys       = new int[capacity];
+            hashes     = new int[capacity][];
+            sizes      = new int[capacity];
+            references = new int[capacity];
+            equals     = new String[capacity];
+        }
+
+        /**
+         * Returns the slot of the given code, which may be an empty slot.
+         *
+         * @param  code  the EPSG code (must be non-zero).
+         * @return index of the slot for the given code.
+         */
+        private int slot(final int code) {
+            final int mask = keys.length - 1;
+            int i = (code * 0x9E3779B9) >>> 16 & mask;
+            while (keys[i] != 0 && keys[i] != code) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        /**
+         * Records an instance for the given code.
+         *
+         * @param  code    the EPSG code (must be non-zero).
+         * @param  hash    identity hash code of the instance.
+         * @param  equals  name of the class which declares the {@code equals(Object)} method of the instance.
+         */
+        void add(final int code, final int hash, final String equals) {
+            int i = slot(code);
+            if (keys[i] == 0) {
+                if (++count > keys.length / 2) {
+                    rehash();
+                    i = slot(code);
+                }
+                keys[i]   = code;
+                hashes[i] = new int[2];
+            }
+            references[i]++;
+            this.equals[i] = equals;
+            int[] h = hashes[i];
+            final int n = sizes[i];
+            for (int j=0; j<n; j++) {
+                if (h[j] == hash) return;
+            }
+            if (n == h.length) {
+                hashes[i] = h = Arrays.copyOf(h, n * 2);
+            }
+            h[n] = hash;
+            sizes[i] = n + 1;
+        }
+
+        /**
+         * Doubles the capacity of this map.
+         */
+        private void rehash() {
+            final int[]    oldKeys   = keys;
+            final int[][]  oldHashes = hashes;
+            final int[]    oldSizes  = sizes;
+            final int[]    oldRefs   = references;
+            final String[] oldEquals = equals;
+            allocate(oldKeys.length * 2);
+            for (int j=0; j<oldKeys.length; j++) {
+                if (oldKeys[j] != 0) {
+                    final int i = slot(oldKeys[j]);
+                    keys[i]       = oldKeys[j];
+                    hashes[i]     = oldHashes[j];
+                    sizes[i]      = oldSizes[j];
+                    references[i] = oldRefs[j];
+                    equals[i]     = oldEquals[j];
+                }
+            }
+        }
+
+        /**
+         * Adds the content of this map to the given list, sorted by code.
+         *
+         * @param  type  the type of components in this map.
+         * @param  dest  where to add the entries.
+         */
+        void addTo(final Type type, final List<Entry> dest) {
+            final int start = dest.size();
+            for (int i=0; i<keys.length; i++) {
+                if (keys[i] != 0) {
+                    dest.add(new Entry(type, keys[i], sizes[i], references[i], equals[i]));
+                }
+            }
+            dest.subList(start, dest.size()).sort((e1, e2) -> Integer.compare(e1.code, e2.code));
+        }
+    }
+}
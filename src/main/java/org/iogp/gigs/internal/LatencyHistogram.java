@@ -0,0 +1,202 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.internal;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * A histogram of latencies in nanoseconds with fixed buckets and no lock.
+ * Buckets are arranged as in HdrHistogram: each power of 2 is divided in {@value #SUB_BUCKETS}
+ * sub-buckets of equal width, which gives a relative precision of about 12% over the whole range
+ * from 1 nanosecond to about one hour. Values outside that range are recorded in the last bucket.
+ * Recording a value is a few atomic increments, so many threads can record in the same histogram.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+public final class LatencyHistogram {
+    /**
+     * Number of bits used for the sub-buckets.
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /**
+     * Number of sub-buckets in each power of 2.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Exponent of the power of 2 above which all values are recorded in the last bucket.
+     * A value of 42 is about 73 minutes.
+     */
+    private static final int MAX_EXPONENT = 42;
+
+    /**
+     * Number of values recorded in each bucket.
+     */
+    private final AtomicLongArray buckets;
+
+    /**
+     * Number of recorded values.
+     */
+    private final LongAdder count;
+
+    /**
+     * Sum of all recorded values in nanoseconds.
+     */
+    private final LongAdder total;
+
+    /**
+     * Maximal recorded value in nanoseconds.
+     */
+    private final LongAccumulator max;
+
+    /**
+     * Creates an initially empty histogram.
+     */
+    public LatencyHistogram() {
+        buckets = new AtomicLongArray(index(Long.MAX_VALUE) + 1);
+        count   = new LongAdder();
+        total   = new LongAdder();
+        max     = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Returns the index of the bucket where to record the given value.
+     *
+     * @param  value  the value in nanoseconds.
+     * @return index of the bucket for the given value.
+     */
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(value, 0);
+        }
+        value = Math.min(value, (1L << MAX_EXPONENT) - 1);
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) | (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Returns the smallest value recorded in the bucket at the given index.
+     * This is also the exclusive upper bound of the bucket at index {@code i-1}.
+     *
+     * @param  i  index of a bucket.
+     * @return smallest value in nanoseconds of the bucket at the given index.
+     */
+    private static long lowerBound(final int i) {
+        if (i < SUB_BUCKETS) {
+            return i;
+        }
+        final int shift = (i >>> SUB_BUCKET_BITS) - 1;
+        return ((long) (SUB_BUCKETS | (i & (SUB_BUCKETS - 1)))) << shift;
+    }
+
+    /**
+     * Records the given latency. This method can be invoked concurrently from any thread.
+     *
+     * @param  nanos  the latency in nanoseconds.
+     */
+    public void record(final long nanos) {
+        buckets.incrementAndGet(index(nanos));
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return number of recorded values.
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of all recorded values.
+     *
+     * @return sum of all latencies in nanoseconds.
+     */
+    public long total() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the maximal recorded value.
+     *
+     * @return maximal latency in nanoseconds, or 0 if none.
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Returns an estimation of the value below which the given percentage of the recorded values fall.
+     * The returned value is the upper bound of the bucket containing the percentile,
+     * but not greater than the {@linkplain #max() maximal value}.
+     *
+     * @param  percentile  a value between 0 and 100.
+     * @return estimation of the percentile in nanoseconds, or 0 if no value has been recorded.
+     */
+    public long percentile(final double percentile) {
+        final long n = count();
+        if (n == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i=0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(lowerBound(i+1) - 1, max());
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Returns the number of values recorded in each non-empty bucket. Each row of the returned array
+     * contains the inclusive lower bound in nanoseconds, the exclusive upper bound and the count.
+     *
+     * @return lower bound, upper bound and count of each non-empty bucket, in increasing order.
+     */
+    public long[][] buckets() {
+        int n = 0;
+        final long[][] rows = new long[buckets.length()][];
+        for (int i=0; i < rows.length; i++) {
+            final long c = buckets.get(i);
+            if (c != 0) {
+                rows[n++] = new long[] {lowerBound(i), lowerBound(i+1), c};
+            }
+        }
+        return Arrays.copyOf(rows, n);
+    }
+}
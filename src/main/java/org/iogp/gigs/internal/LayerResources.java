@@ -0,0 +1,156 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2022-2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.opengis.util.FactoryException;
+import org.opengis.referencing.crs.CRSAuthorityFactory;
+
+
+/**
+ * Resources discovered in the module layer of an implementation to test.
+ * Discovering factories may be costly, for example if an EPSG database needs to be opened,
+ * so the resources are cached for each module layer and reused by all executions of tests
+ * on the same implementation, including the re-execution of a single test from the GUI.
+ *
+ * <p>Implementation classes have references to their module layer, so a weak map would not
+ * allow garbage collection of the cached resources. Instead, {@link #dispose(ModuleLayer)}
+ * must be invoked explicitly when a module layer is discarded.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class LayerResources {
+    /**
+     * The resources of all module layers for which tests have been executed.
+     */
+    private static final Map<ModuleLayer, LayerResources> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Name of the system property for enabling the pre-warming of factories.
+     * The value can be {@code "true"} for discovering all factories in a background thread,
+     * or a comma-separated list of EPSG codes for also creating those objects in advance.
+     */
+    static final String PREWARM = "org.iogp.gigs.prewarm";
+
+    /**
+     * All factories of the module layer, discovered when first needed.
+     */
+    final DiscoveredFactories factories;
+
+    /**
+     * The profiler of the factories, or {@code null} if neither profiling nor recording is enabled.
+     */
+    final FactoryProfiler profiler;
+
+    /**
+     * Throughput of the coordinate operations executed by the tests.
+     */
+    final TransformStatistics statistics;
+
+    /**
+     * Whether the pre-warming of factories has been started.
+     * Pre-warming is done at most once per module layer.
+     */
+    private final AtomicBoolean prewarmed;
+
+    /**
+     * Discovers the resources of the given module layer.
+     *
+     * @param  layer  module layer of the implementation to test.
+     */
+    private LayerResources(final ModuleLayer layer) {
+        profiler  = FactoryProfiler.create();
+        factories = new DiscoveredFactories(layer, profiler);
+        statistics = new TransformStatistics();
+        prewarmed = new AtomicBoolean();
+    }
+
+    /**
+     * Returns the resources of the given module layer, discovering them if not already cached.
+     *
+     * @param  layer  module layer of the implementation to test.
+     * @return resources of the given layer.
+     */
+    static LayerResources forLayer(final ModuleLayer layer) {
+        return CACHE.computeIfAbsent(layer, LayerResources::new);
+    }
+
+    /**
+     * Returns the resources of the given module layer if they have already been discovered.
+     *
+     * @param  layer  module layer of the implementation to test.
+     * @return resources of the given layer, or {@code null} if not yet discovered or already disposed.
+     */
+    static LayerResources cached(final ModuleLayer layer) {
+        return CACHE.get(layer);
+    }
+
+    /**
+     * Starts the discovery of factories in a background thread if the {@value #PREWARM} system property is set.
+     * This is invoked before JUnit starts the discovery of tests, which is costly for the largest test classes,
+     * so that the initialization of the implementation (e.g. opening of an EPSG database) happens in parallel.
+     * If the property value is a list of codes, the objects for those codes are also created in advance.
+     * Errors are logged and otherwise ignored, since the tests will report them anyway.
+     */
+    final void prewarm() {
+        final String codes = System.getProperty(PREWARM);
+        if (codes == null || codes.equalsIgnoreCase("false") || prewarmed.getAndSet(true)) {
+            return;
+        }
+        final var thread = new Thread(() -> {
+            factories.resolveAll();
+            if (!codes.equalsIgnoreCase("true")) {
+                final CRSAuthorityFactory factory = factories.factory(CRSAuthorityFactory.class);
+                if (factory != null) {
+                    for (String code : codes.split(",")) {
+                        if (!(code = code.trim()).isEmpty()) try {
+                            factory.createObject(code);
+                        } catch (FactoryException | RuntimeException e) {
+                            Logger.getLogger("org.iogp.gigs").log(Level.FINE, "Can not pre-warm code " + code, e);
+                        }
+                    }
+                }
+            }
+        }, "GIGS pre-warm");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Discards the resources cached for the given module layer.
+     * This method shall be invoked when the layer will not be used anymore.
+     *
+     * @param  layer  module layer of the implementation which has been tested.
+     */
+    static void dispose(final ModuleLayer layer) {
+        CACHE.remove(layer);
+    }
+}
@@ -52,11 +52,11 @@ public class PrivateAccessor {
     }
 
     /**
-     * Loads the configuration declared by the implementer.
+     * Discards the configuration loaded for the given module layer.
      *
-     * @param  layer  module layer of the implementation to test, or {@code null} if none.
+     * @param  layer  module layer of the implementation which has been tested.
      */
-    public void configureFor(ModuleLayer layer) {
+    public void dispose(ModuleLayer layer) {
     }
 
     /**
@@ -65,27 +65,50 @@ public class PrivateAccessor {
      * @param  test  the test for which to get the configuration.
      * @return the configuration of the specified test, or an empty map if none.
      */
-    public Configuration configuration(IntegrityTest test) {
+    protected Configuration configuration(IntegrityTest test) {
         return new Configuration();
     }
 
+    /**
+     * Returns the configuration key for disabling the optional aspect which caused a test failure.
+     *
+     * @param  test  the test which has been executed.
+     * @return configuration key for disabling the aspect that failed, or {@code null} if none.
+     */
+    protected Configuration.Key<Boolean> configurationTip(IntegrityTest test) {
+        return null;
+    }
+
     /**
      * Enables or disables an optional aspect for a specific test method.
      *
+     * @param  layer   module layer of the tested implementation, or {@code null} if none.
      * @param  method  the test method to configure, or {@code null} for global configuration.
-     * @param  aspect  the test aspect to enable or disable.
+     * @param  aspect  name of the test aspect to enable or disable.
      * @param  value   the new enabled status, or {@code null} for removing.
      */
-    public void setTestSpecificOption(Method method, Configuration.Key<Boolean> aspect, Boolean value) {
+    public void setTestSpecificOption(ModuleLayer layer, Method method, String aspect, Boolean value) {
     }
 
     /**
      * Gets the configuration of tests as a properties file.
      * The returned map does not include the global configuration.
      *
+     * @param  layer  module layer of the tested implementation, or {@code null} if none.
      * @return configuration of all tests.
      */
-    public Properties getTestConfigurations() {
+    public Properties getTestConfigurations(ModuleLayer layer) {
+        return new Properties();
+    }
+
+    /**
+     * Gets the options which apply to the given test method, including the global configuration.
+     *
+     * @param  layer   module layer of the tested implementation, or {@code null} if none.
+     * @param  method  the test method for which to get the options.
+     * @return options of the given test, with option names as keys.
+     */
+    public Properties getEffectiveConfiguration(ModuleLayer layer, Method method) {
         return new Properties();
     }
 }
@@ -0,0 +1,477 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.internal;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import org.opengis.util.CodeList;
+import org.opengis.util.Factory;
+
+
+/**
+ * Estimation of the heap retained by the objects created by the factories during the execution of a test class.
+ * The object graph of each created object is walked by reflection, and the shallow size of each reachable object
+ * is estimated for a 64 bits JVM with compressed references. Objects reached from many created objects, such as
+ * an ellipsoid shared by many datums, are counted once in the {@linkplain Summary#distinct() distinct total}
+ * but once per created object in the {@linkplain Summary#sum() sum}. The ratio between those two numbers tells
+ * whether the implementation shares the components of the objects that it creates.
+ *
+ * <p>The walk does not enter into classes, class loaders, threads, factories, enumerations, code lists
+ * and the referents of weak or soft references, since those objects are not retained by the created objects.
+ * The fields of objects in modules which are not open to GIGS (for example the JDK) are not walked,
+ * except for strings, arrays, collections and maps for which a public API gives access to the content.</p>
+ *
+ * <p>There is one instance per execution of a test class, made {@linkplain #current() current}
+ * by {@link ExecutionExtension} during the execution of each test method. Instances are not thread-safe,
+ * which is okay because the methods of a test class are executed sequentially.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+public final class RetainedSize {
+    /**
+     * Name of the system property for enabling the measurement of retained sizes.
+     * This measurement is done only if {@linkplain FactoryProfiler#isEnabled() profiling} is also enabled.
+     */
+    public static final String PROPERTY = "org.iogp.gigs.profile.retained";
+
+    /**
+     * Estimated size of an object header, size of a reference and alignment of objects, in bytes.
+     */
+    private static final int HEADER = 12, ARRAY_HEADER = 16, REFERENCE = 4, ALIGNMENT = 8;
+
+    /**
+     * The layout of each class: shallow size and fields to walk.
+     */
+    private static final ClassValue<Layout> LAYOUTS = new Layouts();
+
+    /**
+     * The measurement in progress in the current thread, or {@code null} if none.
+     * This is set by {@link ExecutionExtension} for the duration of each test method.
+     */
+    private static final ThreadLocal<RetainedSize> CURRENT = new ThreadLocal<>();
+
+    /**
+     * All objects reached so far from any created object, indexed by their identity hash codes.
+     * The references are weak for not keeping alive the objects that the tests have released,
+     * which would inflate the heap being measured. No information is lost when an object is
+     * garbage-collected, since that object can not be reached again by a later walk.
+     */
+    private final Map<Integer, List<Visited>> visited;
+
+    /**
+     * The queue of the references to visited objects which have been garbage-collected.
+     * Used for removing the cleared references from the {@link #visited} map.
+     */
+    private final ReferenceQueue<Object> collected;
+
+    /**
+     * Where to add the statistics. May be shared by many measurements of the same test class.
+     */
+    private final Summary summary;
+
+    /**
+     * Creates a new measurement for an execution of a test class.
+     *
+     * @param  summary  where to add the statistics.
+     */
+    RetainedSize(final Summary summary) {
+        this.summary = summary;
+        visited   = new HashMap<>();
+        collected = new ReferenceQueue<>();
+    }
+
+    /**
+     * Returns whether the measurement of retained sizes is enabled.
+     *
+     * @return whether to measure the retained sizes.
+     */
+    public static boolean isEnabled() {
+        return FactoryProfiler.isEnabled() && Boolean.getBoolean(PROPERTY);
+    }
+
+    /**
+     * Returns the measurement in progress in the current thread.
+     *
+     * @return the measurement in progress, or {@code null} if none.
+     */
+    static RetainedSize current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Sets or clears the measurement in progress in the current thread.
+     *
+     * @param  measurement  the measurement in progress, or {@code null} if none.
+     */
+    static void setCurrent(final RetainedSize measurement) {
+        if (measurement != null) {
+            CURRENT.set(measurement);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Measures the heap retained by the given object and adds it to the statistics.
+     *
+     * @param  code    the authority code of the created object.
+     * @param  object  the object created for the given code.
+     */
+    final void add(final String code, final Object object) {
+        final Set<Object> graph = Collections.newSetFromMap(new IdentityHashMap<>());
+        final var pending = new ArrayDeque<Object>();
+        pending.add(object);
+        long size = 0, distinct = 0;
+        Object current;
+        while ((current = pending.poll()) != null) {
+            if (isExcluded(current) || !graph.add(current)) {
+                continue;
+            }
+            final long s = walk(current, pending);
+            size += s;
+            if (markVisited(current)) {
+                distinct += s;
+            }
+        }
+        summary.add(code, size, distinct);
+    }
+
+    /**
+     * Adds the given object to the set of objects reached from any created object.
+     * This method also removes the references to the visited objects which have been garbage-collected.
+     *
+     * @param  object  the object reached by the walk.
+     * @return whether the object was not reached before.
+     */
+    private boolean markVisited(final Object object) {
+        Reference<?> ref;
+        while ((ref = collected.poll()) != null) {
+            final var cleared = (Visited) ref;
+            visited.computeIfPresent(cleared.hash, (key, refs) -> {
+                refs.remove(cleared);
+                return refs.isEmpty() ? null : refs;
+            });
+        }
+        final int hash = System.identityHashCode(object);
+        final List<Visited> refs = visited.computeIfAbsent(hash, (key) -> new ArrayList<>(1));
+        for (final Visited v : refs) {
+            if (v.get() == object) {
+                return false;
+            }
+        }
+        refs.add(new Visited(object, hash, collected));
+        return true;
+    }
+
+    /**
+     * A weak reference to an object reached by the walk, together with its identity hash code.
+     * The hash code is needed for finding the entry to remove after the object has been collected.
+     */
+    private static final class Visited extends WeakReference<Object> {
+        /** The identity hash code of the referenced object. */
+        final int hash;
+
+        /**
+         * Creates a new reference to a visited object.
+         *
+         * @param  object  the visited object.
+         * @param  hash    the identity hash code of the visited object.
+         * @param  queue   where to enqueue this reference after the object has been collected.
+         */
+        Visited(final Object object, final int hash, final ReferenceQueue<Object> queue) {
+            super(object, queue);
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Returns whether the walk shall not enter in the given object.
+     *
+     * @param  object  the object to test.
+     * @return whether the object is not retained by the created objects.
+     */
+    private static boolean isExcluded(final Object object) {
+        return (object instanceof Class<?>) || (object instanceof ClassLoader) || (object instanceof Module)
+                || (object instanceof Thread) || (object instanceof Factory) || (object instanceof Enum<?>)
+                || (object instanceof CodeList<?>);
+    }
+
+    /**
+     * Estimates the shallow size of the given object and adds the objects that it references to the given queue.
+     *
+     * @param  object   the object to walk.
+     * @param  pending  where to add the referenced objects.
+     * @return estimated shallow size of the given object in bytes.
+     */
+    private static long walk(final Object object, final ArrayDeque<Object> pending) {
+        final Class<?> type = object.getClass();
+        if (type.isArray()) {
+            final int length = Array.getLength(object);
+            final Class<?> component = type.getComponentType();
+            if (!component.isPrimitive()) {
+                for (final Object element : (Object[]) object) {
+                    if (element != null) pending.add(element);
+                }
+            }
+            return align(ARRAY_HEADER + (long) length * sizeOf(component));
+        }
+        final Layout layout = LAYOUTS.get(type);
+        if (object instanceof String) {
+            return layout.size + align(ARRAY_HEADER + ((String) object).length());
+        }
+        for (final Field field : layout.references) {
+            try {
+                final Object value = field.get(object);
+                if (value != null) pending.add(value);
+            } catch (IllegalAccessException e) {
+                // Should not happen since we checked accessibility.
+            }
+        }
+        if (!layout.isAccessible && !(object instanceof Reference<?>)) {
+            if (object instanceof Collection<?>) {
+                for (final Object element : (Collection<?>) object) {
+                    if (element != null) pending.add(element);
+                }
+            } else if (object instanceof Map<?,?>) {
+                for (final Map.Entry<?,?> entry : ((Map<?,?>) object).entrySet()) {
+                    if (entry.getKey()   != null) pending.add(entry.getKey());
+                    if (entry.getValue() != null) pending.add(entry.getValue());
+                }
+            }
+        }
+        return layout.size;
+    }
+
+    /**
+     * Returns the size in bytes of a field or array element of the given type.
+     *
+     * @param  type  the field or element type.
+     * @return size in bytes.
+     */
+    private static int sizeOf(final Class<?> type) {
+        if (type == long.class || type == double.class) return 8;
+        if (type == int.class  || type == float.class)  return 4;
+        if (type == short.class || type == char.class)  return 2;
+        if (type == byte.class || type == boolean.class) return 1;
+        return REFERENCE;
+    }
+
+    /**
+     * Rounds the given size to the alignment of objects.
+     *
+     * @param  size  the size in bytes.
+     * @return the aligned size in bytes.
+     */
+    private static long align(final long size) {
+        return (size + (ALIGNMENT - 1)) & ~(ALIGNMENT - 1);
+    }
+
+    /**
+     * The cache of the {@link Layout} of each class.
+     */
+    private static final class Layouts extends ClassValue<Layout> {
+        /**
+         * Creates an initially empty cache.
+         */
+        Layouts() {
+        }
+
+        /**
+         * Computes the layout of the given class.
+         *
+         * @param  type  the class for which to compute the layout.
+         * @return layout of the given class.
+         */
+        @Override
+        protected Layout computeValue(final Class<?> type) {
+            return new Layout(type);
+        }
+    }
+
+    /**
+     * The shallow size and reference fields of a class.
+     */
+    private static final class Layout {
+        /** Estimated shallow size of instances, in bytes. */
+        final long size;
+
+        /** The non-static reference fields which can be read. */
+        final Field[] references;
+
+        /** Whether all reference fields can be read. */
+        final boolean isAccessible;
+
+        /**
+         * Computes the layout of the given class.
+         *
+         * @param  type  the class for which to compute the layout.
+         */
+        Layout(final Class<?> type) {
+            long s = HEADER;
+            boolean accessible = true;
+            final List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (final Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) continue;
+                    final Class<?> ft = field.getType();
+                    s += sizeOf(ft);
+                    if (!ft.isPrimitive()) {
+                        if (!(c == Reference.class) && field.trySetAccessible()) {
+                            fields.add(field);
+                        } else {
+                            accessible = false;
+                        }
+                    }
+                }
+            }
+            size = align(s);
+            references = fields.toArray(Field[]::new);
+            isAccessible = accessible;
+        }
+    }
+
+    /**
+     * Statistics about the heap retained by the objects created during the executions of a test class.
+     * Instances of this class are thread-safe.
+     */
+    public static final class Summary {
+        /** Fully qualified name of the test class. */
+        private final String testClass;
+
+        /** Number of created objects. */
+        private int count;
+
+        /** Sum of the retained sizes of each created object measured separately, in bytes. */
+        private long sum;
+
+        /** Total size of the distinct objects reachable from all created objects, in bytes. */
+        private long distinct;
+
+        /** Largest retained size of a single created object, in bytes. */
+        private long max;
+
+        /** Authority code of the object having the largest retained size. */
+        private String maxCode;
+
+        /**
+         * Creates empty statistics for the given test class.
+         *
+         * @param  testClass  fully qualified name of the test class.
+         */
+        Summary(final String testClass) {
+            this.testClass = testClass;
+        }
+
+        /**
+         * Adds the measurement of a created object.
+         *
+         * @param  code      authority code of the created object.
+         * @param  size      retained size of the object measured alone.
+         * @param  distinct  size of the part of the object graph which was not reached before.
+         */
+        final synchronized void add(final String code, final long size, final long distinct) {
+            count++;
+            sum += size;
+            this.distinct += distinct;
+            if (size > max) {
+                max = size;
+                maxCode = code;
+            }
+        }
+
+        /**
+         * Returns the fully qualified name of the test class.
+         *
+         * @return name of the test class.
+         */
+        public String testClass() {
+            return testClass;
+        }
+
+        /**
+         * Returns the number of created objects.
+         *
+         * @return number of measured objects.
+         */
+        public synchronized int count() {
+            return count;
+        }
+
+        /**
+         * Returns the sum of the retained sizes of each created object measured separately.
+         * Components shared by many objects are counted once per object.
+         *
+         * @return sum of individual retained sizes, in bytes.
+         */
+        public synchronized long sum() {
+            return sum;
+        }
+
+        /**
+         * Returns the total size of the distinct objects reachable from all created objects.
+         * This is less than {@link #sum()} if the implementation shares some components.
+         * If the methods of the test class have been executed in many batches, the objects
+         * shared between batches are counted once per batch.
+         *
+         * @return size of the union of all object graphs, in bytes.
+         */
+        public synchronized long distinct() {
+            return distinct;
+        }
+
+        /**
+         * Returns the largest retained size of a single created object.
+         *
+         * @return largest individual retained size, in bytes.
+         */
+        public synchronized long max() {
+            return max;
+        }
+
+        /**
+         * Returns the authority code of the object having the largest retained size.
+         *
+         * @return code of the largest object, or {@code null} if none.
+         */
+        public synchronized String maxCode() {
+            return maxCode;
+        }
+    }
+}
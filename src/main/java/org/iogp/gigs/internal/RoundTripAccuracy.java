@@ -0,0 +1,240 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.internal;
+
+import java.util.Arrays;
+
+
+/**
+ * Residuals of round-trip transformations (forward then inverse) for an operation method.
+ * The residual of a point is the distance between the original and the round-tripped coordinates,
+ * in metres approximated on a sphere. This object accumulates the number of points, the maximal
+ * and the root mean square residuals, and a heat map of the maximal residual in each cell of
+ * {@value #CELL_SIZE}° in a world-wide grid.
+ *
+ * <p>The tests accumulate the residuals of each chunk of points in a separated instance,
+ * which is not thread-safe, then {@linkplain #merge merge} the chunks together.
+ * Only the {@code merge} and getter methods are thread-safe.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+public final class RoundTripAccuracy {
+    /**
+     * Size in degrees of the cells of the heat map.
+     */
+    public static final int CELL_SIZE = 5;
+
+    /**
+     * Number of columns (longitudes) and rows (latitudes) of the heat map.
+     */
+    public static final int COLUMNS = 360 / CELL_SIZE, ROWS = 180 / CELL_SIZE;
+
+    /**
+     * Name of the operation method, for example {@code "Transverse Mercator"}.
+     */
+    public final String method;
+
+    /**
+     * Number of points having a residual.
+     */
+    private long count;
+
+    /**
+     * Number of points which could not be transformed, either because of an exception or a NaN result.
+     */
+    private long untransformed;
+
+    /**
+     * Sum of the squares of the residuals, in square metres.
+     */
+    private double sumOfSquares;
+
+    /**
+     * Maximal residual in metres, or 0 if none.
+     */
+    private double max;
+
+    /**
+     * Longitude and latitude in degrees of the point having the maximal residual.
+     */
+    private double maxLongitude, maxLatitude;
+
+    /**
+     * Maximal residual in each cell of the heat map, in metres. Rows are from north to south,
+     * and columns from west to east. Cells without point have the {@link Double#NaN} value.
+     */
+    private final double[] cells;
+
+    /**
+     * Creates an initially empty accumulator for the given operation method.
+     *
+     * @param  method  name of the operation method.
+     */
+    public RoundTripAccuracy(final String method) {
+        this.method = method;
+        cells = new double[ROWS * COLUMNS];
+        Arrays.fill(cells, Double.NaN);
+    }
+
+    /**
+     * Adds the residual of a point. This method is not thread-safe.
+     *
+     * @param  longitude  longitude of the point in degrees.
+     * @param  latitude   latitude of the point in degrees.
+     * @param  residual   distance between the original and round-tripped point, in metres.
+     */
+    public void add(final double longitude, final double latitude, final double residual) {
+        count++;
+        sumOfSquares += residual * residual;
+        if (residual > max) {
+            max = residual;
+            maxLongitude = longitude;
+            maxLatitude  = latitude;
+        }
+        final int cell = cell(longitude, latitude);
+        if (!(cells[cell] >= residual)) {               // Use `!` for replacing NaN.
+            cells[cell] = residual;
+        }
+    }
+
+    /**
+     * Adds the given number of points which could not be transformed. This method is not thread-safe.
+     *
+     * @param  n  number of points which could not be transformed.
+     */
+    public void addUntransformed(final long n) {
+        untransformed += n;
+    }
+
+    /**
+     * Returns the index of the heat map cell which contains the given point.
+     *
+     * @param  longitude  longitude in degrees, not necessarily in the [-180 … 180]° range.
+     * @param  latitude   latitude in degrees.
+     * @return index in the {@link #cells} array.
+     */
+    private static int cell(double longitude, final double latitude) {
+        longitude -= 360 * Math.floor((longitude + 180) / 360);
+        final int column = Math.min(Math.max((int) Math.floor((longitude + 180) / CELL_SIZE), 0), COLUMNS - 1);
+        final int row    = Math.min(Math.max((int) Math.floor((90 - latitude)   / CELL_SIZE), 0), ROWS    - 1);
+        return row * COLUMNS + column;
+    }
+
+    /**
+     * Adds all residuals of the given accumulator to this accumulator.
+     * The given accumulator shall not be modified concurrently.
+     *
+     * @param  other  the residuals to add.
+     */
+    public synchronized void merge(final RoundTripAccuracy other) {
+        count         += other.count;
+        untransformed += other.untransformed;
+        sumOfSquares  += other.sumOfSquares;
+        if (other.max > max) {
+            max          = other.max;
+            maxLongitude = other.maxLongitude;
+            maxLatitude  = other.maxLatitude;
+        }
+        for (int i=0; i<cells.length; i++) {
+            final double value = other.cells[i];
+            if (!(cells[i] >= value)) {
+                if (!Double.isNaN(value)) {
+                    cells[i] = value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of points having a residual.
+     *
+     * @return number of points.
+     */
+    public synchronized long points() {
+        return count;
+    }
+
+    /**
+     * Returns the number of points which could not be transformed.
+     *
+     * @return number of untransformed points.
+     */
+    public synchronized long untransformed() {
+        return untransformed;
+    }
+
+    /**
+     * Returns the maximal residual.
+     *
+     * @return maximal residual in metres, or 0 if none.
+     */
+    public synchronized double max() {
+        return max;
+    }
+
+    /**
+     * Returns the longitude of the point having the maximal residual.
+     *
+     * @return longitude in degrees.
+     */
+    public synchronized double maxLongitude() {
+        return maxLongitude;
+    }
+
+    /**
+     * Returns the latitude of the point having the maximal residual.
+     *
+     * @return latitude in degrees.
+     */
+    public synchronized double maxLatitude() {
+        return maxLatitude;
+    }
+
+    /**
+     * Returns the root mean square of the residuals.
+     *
+     * @return root mean square in metres, or NaN if none.
+     */
+    public synchronized double rms() {
+        return Math.sqrt(sumOfSquares / count);
+    }
+
+    /**
+     * Returns a copy of the heat map. Rows are from north to south, and columns from west to east.
+     * Each value is the maximal residual in metres of the points in a cell of {@value #CELL_SIZE}°,
+     * or {@link Double#NaN} if the cell contains no point.
+     *
+     * @return the maximal residuals in an array of {@link #ROWS} × {@link #COLUMNS} cells.
+     */
+    public synchronized double[][] heatMap() {
+        final double[][] map = new double[ROWS][];
+        for (int i=0; i<ROWS; i++) {
+            map[i] = Arrays.copyOfRange(cells, i * COLUMNS, (i+1) * COLUMNS);
+        }
+        return map;
+    }
+}
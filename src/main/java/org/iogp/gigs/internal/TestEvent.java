@@ -0,0 +1,82 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Java Flight Recorder event emitted for each execution of a test method.
+ * The event duration is the execution time of the test, including the {@code @BeforeEach} and
+ * {@code @AfterEach} methods. It can be correlated in JDK Mission Control with other events
+ * happening in the same thread, such as allocations, lock contention or I/O in the implementation.
+ * This event is committed by {@link ExecutionExtension}. The stack trace is not recorded
+ * because it would always be the same JUnit callback.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+@Name("org.iogp.gigs.Test")
+@Label("GIGS Test")
+@Category("GIGS")
+@Description("Execution of a GIGS test method.")
+@StackTrace(false)
+final class TestEvent extends Event {
+    /**
+     * Fully qualified name of the class of the test.
+     */
+    @Label("Test Class")
+    String testClass;
+
+    /**
+     * Name of the test method.
+     */
+    @Label("Test Method")
+    String testMethod;
+
+    /**
+     * Whether the test was successful, aborted or failed.
+     */
+    @Label("Status")
+    String status;
+
+    /**
+     * Configuration key for disabling the optional aspect which caused a test failure, or {@code null} if none.
+     */
+    @Label("Configuration Tip")
+    String configurationTip;
+
+    /**
+     * Creates a new event.
+     */
+    TestEvent() {
+    }
+}
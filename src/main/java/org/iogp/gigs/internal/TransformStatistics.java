@@ -0,0 +1,235 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.internal;
+
+import java.util.Map;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Throughput of the coordinate operations executed by the tests.
+ * Tests which transform large arrays of coordinates record the number of points and the time spent
+ * for each stage (for example transformation from {@code double[]} to {@code float[]}) and each
+ * operation method (for example "Transverse Mercator"). The statistics are summarized after the
+ * tests, in number of points per second. Tests which transform points forward and backward record
+ * also the {@linkplain RoundTripAccuracy round-trip residuals} for each operation method.
+ *
+ * <p>There is one instance per module layer, cached together with the factories of that layer.
+ * Instances of this class are thread-safe.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+public final class TransformStatistics {
+    /**
+     * The statistics recorded when the tests are executed outside the GIGS runner, for example
+     * directly by JUnit in the build of an implementation. Those statistics are never reported.
+     */
+    static final TransformStatistics DETACHED = new TransformStatistics();
+
+    /**
+     * Statistics for each stage and operation method, indexed by {@link Entry#key(String, String)}.
+     */
+    private final Map<String,Entry> entries;
+
+    /**
+     * Residuals of round-trip transformations for each operation method.
+     */
+    private final Map<String,RoundTripAccuracy> accuracies;
+
+    /**
+     * Creates new statistics with no entry.
+     */
+    TransformStatistics() {
+        entries    = new ConcurrentHashMap<>();
+        accuracies = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the statistics of the tests executed in the current thread.
+     *
+     * @return statistics where to record the throughput of coordinate operations (never {@code null}).
+     */
+    public static TransformStatistics current() {
+        final ModuleLayer layer = ExecutionContext.current().layer();
+        if (layer != null) {
+            final LayerResources resources = LayerResources.cached(layer);
+            if (resources != null) {
+                return resources.statistics;
+            }
+        }
+        return DETACHED;
+    }
+
+    /**
+     * Returns the statistics of the given module layer.
+     *
+     * @param  layer  module layer of the implementation to test.
+     * @return statistics of the tests executed on the given layer, or {@code null} if no test has been executed.
+     */
+    public static TransformStatistics forLayer(final ModuleLayer layer) {
+        final LayerResources resources = LayerResources.cached(layer);
+        return (resources != null) ? resources.statistics : null;
+    }
+
+    /**
+     * Records the time spent for transforming the given number of points.
+     *
+     * @param  stage   the kind of operation which has been measured, for example {@code "double[] to double[]"}.
+     * @param  method  name of the operation method, for example {@code "Transverse Mercator"}.
+     * @param  points  number of points which have been transformed.
+     * @param  time    time spent for transforming the points, in nanoseconds.
+     */
+    public void record(final String stage, final String method, final long points, final long time) {
+        final String key = Entry.key(stage, method);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(key, (k) -> new Entry(stage, method));
+        }
+        entry.points.add(points);
+        entry.time.add(time);
+    }
+
+    /**
+     * Returns a snapshot of the statistics of all stages and operation methods, sorted by stage and method.
+     *
+     * @return the statistics recorded so far.
+     */
+    public List<Entry> entries() {
+        final List<Entry> list = new ArrayList<>(entries.values());
+        list.sort((e1, e2) -> e1.toString().compareTo(e2.toString()));
+        return list;
+    }
+
+    /**
+     * Adds the residuals of round-trip transformations of the given operation method.
+     *
+     * @param  residuals  the residuals to add.
+     */
+    public void record(final RoundTripAccuracy residuals) {
+        accuracies.computeIfAbsent(residuals.method, RoundTripAccuracy::new).merge(residuals);
+    }
+
+    /**
+     * Returns the residuals of round-trip transformations of all operation methods, sorted by method.
+     *
+     * @return the residuals recorded so far.
+     */
+    public List<RoundTripAccuracy> accuracies() {
+        final List<RoundTripAccuracy> list = new ArrayList<>(accuracies.values());
+        list.sort((e1, e2) -> e1.method.compareTo(e2.method));
+        return list;
+    }
+
+    /**
+     * Number of transformed points and time spent for a stage and an operation method.
+     */
+    public static final class Entry {
+        /**
+         * The kind of operation which has been measured, for example {@code "double[] to double[]"}.
+         */
+        public final String stage;
+
+        /**
+         * Name of the operation method, for example {@code "Transverse Mercator"}.
+         */
+        public final String method;
+
+        /**
+         * Total number of transformed points.
+         */
+        private final LongAdder points;
+
+        /**
+         * Total time spent for transforming the points, in nanoseconds.
+         */
+        private final LongAdder time;
+
+        /**
+         * Creates new statistics for the given stage and method.
+         *
+         * @param  stage   the kind of operation which has been measured.
+         * @param  method  name of the operation method.
+         */
+        Entry(final String stage, final String method) {
+            this.stage  = stage;
+            this.method = method;
+            points = new LongAdder();
+            time   = new LongAdder();
+        }
+
+        /**
+         * Returns the total number of transformed points.
+         *
+         * @return number of points.
+         */
+        public long points() {
+            return points.sum();
+        }
+
+        /**
+         * Returns the total time spent for transforming the points.
+         *
+         * @return time in nanoseconds.
+         */
+        public long time() {
+            return time.sum();
+        }
+
+        /**
+         * Returns the number of points transformed per second.
+         *
+         * @return the throughput, or {@link Double#NaN} if no time has been recorded.
+         */
+        public double pointsPerSecond() {
+            final long t = time();
+            return (t > 0) ? points() * 1E9 / t : Double.NaN;
+        }
+
+        /**
+         * Returns the key of the statistics for the given stage and method.
+         *
+         * @param  stage   the kind of operation which has been measured.
+         * @param  method  name of the operation method.
+         * @return key in the map of entries.
+         */
+        static String key(final String stage, final String method) {
+            return stage + ": " + method;
+        }
+
+        /**
+         * Returns a string representation of this entry, for example
+         * {@code "double[] to double[]: Transverse Mercator"}.
+         */
+        @Override
+        public String toString() {
+            return key(stage, method);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.List;
+import java.io.IOException;
+import java.io.BufferedWriter;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.iogp.gigs.internal.RoundTripAccuracy;
+import org.iogp.gigs.internal.TransformStatistics;
+
+
+/**
+ * Residuals of round-trip transformations (forward then inverse) for each operation method.
+ * The maximal and root mean square residuals are written on the console after the tests.
+ * The heat maps of the residuals can also be written in a file, in JSON Lines format.
+ * Each line is an operation method with the statistics written on the console, and a
+ * {@code heatMap} array of {@value RoundTripAccuracy#ROWS} rows (from north to south)
+ * of {@value RoundTripAccuracy#COLUMNS} columns (from west to east). Each value is the
+ * maximal residual in metres in a cell of {@value RoundTripAccuracy#CELL_SIZE}°,
+ * or {@code null} if the cell contains no point.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class AccuracyReport {
+    /**
+     * Do not allow instantiation of this class.
+     */
+    private AccuracyReport() {
+    }
+
+    /**
+     * Writes the maximal and root mean square residuals of each operation method.
+     * If no round trip has been tested, then this method writes nothing.
+     *
+     * @param  out         where to write the residuals.
+     * @param  name        name of the tested implementation, or {@code null} if only one implementation is tested.
+     * @param  statistics  the statistics of the tested implementation, or {@code null} if none.
+     */
+    static void print(final PrintWriter out, final String name, final TransformStatistics statistics) {
+        if (statistics == null) {
+            return;
+        }
+        final List<RoundTripAccuracy> accuracies = statistics.accuracies();
+        if (accuracies.isEmpty()) {
+            return;
+        }
+        out.println();
+        if (name != null) {
+            out.println(name + ':');
+        }
+        out.printf("%-40s %12s %14s %12s %12s%n", "Round trip of", "Points", "Untransformed", "Max (m)", "RMS (m)");
+        for (final RoundTripAccuracy accuracy : accuracies) {
+            out.printf("%-40s %12d %14d %12.3g %12.3g%n", accuracy.method, accuracy.points(),
+                       accuracy.untransformed(), accuracy.max(), accuracy.rms());
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the residuals and heat maps of the given statistics in the given file.
+     *
+     * @param  file        the file where to write the heat maps.
+     * @param  names       name of each tested implementation, or {@code null} if only one implementation is tested.
+     * @param  statistics  the statistics of each tested implementation. Null elements are ignored.
+     * @throws IOException if an error occurred while writing the file.
+     */
+    static void write(final Path file, final List<String> names, final List<TransformStatistics> statistics)
+            throws IOException
+    {
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            for (int i=0; i<statistics.size(); i++) {
+                final TransformStatistics s = statistics.get(i);
+                if (s == null) continue;
+                for (final RoundTripAccuracy accuracy : s.accuracies()) {
+                    out.write(toJSON((names != null) ? names.get(i) : null, accuracy));
+                    out.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * Formats the residuals of an operation method as a single line of JSON.
+     *
+     * @param  implementation  name of the tested implementation, or {@code null}.
+     * @param  accuracy        the residuals to format.
+     * @return the residuals as a JSON object without line separator.
+     */
+    private static String toJSON(final String implementation, final RoundTripAccuracy accuracy) {
+        final var buffer = new StringBuilder(8000).append('{');
+        if (implementation != null) {
+            ResultRecord.append(buffer, "implementation", implementation).append(',');
+        }
+        ResultRecord.append(buffer, "method", accuracy.method).append(',');
+        ResultRecord.quote(buffer, "points")       .append(':').append(accuracy.points()).append(',');
+        ResultRecord.quote(buffer, "untransformed").append(':').append(accuracy.untransformed()).append(',');
+        ResultRecord.quote(buffer, "max")          .append(':').append(number(accuracy.max())).append(',');
+        ResultRecord.quote(buffer, "rms")          .append(':').append(number(accuracy.rms())).append(',');
+        ResultRecord.quote(buffer, "maxLongitude") .append(':').append(number(accuracy.maxLongitude())).append(',');
+        ResultRecord.quote(buffer, "maxLatitude")  .append(':').append(number(accuracy.maxLatitude())).append(',');
+        ResultRecord.quote(buffer, "cellSize")     .append(':').append(RoundTripAccuracy.CELL_SIZE).append(',');
+        ResultRecord.quote(buffer, "heatMap")      .append(":[");
+        String separator = "";
+        for (final double[] row : accuracy.heatMap()) {
+            buffer.append(separator).append('[');
+            for (int j=0; j<row.length; j++) {
+                if (j != 0) buffer.append(',');
+                buffer.append(number(row[j]));
+            }
+            buffer.append(']');
+            separator = ",";
+        }
+        return buffer.append("]}").toString();
+    }
+
+    /**
+     * Formats the given value as a JSON number, or {@code null} if the value is not finite.
+     *
+     * @param  value  the value to format.
+     * @return the JSON representation of the given value.
+     */
+    private static String number(final double value) {
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+}
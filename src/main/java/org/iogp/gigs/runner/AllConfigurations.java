@@ -54,10 +54,19 @@ import org.iogp.gigs.internal.PrivateAccessor;
  * @since   1.0
  */
 final class AllConfigurations implements ActionListener, Comparator<Object> {
+    /**
+     * The table showing the configuration of the test currently shown in the "details" pane.
+     * Used for determining the implementation for which to show the configurations.
+     */
+    private final ConfigurationTableModel table;
+
     /**
      * Creates a new action.
+     *
+     * @param  table  the table showing the configuration of the test currently shown.
      */
-    AllConfigurations() {
+    AllConfigurations(final ConfigurationTableModel table) {
+        this.table = table;
     }
 
     /**
@@ -90,7 +99,7 @@ final class AllConfigurations implements ActionListener, Comparator<Object> {
             .append(lineSeparator);
 
         final var properties = new TreeMap<>(this);
-        properties.putAll(PrivateAccessor.INSTANCE.getTestConfigurations());
+        properties.putAll(PrivateAccessor.INSTANCE.getTestConfigurations(table.layer));
         for (final Map.Entry<Object,Object> entry : properties.entrySet()) {
             text.append(entry.getKey()).append('=').append(entry.getValue()).append(lineSeparator);
         }
@@ -0,0 +1,162 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.io.PrintWriter;
+import org.iogp.gigs.internal.FactoryProfiler;
+
+
+/**
+ * Memory allocated by the creation of objects from authority codes, aggregated by type of object.
+ * For each authority code, the allocation is the maximal number of bytes allocated by a single
+ * {@code createFoo(code)} call, which is usually the first call before the implementation caches
+ * the object. A code is flagged as an outlier if its allocation is more than {@value #OUTLIER_FACTOR}
+ * times the median allocation of the codes for objects of the same type.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class AllocationReport {
+    /**
+     * Ratio between the allocation of a code and the median allocation of its type above which
+     * the code is considered an outlier.
+     */
+    static final int OUTLIER_FACTOR = 10;
+
+    /**
+     * Minimal number of codes of the same type for computing a meaningful median.
+     * Outliers are not searched in types having less codes.
+     */
+    private static final int MIN_SAMPLES = 5;
+
+    /**
+     * Statistics for each type of object, sorted by type name.
+     */
+    private final Map<String,Statistics> types;
+
+    /**
+     * The statistics of authority codes flagged as outliers.
+     */
+    private final Set<FactoryProfiler.Entry> outliers;
+
+    /**
+     * Allocations of the codes for objects of the same type.
+     */
+    private static final class Statistics {
+        /** Number of authority codes. */
+        int count;
+
+        /** Median of the allocations in bytes. */
+        long median;
+
+        /** Maximal allocation in bytes. */
+        long max;
+
+        /** Codes for which the allocation is more than {@value #OUTLIER_FACTOR} times the median. */
+        final List<FactoryProfiler.Entry> outliers = new ArrayList<>();
+
+        /**
+         * Creates initially empty statistics, to be filled by the {@link AllocationReport} constructor.
+         */
+        Statistics() {
+        }
+    }
+
+    /**
+     * Computes the allocation statistics from the given profiling results.
+     * Only the statistics of authority codes are used.
+     *
+     * @param  entries  the statistics of all factory methods and authority codes.
+     */
+    AllocationReport(final List<FactoryProfiler.Entry> entries) {
+        types    = new TreeMap<>();
+        outliers = new HashSet<>();
+        final Map<String, List<FactoryProfiler.Entry>> byType = new TreeMap<>();
+        for (final FactoryProfiler.Entry entry : entries) {
+            if (entry.code != null && entry.maxAllocated() > 0) {
+                byType.computeIfAbsent(entry.objectType(), (k) -> new ArrayList<>()).add(entry);
+            }
+        }
+        for (final Map.Entry<String, List<FactoryProfiler.Entry>> e : byType.entrySet()) {
+            final List<FactoryProfiler.Entry> codes = e.getValue();
+            codes.sort(Comparator.comparingLong(FactoryProfiler.Entry::maxAllocated));
+            final var s = new Statistics();
+            s.count  = codes.size();
+            s.median = codes.get(s.count / 2).maxAllocated();
+            s.max    = codes.get(s.count - 1).maxAllocated();
+            if (s.count >= MIN_SAMPLES) {
+                for (int i = s.count; --i >= 0;) {
+                    final FactoryProfiler.Entry code = codes.get(i);
+                    if (code.maxAllocated() <= s.median * OUTLIER_FACTOR) break;
+                    s.outliers.add(code);
+                }
+            }
+            outliers.addAll(s.outliers);
+            types.put(e.getKey(), s);
+        }
+    }
+
+    /**
+     * Returns whether the given authority code allocated unusually much memory compared to other codes of the same type.
+     *
+     * @param  entry  statistics of an authority code.
+     * @return whether the given code is an outlier.
+     */
+    final boolean isOutlier(final FactoryProfiler.Entry entry) {
+        return outliers.contains(entry);
+    }
+
+    /**
+     * Writes the allocation statistics for each type of object, followed by the outliers.
+     *
+     * @param  out  where to write the statistics.
+     */
+    final void print(final PrintWriter out) {
+        if (types.isEmpty()) {
+            return;
+        }
+        out.println();
+        out.printf("%-44s %10s %12s %12s%n", "Memory allocated per object", "Codes", "Median (kB)", "Max (kB)");
+        for (final Map.Entry<String,Statistics> e : types.entrySet()) {
+            final Statistics s = e.getValue();
+            out.printf("%-44s %10d %12.1f %12.1f%n", e.getKey(), s.count, s.median / 1E3, s.max / 1E3);
+        }
+        for (final Map.Entry<String,Statistics> e : types.entrySet()) {
+            for (final FactoryProfiler.Entry code : e.getValue().outliers) {
+                out.printf("OUTLIER: %s allocated %.1f kB (%.0f times the median of %s)%n", code,
+                           code.maxAllocated() / 1E3, code.maxAllocated() / (double) e.getValue().median, e.getKey());
+            }
+        }
+        out.flush();
+    }
+}
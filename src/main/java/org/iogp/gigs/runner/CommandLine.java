@@ -0,0 +1,611 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.Map;
+import java.util.List;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.function.Consumer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.lang.module.ModuleFinder;
+import org.iogp.gigs.internal.TestSuite;
+import org.iogp.gigs.internal.ExecutionContext;
+import org.iogp.gigs.internal.FactoryProfiler;
+import org.iogp.gigs.internal.RetainedSize;
+import org.iogp.gigs.internal.TransformStatistics;
+
+
+/**
+ * Execution of GIGS tests from the command line, without graphical user interface.
+ * The options are documented in {@link Launcher}.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class CommandLine {
+    /**
+     * Summary of the command-line syntax.
+     */
+    static final String USAGE =
+            "Usage: java -jar gigs.jar --impl <jar files> [--impl <jar files>]... [--threads <count>]" + System.lineSeparator() +
+            "                          [--fork <count>] [--timeout <seconds>] [--cache <directory>]" + System.lineSeparator() +
+            "                          [--shard <i/N>] [--durations <files>] [--results <file>]"     + System.lineSeparator() +
+            "                          [--profile <file> [--retained]] [--accuracy <file>]"           + System.lineSeparator() +
+            "       java -jar gigs.jar --merge <files> [--results <file>]";
+
+    /**
+     * The JAR files of each implementation to test.
+     */
+    private final List<List<Path>> implementations;
+
+    /**
+     * Number of worker threads.
+     */
+    private int threads;
+
+    /**
+     * Number of child JVMs where to execute the tests, or 0 for executing the tests in this JVM.
+     */
+    private int forks;
+
+    /**
+     * Maximal time in seconds to wait for a test result from a child JVM before to restart it.
+     */
+    private int timeout;
+
+    /**
+     * Whether this process is a child JVM receiving the tests to execute from a parent process.
+     */
+    private boolean worker;
+
+    /**
+     * The shard specification in {@code i/N} form, or {@code null} for executing all tests.
+     */
+    private String shard;
+
+    /**
+     * Result files of a previous run, used for balancing the shards.
+     */
+    private final List<Path> durations;
+
+    /**
+     * Result files to merge instead of executing tests.
+     */
+    private final List<Path> merge;
+
+    /**
+     * The directory where to cache the results between runs, or {@code null} if none.
+     */
+    private Path cache;
+
+    /**
+     * The file where to write results, or {@code null} if none.
+     */
+    private Path results;
+
+    /**
+     * The file where to write the latency histograms of factory calls, or {@code null} if none.
+     */
+    private Path profile;
+
+    /**
+     * Whether to measure the retained size of the objects created by the factories.
+     */
+    private boolean retained;
+
+    /**
+     * The file where to write the heat maps of round-trip residuals, or {@code null} if none.
+     */
+    private Path accuracy;
+
+    /**
+     * Parses the given command-line arguments.
+     *
+     * @param  arguments  the command-line arguments.
+     * @throws IllegalArgumentException if the command-line arguments are invalid.
+     */
+    CommandLine(final String[] arguments) {
+        implementations = new ArrayList<>();
+        durations = new ArrayList<>();
+        merge     = new ArrayList<>();
+        threads   = Runtime.getRuntime().availableProcessors();
+        timeout   = 600;
+        for (int i=0; i<arguments.length; i++) {
+            final String arg = arguments[i];
+            switch (arg) {
+                case "--impl": {
+                    final List<Path> files = new ArrayList<>();
+                    i = files(arguments, i, files);
+                    implementations.add(files);
+                    break;
+                }
+                case "--durations": i = files(arguments, i, durations); break;
+                case "--merge":     i = files(arguments, i, merge);     break;
+                case "--results":   results = Path.of(value(arguments, ++i, arg)); break;
+                case "--cache":     cache   = Path.of(value(arguments, ++i, arg)); break;
+                case "--profile":   profile = Path.of(value(arguments, ++i, arg)); break;
+                case "--accuracy":  accuracy = Path.of(value(arguments, ++i, arg)); break;
+                case "--shard":     shard   = value(arguments, ++i, arg); break;
+                case "--threads": threads = count(arguments, ++i, arg); break;
+                case "--fork":    forks   = count(arguments, ++i, arg); break;
+                case "--timeout": timeout = count(arguments, ++i, arg); break;
+                case "--worker":  worker  = true; break;
+                case "--retained": retained = true; break;
+                default: throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (merge.isEmpty() == implementations.isEmpty()) {
+            throw new IllegalArgumentException(merge.isEmpty()
+                    ? "No implementation JAR file specified."
+                    : "The --merge option can not be used together with --impl.");
+        }
+        if (implementations.size() > 1 && (shard != null || results != null)) {
+            throw new IllegalArgumentException("The --shard and --results options require a single implementation.");
+        }
+        if (implementations.size() > 1 && (forks != 0 || worker)) {
+            throw new IllegalArgumentException("The --fork option requires a single implementation.");
+        }
+        if (profile != null && (forks != 0 || worker)) {
+            throw new IllegalArgumentException("The --profile option can not be used together with --fork.");
+        }
+        if (retained && profile == null) {
+            throw new IllegalArgumentException("The --retained option requires the --profile option.");
+        }
+        if (accuracy != null && (forks != 0 || worker)) {
+            throw new IllegalArgumentException("The --accuracy option can not be used together with --fork.");
+        }
+    }
+
+    /**
+     * Returns the value of an option.
+     *
+     * @param  arguments  the command-line arguments.
+     * @param  i          index of the value.
+     * @param  option     name of the option, for error message.
+     * @return the option value.
+     */
+    private static String value(final String[] arguments, final int i, final String option) {
+        if (i >= arguments.length) {
+            throw new IllegalArgumentException("Missing value for the " + option + " option.");
+        }
+        return arguments[i];
+    }
+
+    /**
+     * Returns the value of an option which shall be a strictly positive integer.
+     *
+     * @param  arguments  the command-line arguments.
+     * @param  i          index of the value.
+     * @param  option     name of the option, for error message.
+     * @return the option value.
+     */
+    private static int count(final String[] arguments, final int i, final String option) {
+        final String value = value(arguments, i, option);
+        final int n;
+        try {
+            n = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Illegal value for the " + option + " option: " + value);
+        }
+        if (n < 1) {
+            throw new IllegalArgumentException("Illegal value for the " + option + " option: " + n);
+        }
+        return n;
+    }
+
+    /**
+     * Adds all files following the option at index {@code i}, until the next option.
+     *
+     * @param  arguments  the command-line arguments.
+     * @param  i          index of the option.
+     * @param  files      where to add the files.
+     * @return index of the last file.
+     */
+    private static int files(final String[] arguments, int i, final List<Path> files) {
+        final String option = arguments[i];
+        while (i+1 < arguments.length && !arguments[i+1].startsWith("--")) {
+            files.add(Path.of(arguments[++i]));
+        }
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("No file specified after " + option + '.');
+        }
+        return i;
+    }
+
+    /**
+     * Runs the tests or merges the results as specified by the command-line arguments.
+     * The test classes are executed concurrently in the number of threads specified by the
+     * {@code --threads} option. If the {@code --impl} option is repeated, all implementations
+     * are tested concurrently using the same pool of worker threads.
+     *
+     * @param  out  where to write the test report.
+     * @return the process exit status: 0 if all tests passed, 1 if at least one test failed or could not be executed.
+     * @throws IllegalArgumentException if an argument is invalid.
+     * @throws IOException if an implementation JAR file or a result file cannot be read or written.
+     */
+    final int run(final PrintWriter out) throws IOException {
+        if (!merge.isEmpty()) {
+            return merge(out);
+        }
+        if (worker) {
+            return worker();
+        }
+        final Map<String,Long> durations = readDurations();
+        final Shard subset = (shard != null) ? Shard.parse(shard, durations) : null;
+        if (forks != 0) {
+            return fork(out, subset, durations);
+        }
+        /*
+         * Build one module layer per implementation. Each implementation has its own
+         * report, but all tests are executed in a single pool of worker threads.
+         */
+        final boolean single = (implementations.size() == 1);
+        if (profile != null) {
+            System.setProperty(FactoryProfiler.PROPERTY, "true");
+            if (retained) {
+                System.setProperty(RetainedSize.PROPERTY, "true");
+            }
+        }
+        final List<String> names = new ArrayList<>();
+        final List<ConsoleReport> reports = new ArrayList<>();
+        final List<Runner> runners = new ArrayList<>();
+        final List<ResultCache> caches = new ArrayList<>();
+        final ResultWriter writer = (results != null) ? new ResultWriter(results) : null;
+        final ExecutorService workers = ExecutionContext.newWorkerPool(threads);
+        try {
+            for (final List<Path> files : implementations) {
+                final Path[] jars = files.toArray(Path[]::new);
+                final var modules = ModuleFinder.of(jars);
+                final var manifest = ImplementationManifest.parse(modules);
+                String name = null;
+                if (manifest != null) {
+                    out.println(manifest);
+                    name = manifest.title;
+                }
+                if (name == null) {
+                    name = jars[0].getFileName().toString();
+                }
+                final Path[] implementation = (manifest != null) ? manifest.dependencies : jars;
+                final var report = new ConsoleReport(out, single ? null : (reports.size() + 1) + ". " + name);
+                Consumer<ResultRecord> destination = (writer != null) ? report.andThen(writer) : report;
+                final ResultCache cached = cache(jars, implementation, destination);
+                if (cached != null) {
+                    destination = cached;
+                }
+                final Consumer<ResultRecord> target = destination;
+                runners.add(new Runner(new TestSuite(), implementation, modules, (entry) -> target.accept(entry.toRecord())));
+                reports.add(report);
+                caches.add(cached);
+                names.add(name);
+            }
+            boolean failed = false;
+            if (single) {
+                execute(runners.get(0), caches.get(0), workers, subset, durations);
+            } else {
+                /*
+                 * One coordinator thread per implementation. An exception in a coordinator means
+                 * that some results are missing, so it is reported and changes the exit status.
+                 */
+                final ExecutorService coordinators = Executors.newFixedThreadPool(runners.size(),
+                        (task) -> new Thread(task, "GIGS coordinator"));
+                try {
+                    final List<Future<?>> tasks = new ArrayList<>(runners.size());
+                    for (int i=0; i<runners.size(); i++) {
+                        final Runner runner = runners.get(i);
+                        final ResultCache cached = caches.get(i);
+                        tasks.add(coordinators.submit(() -> execute(runner, cached, workers, null, durations)));
+                    }
+                    for (int i=0; i<tasks.size(); i++) {
+                        try {
+                            tasks.get(i).get();
+                        } catch (ExecutionException e) {
+                            out.println("Execution of tests failed for " + names.get(i) + '.');
+                            e.getCause().printStackTrace(out);
+                            failed = true;
+                        }
+                    }
+                } finally {
+                    coordinators.shutdown();
+                }
+            }
+            for (int i=0; i<runners.size(); i++) {
+                final ResultCache cached = caches.get(i);
+                if (cached != null) {
+                    cached.save(runners.get(i).layer());
+                    if (cached.replayed() != 0) {
+                        out.println("Results replayed from cache: " + cached.replayed());
+                    }
+                }
+            }
+            final List<TransformStatistics> statistics = new ArrayList<>();
+            for (int i=0; i<runners.size(); i++) {
+                final TransformStatistics s = TransformStatistics.forLayer(runners.get(i).layer());
+                ThroughputReport.print(out, single ? null : names.get(i), s);
+                AccuracyReport.print(out, single ? null : names.get(i), s);
+                statistics.add(s);
+            }
+            if (accuracy != null) {
+                AccuracyReport.write(accuracy, single ? null : names, statistics);
+                out.println("Heat maps of round-trip residuals written to " + accuracy);
+            }
+            if (profile != null) {
+                final List<FactoryProfiler> profilers = new ArrayList<>();
+                for (final Runner runner : runners) {
+                    profilers.add(FactoryProfiler.forLayer(runner.layer()));
+                }
+                ProfileWriter.write(profile, single ? null : names, profilers, out);
+                out.println("Latencies of factory calls written to " + profile);
+            }
+            if (single) {
+                return reports.get(0).summarize() ? 0 : 1;
+            }
+            return (ConsoleReport.summarize(out, reports) && !failed) ? 0 : 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 2;
+        } finally {
+            workers.shutdownNow();
+            for (final Runner runner : runners) {
+                runner.dispose();
+            }
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Opens the cache of test results for the given implementation if the {@code --cache} option was specified.
+     *
+     * @param  jars            the JAR files specified by the {@code --impl} option.
+     * @param  implementation  all JAR files of the implementation, including dependencies.
+     * @param  destination     where to send the test results, both replayed and executed.
+     * @return the cache, or {@code null} if none.
+     * @throws IOException if a JAR file or the cache cannot be read.
+     */
+    private ResultCache cache(final Path[] jars, final Path[] implementation, final Consumer<ResultRecord> destination)
+            throws IOException
+    {
+        if (cache == null) {
+            return null;
+        }
+        final var files = new LinkedHashSet<Path>(Arrays.asList(jars));
+        files.addAll(Arrays.asList(implementation));
+        return new ResultCache(cache, files, destination);
+    }
+
+    /**
+     * Returns the identifiers of all tests of the given shard.
+     *
+     * @param  subset  the subset of tests to execute, or {@code null} for all tests.
+     * @return identifiers of the tests in {@code class#method} form.
+     */
+    private static List<String> keys(final Shard subset) {
+        final List<String> keys = Runner.discoverKeys(new TestSuite());
+        if (subset != null) {
+            keys.retainAll(subset.select(keys));
+        }
+        return keys;
+    }
+
+    /**
+     * Returns a scheduler using the durations recorded in the given cache and in the {@code --durations} files.
+     * The durations specified explicitly by the {@code --durations} option have precedence.
+     *
+     * @param  cached       the cache of test results, or {@code null} if none.
+     * @param  durations    durations read from the {@code --durations} files.
+     * @param  parallelism  number of workers executing the tests concurrently.
+     * @return the scheduler to use for ordering the tests.
+     */
+    private static Scheduler scheduler(final ResultCache cached, final Map<String,Long> durations, final int parallelism) {
+        if (cached == null) {
+            return new Scheduler(durations, parallelism);
+        }
+        final Map<String,Long> merged = cached.durations();
+        merged.putAll(durations);
+        return new Scheduler(merged, parallelism);
+    }
+
+    /**
+     * Executes the tests of the given shard with the given runner in longest-processing-time-first order.
+     * If a cache is specified, the tests having a valid cached result are replayed instead of executed.
+     *
+     * @param  runner     the runner to use for executing the tests.
+     * @param  cached     the cache of test results, or {@code null} if none.
+     * @param  workers    the worker threads where to execute test classes.
+     * @param  subset     the subset of tests to execute, or {@code null} for all tests.
+     * @param  durations  durations read from the {@code --durations} files.
+     */
+    private void execute(final Runner runner, final ResultCache cached, final ExecutorService workers,
+                         final Shard subset, final Map<String,Long> durations)
+    {
+        List<String> keys = keys(subset);
+        if (cached != null) {
+            keys = cached.replay(runner.layer(), keys);
+        }
+        runner.execute(workers, scheduler(cached, durations, threads).schedule(keys));
+    }
+
+    /**
+     * Executes the tests in child JVMs and writes the results on the given output.
+     * The tests are sent to the child processes in batches of one test class, except the classes
+     * expected to take a large part of the total time, which are split in batches of methods.
+     * See {@link Scheduler} for the way batches are built and ordered.
+     *
+     * @param  out        where to write the test report.
+     * @param  subset     the subset of tests to execute, or {@code null} for all tests.
+     * @param  durations  durations read from the {@code --durations} files.
+     * @return the process exit status: 0 if all tests passed, 1 if at least one test failed.
+     * @throws IOException if an implementation JAR file or the result file cannot be read or written.
+     */
+    private int fork(final PrintWriter out, final Shard subset, final Map<String,Long> durations) throws IOException {
+        final List<Path> files = implementations.get(0);
+        final Path[] jars = files.toArray(Path[]::new);
+        final var modules = ModuleFinder.of(jars);
+        final var manifest = ImplementationManifest.parse(modules);
+        if (manifest != null) {
+            out.println(manifest);
+        }
+        List<String> keys = keys(subset);
+        final var report = new ConsoleReport(out, null);
+        try (ResultWriter writer = (results != null) ? new ResultWriter(results) : null) {
+            Consumer<ResultRecord> destination = (writer != null) ? report.andThen(writer) : report;
+            final Path[] implementation = (manifest != null) ? manifest.dependencies : jars;
+            final ResultCache cached = cache(jars, implementation, destination);
+            Runner configuration = null;
+            try {
+                if (cached != null) {
+                    /*
+                     * The tests are not executed in this JVM, but a module layer is still
+                     * needed for getting the configuration options of the implementation.
+                     */
+                    configuration = new Runner(new TestSuite(), implementation, modules, (entry) -> {});
+                    keys = cached.replay(configuration.layer(), keys);
+                    destination = cached;
+                }
+                final int restarts = new WorkerPool(WorkerPool.command(files), forks, timeout, destination)
+                        .execute(scheduler(cached, durations, forks).schedule(keys));
+                if (restarts != 0) {
+                    out.println("Worker JVMs restarted after a crash or a timeout: " + restarts);
+                }
+                if (cached != null) {
+                    cached.save(configuration.layer());
+                    if (cached.replayed() != 0) {
+                        out.println("Results replayed from cache: " + cached.replayed());
+                    }
+                }
+            } finally {
+                if (configuration != null) {
+                    configuration.dispose();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 2;
+        }
+        return report.summarize() ? 0 : 1;
+    }
+
+    /**
+     * Executes tests on behalf of a parent process until the standard input stream is closed.
+     * Each line read from the standard input contains the identifiers of the tests to execute,
+     * separated by spaces. The result of each test is written on the standard output stream,
+     * followed by {@link WorkerPool#END} after the last test of the line. Anything else written
+     * by the implementation on the standard output stream is redirected to the error stream.
+     *
+     * @return the process exit status.
+     * @throws IOException if an implementation JAR file cannot be read.
+     */
+    @SuppressWarnings("UseOfSystemOutOrSystemErr")
+    private int worker() throws IOException {
+        final var protocol = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        System.setOut(System.err);
+        final Path[] jars = implementations.get(0).toArray(Path[]::new);
+        final var modules = ModuleFinder.of(jars);
+        final var manifest = ImplementationManifest.parse(modules);
+        final Path[] implementation = (manifest != null) ? manifest.dependencies : jars;
+        final var runner = new Runner(new TestSuite(), implementation, modules, (entry) -> {
+            final String line = entry.toRecord().toJSON();
+            synchronized (protocol) {
+                protocol.println(line);
+                protocol.flush();
+            }
+        });
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.strip();
+                if (!line.isEmpty()) {
+                    runner.execute(null, List.of(List.of(line.split(" "))));
+                }
+                synchronized (protocol) {
+                    protocol.println(WorkerPool.END);
+                    protocol.flush();
+                }
+            }
+        } finally {
+            runner.dispose();
+        }
+        return 0;
+    }
+
+    /**
+     * Reads the durations of test methods from the result files of a previous run.
+     *
+     * @return durations in nanoseconds indexed by {@code class#method} keys.
+     * @throws IOException if a file cannot be read.
+     */
+    private Map<String,Long> readDurations() throws IOException {
+        final Map<String,Long> map = new HashMap<>();
+        for (final Path file : durations) {
+            for (final ResultRecord record : ResultRecord.read(file)) {
+                if (record.duration > 0) {
+                    map.put(record.key(), record.duration);
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Merges the result files of all shards and writes the summary as if all tests were executed in a single run.
+     * If the same test appears in many files, the last occurrence has precedence.
+     *
+     * @param  out  where to write the test report.
+     * @return the process exit status: 0 if all tests passed, 1 if at least one test failed.
+     * @throws IOException if a file cannot be read or written.
+     */
+    private int merge(final PrintWriter out) throws IOException {
+        final Map<String,ResultRecord> records = new LinkedHashMap<>();
+        for (final Path file : merge) {
+            for (final ResultRecord record : ResultRecord.read(file)) {
+                records.put(record.key(), record);
+            }
+        }
+        final var report = new ConsoleReport(out, null);
+        records.values().forEach(report);
+        if (results != null) {
+            try (ResultWriter writer = new ResultWriter(results)) {
+                records.values().forEach(writer);
+            }
+        }
+        return report.summarize() ? 0 : 1;
+    }
+}
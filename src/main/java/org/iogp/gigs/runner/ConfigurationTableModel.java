@@ -76,6 +76,12 @@ final class ConfigurationTableModel extends AbstractTableModel {
      */
     List<TestAspect> entries;
 
+    /**
+     * Module layer of the implementation tested by the test currently shown in the "details" pane,
+     * or {@code null} if none. This reference changes together with {@link #entries}.
+     */
+    ModuleLayer layer;
+
     /**
      * Creates an initially empty table model.
      */
@@ -97,7 +103,7 @@ final class ConfigurationTableModel extends AbstractTableModel {
         columns.getColumn(PASS_COLUMN) .setPreferredWidth(300);
         final var menus = new JPopupMenu();
         final var shows = new JMenuItem("Show all configurations");
-        shows.addActionListener(new AllConfigurations());
+        shows.addActionListener(new AllConfigurations(this));
         menus.add(shows);
         view.setComponentPopupMenu(menus);
         return view;
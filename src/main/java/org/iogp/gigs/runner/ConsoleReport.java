@@ -0,0 +1,211 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.io.PrintWriter;
+import java.util.function.Consumer;
+
+
+/**
+ * Test results written on the console when GIGS is run without graphical user interface.
+ * Failures are reported as soon as they are received, and a summary per series is written
+ * after all tests have been executed. Instances of this class are thread-safe, because
+ * results may be received concurrently from many worker threads.
+ *
+ * <p>When many implementations are tested together, there is one report per implementation
+ * and the summary is a matrix with one column per implementation.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class ConsoleReport implements Consumer<ResultRecord> {
+    /**
+     * Index of the counters in the arrays stored in the {@link #counts} map.
+     */
+    private static final int SUCCESSFUL = 0, ABORTED = 1, FAILED = 2;
+
+    /**
+     * Where to write the report.
+     */
+    private final PrintWriter out;
+
+    /**
+     * Name of the tested implementation, or {@code null} if only one implementation is tested.
+     */
+    private final String name;
+
+    /**
+     * Number of successful, aborted and failed tests for each series.
+     * All accesses to this map must be synchronized on {@code this}.
+     */
+    private final Map<String,int[]> counts;
+
+    /**
+     * Creates a new report which will be written to the given destination.
+     *
+     * @param  out   where to write the report.
+     * @param  name  name of the tested implementation, or {@code null} if only one implementation is tested.
+     */
+    ConsoleReport(final PrintWriter out, final String name) {
+        this.out  = out;
+        this.name = name;
+        counts = new TreeMap<>();
+    }
+
+    /**
+     * Invoked when a test finished, successfully or not.
+     * This method can be invoked from any thread.
+     *
+     * @param  entry  the result of a test.
+     */
+    @Override
+    public void accept(final ResultRecord entry) {
+        final int status;
+        switch (entry.status) {
+            case SUCCESSFUL: status = SUCCESSFUL; break;
+            case ABORTED:    status = ABORTED;    break;
+            default:         status = FAILED;     break;
+        }
+        synchronized (this) {
+            counts.computeIfAbsent(entry.series, (k) -> new int[3])[status]++;
+        }
+        if (status == FAILED) synchronized (out) {
+            if (name != null) {
+                out.print('[');
+                out.print(name);
+                out.print("] ");
+            }
+            out.print("FAILED: ");
+            out.print(entry.getProgrammaticName());
+            out.print(" (");
+            out.print(entry.displayName);
+            out.println(')');
+            out.print("        ");
+            out.println(entry.message);
+            final String tip = entry.configurationTip;
+            if (tip != null) {
+                out.print("        Tip: ");
+                out.println(tip);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Writes the number of successful, aborted and failed tests for each series.
+     *
+     * @return whether all tests were successful or aborted (no failure).
+     */
+    synchronized boolean summarize() {
+        final int[] total = new int[3];
+        out.println();
+        out.printf("%-44s %10s %10s %10s%n", "Series", "Successful", "Aborted", "Failed");
+        for (final Map.Entry<String,int[]> entry : counts.entrySet()) {
+            final int[] c = entry.getValue();
+            out.printf("%-44s %10d %10d %10d%n", entry.getKey(), c[SUCCESSFUL], c[ABORTED], c[FAILED]);
+            for (int i=0; i<c.length; i++) {
+                total[i] += c[i];
+            }
+        }
+        out.printf("%-44s %10d %10d %10d%n", "Total", total[SUCCESSFUL], total[ABORTED], total[FAILED]);
+        out.flush();
+        return total[FAILED] == 0;
+    }
+
+    /**
+     * Writes a matrix of the number of successful, aborted and failed tests
+     * for each series (rows) and each implementation (columns).
+     *
+     * @param  out      where to write the matrix.
+     * @param  reports  the reports of all tested implementations.
+     * @return whether all tests of all implementations were successful or aborted (no failure).
+     */
+    static boolean summarize(final PrintWriter out, final List<ConsoleReport> reports) {
+        final Set<String> series = new TreeSet<>();
+        final int[][] totals = new int[reports.size()][3];
+        for (final ConsoleReport report : reports) {
+            synchronized (report) {
+                series.addAll(report.counts.keySet());
+            }
+        }
+        int width = 12;
+        for (final String s : series) {
+            width = Math.max(width, s.length());
+        }
+        final StringBuilder format = new StringBuilder("%-").append(width).append('s');
+        for (final ConsoleReport report : reports) {
+            format.append(" | %").append(Math.max(report.name.length(), 18)).append('s');
+        }
+        final String pattern = format.append("%n").toString();
+        final Object[] row = new Object[reports.size() + 1];
+        out.println();
+        out.println("Number of successful / aborted / failed tests:");
+        row[0] = "Series";
+        for (int i=0; i<reports.size(); i++) {
+            row[i+1] = reports.get(i).name;
+        }
+        out.printf(pattern, row);
+        for (final String s : series) {
+            row[0] = s;
+            for (int i=0; i<reports.size(); i++) {
+                final ConsoleReport report = reports.get(i);
+                final int[] c;
+                synchronized (report) {
+                    c = report.counts.getOrDefault(s, new int[3]).clone();
+                }
+                for (int j=0; j<c.length; j++) {
+                    totals[i][j] += c[j];
+                }
+                row[i+1] = cell(c);
+            }
+            out.printf(pattern, row);
+        }
+        boolean success = true;
+        row[0] = "Total";
+        for (int i=0; i<reports.size(); i++) {
+            row[i+1] = cell(totals[i]);
+            success &= (totals[i][FAILED] == 0);
+        }
+        out.printf(pattern, row);
+        out.flush();
+        return success;
+    }
+
+    /**
+     * Formats the given counts as a cell of the matrix.
+     *
+     * @param  c  number of successful, aborted and failed tests.
+     * @return text to show in the matrix.
+     */
+    private static String cell(final int[] c) {
+        return c[SUCCESSFUL] + " / " + c[ABORTED] + " / " + c[FAILED];
+    }
+}
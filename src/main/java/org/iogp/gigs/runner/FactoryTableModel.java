@@ -41,6 +41,7 @@ import org.opengis.metadata.Identifier;
 import org.opengis.metadata.citation.Citation;
 import org.opengis.referencing.AuthorityFactory;
 import org.opengis.util.Factory;
+import org.iogp.gigs.internal.FactoryProfiler;
 
 
 /**
@@ -89,11 +90,12 @@ final class FactoryTableModel extends AbstractTableModel {
      * Adds an entry for a factory in the {@link #entries} list.
      *
      * @param  type     interface implemented by the factory.
-     * @param  factory  the factory instance to add to the list.
+     * @param  factory  the factory instance to add to the list. Proxies used for profiling are unwrapped.
      * @param  entries  the list where to add a description for the given factory.
      * @return whether an entry has been added.
      */
-    static boolean addTo(final Class<?> type, final Object factory, final List<String[]> entries) {
+    static boolean addTo(final Class<?> type, Object factory, final List<String[]> entries) {
+        factory = FactoryProfiler.unwrap(factory);
         if (!(Factory.class.isAssignableFrom(type) || SystemOfUnits.class.isAssignableFrom(type))) {
             return false;
         }
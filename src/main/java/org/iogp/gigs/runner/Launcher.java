@@ -25,12 +25,80 @@
 package org.iogp.gigs.runner;
 
 import java.io.Console;
+import java.io.IOException;
 import java.io.PrintWriter;
 import javax.swing.UIManager;
 
 
 /**
- * Entry point for running GIGS tests in a Graphical User Interface (GUI).
+ * Entry point for running GIGS tests in a Graphical User Interface (GUI) or on the command line.
+ * If no argument is given, the GUI is started. Otherwise the tests are run without GUI
+ * (for example in a continuous integration pipeline) with the following arguments:
+ *
+ * <pre>java -jar gigs.jar --impl &lt;jar files&gt; [--impl &lt;jar files&gt;]... [--threads &lt;count&gt;]
+ *                    [--fork &lt;count&gt;] [--timeout &lt;seconds&gt;] [--cache &lt;directory&gt;]
+ *                    [--shard &lt;i/N&gt;] [--durations &lt;files&gt;] [--results &lt;file&gt;]
+ *                    [--profile &lt;file&gt; [--retained]] [--accuracy &lt;file&gt;]
+ *java -jar gigs.jar --merge &lt;files&gt; [--results &lt;file&gt;]</pre>
+ *
+ * Where:
+ *
+ * <ul>
+ *   <li>{@code --impl}      is followed by the JAR files of the implementation to test, including dependencies.</li>
+ *   <li>{@code --threads}   is the number of test classes to execute concurrently.
+ *       The default value is the number of available processors.</li>
+ *   <li>{@code --fork}      is the number of child JVMs where to execute the tests. Each child process
+ *       loads the implementation once and receives the tests in batches of one class. A child which crashes
+ *       is restarted and the tests without result are executed again. This is useful for implementations
+ *       which leak memory or hold global locks. By default, the tests are executed in the current JVM.</li>
+ *   <li>{@code --timeout}   is the maximal time in seconds to wait for a test result from a child JVM
+ *       before to consider that process as stuck and restart it. The default value is 600.</li>
+ *   <li>{@code --cache}     is a directory where to keep the test results between runs. A test is not executed
+ *       again if a result is found for the same implementation JAR files (compared by SHA-256 digest),
+ *       the same GIGS version and the same configuration options for that test. Instead, the cached
+ *       result is reported again. This is useful when the implementation did not change since the last run.</li>
+ *   <li>{@code --shard}     executes only the <var>i</var>-th part (from 1 to <var>N</var> inclusive)
+ *       of the test methods, for distributing a run over <var>N</var> processes or machines.
+ *       Test methods are assigned to shards by a stable hash of their class and method names.</li>
+ *   <li>{@code --durations} is followed by result files of a previous run. The recorded durations are used
+ *       for executing the longest tests first, and for splitting the classes which would otherwise take
+ *       a large part of the total time in a single worker. If {@code --cache} is specified, the durations
+ *       recorded in the cache are also used. With {@code --shard}, the shards are balanced using those
+ *       durations instead of hash codes.</li>
+ *   <li>{@code --results}   is the file where to write the results as soon as each test finishes.
+ *       If the file extension is {@code .xml}, the results are written in JUnit XML format.
+ *       Otherwise they are written in JSON Lines format, one test per line.
+ *       Both formats include the status, duration, CPU time, allocated bytes, test aspects
+ *       and configuration tip of each test.</li>
+ *   <li>{@code --profile}   is the file where to write the latency histograms of the calls to factory methods,
+ *       in JSON Lines format. This option enables profiling as documented below.
+ *       The memory allocated for creating objects from authority codes is also summarized
+ *       for each type of object, and the codes which allocate unusually much are listed.
+ *       The number of distinct datum, ellipsoid, prime meridian and coordinate system instances
+ *       found for each EPSG code is also reported, for detecting implementations which do not cache them.
+ *       It can not be used together with {@code --fork}.</li>
+ *   <li>{@code --retained}  measures also the heap retained by the objects created from authority codes,
+ *       counting once the components shared by many objects, and summarizes it for each test class.
+ *       This option requires {@code --profile} and slows down the tests.</li>
+ *   <li>{@code --accuracy}  is the file where to write the heat maps of the residuals of round-trip
+ *       transformations (forward then inverse) for each operation method, in JSON Lines format.
+ *       It can not be used together with {@code --fork}.</li>
+ *   <li>{@code --merge}     is followed by the result files of all shards. No test is executed;
+ *       instead the results are merged and summarized as if they were produced by a single run.</li>
+ * </ul>
+ *
+ * The {@code --impl} option can be repeated for testing many implementations in the same run.
+ * In such case, each implementation is loaded in its own module layer, all implementations are tested
+ * concurrently using the same pool of worker threads, and the results are summarized in a matrix
+ * with one column per implementation.
+ *
+ * <p>In command-line mode, failures are written on the standard output stream
+ * and the process exits with a non-zero status if at least one test failed.
+ * The number of points transformed per second by the tests on coordinate operations,
+ * and the number of derivatives computed per second by the tests on map projections,
+ * are also written for each operation method, followed by the speedup of transformations
+ * executed concurrently by an increasing number of threads, and by the maximal and root mean square
+ * residuals of the transformations of points forward then backward.</p>
  *
  * <h2>Configuration</h2>
  * If the {@systemProperty org.iogp.gigs.config} system property is specified
@@ -71,6 +139,28 @@ import javax.swing.UIManager;
  *
  * Currently, only boolean options are supported.
  *
+ * <h2>Pre-warming</h2>
+ * If the {@systemProperty org.iogp.gigs.prewarm} system property is specified, then the factories
+ * of the implementation are discovered in a background thread while JUnit discovers the tests.
+ * The value can be {@code true}, or a comma-separated list of EPSG codes (e.g. {@code 4326,6326})
+ * of objects to create in advance for warming caches or opening the database of the implementation.
+ *
+ * <h2>Profiling</h2>
+ * If the {@systemProperty org.iogp.gigs.profile} system property is {@code true}, then the factories of the
+ * implementation are wrapped in proxies which record a latency histogram and the allocated memory for each
+ * factory method and for each authority code. The statistics are shown in the "Factory calls" tab of the GUI, or written in the file
+ * specified by the {@code --profile} option. When profiling is disabled, the factories are used directly.
+ * If the {@systemProperty org.iogp.gigs.profile.retained} system property is also {@code true}, then the object
+ * graphs of the objects created from authority codes are walked by reflection for estimating their retained size.
+ * For this purpose, the packages of the implementation modules are opened to GIGS.
+ *
+ * <h2>Java Flight Recorder</h2>
+ * Each test execution emits an {@code org.iogp.gigs.Test} event with the test class, method, status and
+ * configuration tip. If a recording is started with the JVM (e.g. {@code -XX:StartFlightRecording}),
+ * or if profiling is enabled, each call to a factory also emits an {@code org.iogp.gigs.FactoryCall}
+ * event with the factory interface, method and authority code. Those events can be correlated in
+ * JDK Mission Control with garbage collection, lock contention or I/O in the tested implementation.
+ *
  * @author  Martin Desruisseaux (Geomatys)
  * @version 1.0
  * @since   1.0
@@ -83,12 +173,11 @@ public final class Launcher {
     }
 
     /**
-     * The application entry point. Current implementation {@linkplain #startSwingApplication()
-     * starts the Swing application}. Future versions may provides different alternatives based
-     * on the command-line arguments.
+     * The application entry point. If no argument is given, then this method
+     * {@linkplain #startSwingApplication() starts the Swing application}.
+     * Otherwise the tests are executed without GUI as documented in the class javadoc.
      *
-     * @param arguments  must be an empty string in current version.
-     *        Future versions may accept some command-line arguments.
+     * @param arguments  empty for starting the GUI, or the command-line options documented in class javadoc.
      */
     @SuppressWarnings("UseOfSystemOutOrSystemErr")
     public static void main(final String[] arguments) {
@@ -109,8 +198,19 @@ public final class Launcher {
         } else {
             final Console console = System.console();
             final PrintWriter out = (console != null) ? console.writer() : new PrintWriter(System.out, true);
-            out.println("Usage: java -jar gigs.jar");
+            int status;
+            try {
+                status = new CommandLine(arguments).run(out);
+            } catch (IllegalArgumentException e) {
+                out.println(e.getMessage());
+                out.println(CommandLine.USAGE);
+                status = 2;
+            } catch (IOException e) {
+                out.println("Can not use the files: " + e);
+                status = 2;
+            }
             out.flush();
+            System.exit(status);
         }
     }
 
@@ -37,6 +37,8 @@ import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.prefs.Preferences;
 import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.EventQueue;
@@ -47,8 +49,10 @@ import javax.swing.JLabel;
 import javax.swing.SwingWorker;
 import javax.swing.JOptionPane;
 import javax.swing.JSplitPane;
+import javax.swing.JTabbedPane;
 
 import org.iogp.gigs.internal.TestSuite;
+import org.iogp.gigs.internal.FactoryProfiler;
 
 
 /**
@@ -81,6 +85,13 @@ final class MainFrame implements Runnable {
      */
     private final ResultsView results;
 
+    /**
+     * The runner of the implementation currently tested, or {@code null} if none.
+     * This is disposed when the user selects another implementation.
+     * This field shall be read and written in the Swing thread only.
+     */
+    private Runner runner;
+
     /**
      * Where to save the last user choices, for the next run.
      */
@@ -112,9 +123,9 @@ final class MainFrame implements Runnable {
                 specVersion   = new JLabel(),
                 specVendor    = new JLabel()), BorderLayout.NORTH);
         /*
-         * The main panel, which will contain panes. The top pane shows results of all tests.
-         * Bottom pane shows more information about test failures or about features supported
-         * by the application being tested.
+         * The main panel, which will contain panes. The top pane shows results of all tests,
+         * or the execution time of all tests. Bottom pane shows more information about test
+         * failures or about features supported by the application being tested.
          */
         final TestDetails details = new TestDetails();
         results = new ResultsView(details);
@@ -123,7 +134,13 @@ final class MainFrame implements Runnable {
         splitPane.setContinuousLayout(true);
         splitPane.setDividerLocation(300);
         splitPane.setResizeWeight(1);
-        splitPane.setTopComponent(results.createView());
+        final JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Results", results.createView());
+        tabs.addTab("Timings", results.createTimingsView());
+        if (FactoryProfiler.isEnabled()) {
+            tabs.addTab("Factory calls", results.createProfileView());
+        }
+        splitPane.setTopComponent(tabs);
         splitPane.setBottomComponent(details.createView());
         frame.add(splitPane, BorderLayout.CENTER);
     }
@@ -152,6 +169,15 @@ final class MainFrame implements Runnable {
         final File[] files = chooser.getFiles();
         if (files.length != 0) {
             preferences.put(JAR_DIRECTORY_KEY, chooser.getDirectory());
+            if (runner != null) try {
+                runner.dispose();
+            } catch (IOException e) {
+                // Not a problem for the next implementation to test.
+                Logger.getLogger("org.iogp.gigs").log(Level.WARNING, e.toString(), e);
+            } finally {
+                runner = null;
+            }
+            results.clear();
             new Loader(files).execute();
         }
     }
@@ -203,7 +229,7 @@ final class MainFrame implements Runnable {
             final var manifest = ImplementationManifest.parse(modules);
             EventQueue.invokeLater(() -> setManifest(manifest));
             final Path[] implementation = (manifest != null) ? manifest.dependencies : files;
-            final Runner runner = new Runner(new TestSuite(), implementation, modules, results);
+            final Runner runner = new Runner(new TestSuite(), implementation, modules, results::addOrReplace);
             runner.executeAll();
             return runner;
         }
@@ -214,7 +240,7 @@ final class MainFrame implements Runnable {
         @Override
         protected void done() {
             try {
-                get();
+                runner = get();
             } catch (InterruptedException e) {
                 // Should not happen at this point.
             } catch (ExecutionException e) {
@@ -0,0 +1,186 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.List;
+import java.util.Collections;
+import javax.swing.JTable;
+import javax.swing.SortOrder;
+import javax.swing.RowSorter;
+import javax.swing.table.AbstractTableModel;
+import org.iogp.gigs.internal.FactoryProfiler;
+import org.iogp.gigs.internal.LatencyHistogram;
+
+
+/**
+ * The table model for the latency of factory calls, when profiling is enabled.
+ * There is one row for each factory method, and one row for each authority code given to a method.
+ * All methods in this class shall be invoked in the Swing thread.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+@SuppressWarnings("serial")
+final class ProfileTableModel extends AbstractTableModel {
+    /**
+     * Index of columns handled by this model.
+     */
+    static final int FACTORY_COLUMN = 0,
+                     METHOD_COLUMN  = 1,
+                     CODE_COLUMN    = 2,
+                     CALLS_COLUMN   = 3,
+                     MEAN_COLUMN    = 4,
+                     MEDIAN_COLUMN  = 5,
+                     P99_COLUMN     = 6,
+                     MAX_COLUMN     = 7,
+                     MEMORY_COLUMN  = 8;
+
+    /**
+     * The titles of all columns.
+     */
+    private static final String[] COLUMN_TITLES;
+    static {
+        COLUMN_TITLES = new String[9];
+        COLUMN_TITLES[FACTORY_COLUMN] = "Factory";
+        COLUMN_TITLES[METHOD_COLUMN]  = "Method";
+        COLUMN_TITLES[CODE_COLUMN]    = "Code";
+        COLUMN_TITLES[CALLS_COLUMN]   = "Calls";
+        COLUMN_TITLES[MEAN_COLUMN]    = "Mean (ms)";
+        COLUMN_TITLES[MEDIAN_COLUMN]  = "Median (ms)";
+        COLUMN_TITLES[P99_COLUMN]     = "99% (ms)";
+        COLUMN_TITLES[MAX_COLUMN]     = "Max (ms)";
+        COLUMN_TITLES[MEMORY_COLUMN]  = "Max allocated (kB)";
+    }
+
+    /**
+     * Snapshot of the statistics shown in the table.
+     */
+    private List<FactoryProfiler.Entry> entries;
+
+    /**
+     * Creates an initially empty table model.
+     */
+    ProfileTableModel() {
+        entries = Collections.emptyList();
+    }
+
+    /**
+     * Replaces the content of this table by the current statistics of the given profiler.
+     *
+     * @param  profiler  the profiler from which to get the statistics.
+     */
+    final void update(final FactoryProfiler profiler) {
+        entries = profiler.entries();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Returns a new table view using this model.
+     * The view is initially sorted with the slowest calls first.
+     *
+     * @return the configured table view.
+     */
+    JTable createView() {
+        final JTable view = new JTable(this);
+        view.setAutoCreateRowSorter(true);
+        view.getRowSorter().setSortKeys(List.of(new RowSorter.SortKey(MAX_COLUMN, SortOrder.DESCENDING)));
+        return view;
+    }
+
+    /**
+     * Returns the number of columns in this table.
+     */
+    @Override
+    public int getColumnCount() {
+        return COLUMN_TITLES.length;
+    }
+
+    /**
+     * Returns the name of the given column.
+     */
+    @Override
+    public String getColumnName(final int column) {
+        return COLUMN_TITLES[column];
+    }
+
+    /**
+     * Returns the type of values in the given column.
+     * Numbers are used for the statistics, in order to sort them in numerical order.
+     */
+    @Override
+    public Class<?> getColumnClass(final int column) {
+        switch (column) {
+            case FACTORY_COLUMN:
+            case METHOD_COLUMN:
+            case CODE_COLUMN:  return String.class;
+            case CALLS_COLUMN: return Long.class;
+            default:           return Double.class;
+        }
+    }
+
+    /**
+     * Returns the number of rows in this table.
+     */
+    @Override
+    public int getRowCount() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the value in the given cell.
+     *
+     * @param  row     the row index.
+     * @param  column  the column index.
+     * @return the value in the given cell.
+     */
+    @Override
+    public Object getValueAt(final int row, final int column) {
+        final FactoryProfiler.Entry entry = entries.get(row);
+        final LatencyHistogram latencies = entry.latencies;
+        switch (column) {
+            case FACTORY_COLUMN: return entry.factory;
+            case METHOD_COLUMN:  return entry.method;
+            case CODE_COLUMN:    return entry.code;
+            case CALLS_COLUMN:   return latencies.count();
+            case MEAN_COLUMN:    return millis(latencies.total() / (double) Math.max(latencies.count(), 1));
+            case MEDIAN_COLUMN:  return millis(latencies.percentile(50));
+            case P99_COLUMN:     return millis(latencies.percentile(99));
+            case MAX_COLUMN:     return millis(latencies.max());
+            case MEMORY_COLUMN:  return entry.maxAllocated() / 1E3;
+            default: throw new IndexOutOfBoundsException(column);
+        }
+    }
+
+    /**
+     * Converts the given duration from nanoseconds to milliseconds.
+     *
+     * @param  time  the duration in nanoseconds.
+     * @return the duration in milliseconds.
+     */
+    private static Double millis(final double time) {
+        return time / 1E6;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.List;
+import java.util.Comparator;
+import java.io.IOException;
+import java.io.BufferedWriter;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.iogp.gigs.internal.FactoryProfiler;
+import org.iogp.gigs.internal.InstanceAudit;
+import org.iogp.gigs.internal.LatencyHistogram;
+import org.iogp.gigs.internal.RetainedSize;
+
+
+/**
+ * Writes the latency histograms of factory calls in a file, in JSON Lines format.
+ * Each line is the statistics of a factory method, or of an authority code given to a factory method.
+ * The lines contain the call count, the total, mean and maximal latencies, some percentiles and the
+ * non-empty buckets of the histogram as {@code [lower, upper, count]} arrays. All times are in nanoseconds.
+ * The lines contain also the total and maximal number of bytes allocated by the calls, and whether the
+ * authority code is an {@linkplain AllocationReport allocation outlier}.
+ * Then there is one line per datum, ellipsoid, prime meridian or coordinate system reached from the created
+ * objects, with the number of distinct instances found for its EPSG code (see {@link SharingReport}).
+ * If retained sizes have been measured, there is also one line per test class
+ * with the number of created objects and their retained sizes in bytes.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class ProfileWriter {
+    /**
+     * Do not allow instantiation of this class.
+     */
+    private ProfileWriter() {
+    }
+
+    /**
+     * Writes the statistics of the given profilers in the given file.
+     * The statistics are sorted by implementation, then by factory method, then by code.
+     *
+     * @param  file       the file where to write the statistics.
+     * @param  names      name of each tested implementation, or {@code null} if only one implementation is tested.
+     * @param  profilers  the profiler of each tested implementation. Null elements are ignored.
+     * @param  console    where to print the allocation statistics of each implementation.
+     * @throws IOException if an error occurred while writing the file.
+     */
+    static void write(final Path file, final List<String> names, final List<FactoryProfiler> profilers,
+                      final PrintWriter console) throws IOException
+    {
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            for (int i=0; i<profilers.size(); i++) {
+                final FactoryProfiler profiler = profilers.get(i);
+                if (profiler == null) continue;
+                final List<FactoryProfiler.Entry> entries = profiler.entries();
+                final var allocations = new AllocationReport(entries);
+                if (names != null) {
+                    console.println();
+                    console.println(names.get(i) + ':');
+                }
+                allocations.print(console);
+                entries.sort(Comparator.comparing((FactoryProfiler.Entry e) -> e.factory)
+                        .thenComparing((e) -> e.method)
+                        .thenComparing((e) -> e.code, Comparator.nullsFirst(Comparator.naturalOrder())));
+                for (final FactoryProfiler.Entry entry : entries) {
+                    out.write(toJSON((names != null) ? names.get(i) : null, entry, allocations.isOutlier(entry)));
+                    out.newLine();
+                }
+                final var sharing = new SharingReport(profiler.instanceAudit());
+                sharing.print(console);
+                for (final InstanceAudit.Entry entry : sharing.entries()) {
+                    out.write(toJSON((names != null) ? names.get(i) : null, entry));
+                    out.newLine();
+                }
+                final List<RetainedSize.Summary> retained = profiler.retainedSizes();
+                if (!retained.isEmpty()) {
+                    retained.sort(Comparator.comparing(RetainedSize.Summary::testClass));
+                    print(retained, console);
+                    for (final RetainedSize.Summary summary : retained) {
+                        out.write(toJSON((names != null) ? names.get(i) : null, summary));
+                        out.newLine();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Formats the given statistics as a single line of JSON.
+     *
+     * @param  implementation  name of the tested implementation, or {@code null}.
+     * @param  entry           the statistics to format.
+     * @param  outlier         whether the entry is an allocation outlier.
+     * @return the statistics as a JSON object without line separator.
+     */
+    private static String toJSON(final String implementation, final FactoryProfiler.Entry entry, final boolean outlier) {
+        final LatencyHistogram latencies = entry.latencies;
+        final long count = latencies.count();
+        final var buffer = new StringBuilder(400).append('{');
+        if (implementation != null) {
+            ResultRecord.append(buffer, "implementation", implementation).append(',');
+        }
+        ResultRecord.append(buffer, "factory", entry.factory).append(',');
+        ResultRecord.append(buffer, "method",  entry.method) .append(',');
+        ResultRecord.append(buffer, "code",    entry.code)   .append(',');
+        ResultRecord.quote(buffer, "count").append(':').append(count).append(',');
+        ResultRecord.quote(buffer, "total").append(':').append(latencies.total()).append(',');
+        ResultRecord.quote(buffer, "mean") .append(':').append(latencies.total() / Math.max(count, 1)).append(',');
+        ResultRecord.quote(buffer, "p50")  .append(':').append(latencies.percentile(50)).append(',');
+        ResultRecord.quote(buffer, "p90")  .append(':').append(latencies.percentile(90)).append(',');
+        ResultRecord.quote(buffer, "p99")  .append(':').append(latencies.percentile(99)).append(',');
+        ResultRecord.quote(buffer, "max")  .append(':').append(latencies.max()).append(',');
+        ResultRecord.quote(buffer, "allocated")   .append(':').append(entry.allocated()).append(',');
+        ResultRecord.quote(buffer, "maxAllocated").append(':').append(entry.maxAllocated()).append(',');
+        ResultRecord.quote(buffer, "outlier")     .append(':').append(outlier).append(',');
+        ResultRecord.quote(buffer, "buckets").append(":[");
+        String separator = "";
+        for (final long[] bucket : latencies.buckets()) {
+            buffer.append(separator).append('[').append(bucket[0]).append(',').append(bucket[1])
+                  .append(',').append(bucket[2]).append(']');
+            separator = ",";
+        }
+        return buffer.append("]}").toString();
+    }
+
+    /**
+     * Formats the number of instances found for an EPSG code as a single line of JSON.
+     *
+     * @param  implementation  name of the tested implementation, or {@code null}.
+     * @param  entry           the number of instances found for an EPSG code.
+     * @return the statistics as a JSON object without line separator.
+     */
+    private static String toJSON(final String implementation, final InstanceAudit.Entry entry) {
+        final var buffer = new StringBuilder(200).append('{');
+        if (implementation != null) {
+            ResultRecord.append(buffer, "implementation", implementation).append(',');
+        }
+        ResultRecord.append(buffer, "component", entry.type.name()).append(',');
+        ResultRecord.quote(buffer, "epsg")      .append(':').append(entry.code).append(',');
+        ResultRecord.quote(buffer, "instances") .append(':').append(entry.instances).append(',');
+        ResultRecord.quote(buffer, "references").append(':').append(entry.references).append(',');
+        ResultRecord.append(buffer, "equalsClass", entry.equalsClass);
+        return buffer.append('}').toString();
+    }
+
+    /**
+     * Prints a table of the retained sizes of the objects created by each test class.
+     * The sharing ratio is the sum of individual retained sizes divided by the size of the union
+     * of all object graphs. A ratio close to 1 means that the implementation does not share components.
+     *
+     * @param  retained  retained sizes of the objects created by each test class.
+     * @param  console   where to print the table.
+     */
+    private static void print(final List<RetainedSize.Summary> retained, final PrintWriter console) {
+        console.println();
+        console.println("Retained size of created objects:");
+        console.printf("%-12s %8s %10s %10s %8s %12s %8s%n",
+                "Test", "Objects", "Mean (kB)", "Max (kB)", "Max code", "Total (kB)", "Sharing");
+        for (final RetainedSize.Summary summary : retained) {
+            final int  count    = summary.count();
+            final long distinct = summary.distinct();
+            String name = summary.testClass();
+            name = name.substring(name.lastIndexOf('.') + 1);
+            console.printf("%-12s %8d %10.1f %10.1f %8s %12.1f %8.2f%n", name, count,
+                    summary.sum() / (1E3 * Math.max(count, 1)), summary.max() / 1E3,
+                    summary.maxCode(), distinct / 1E3, summary.sum() / (double) Math.max(distinct, 1));
+        }
+        console.flush();
+    }
+
+    /**
+     * Formats the given retained sizes as a single line of JSON.
+     *
+     * @param  implementation  name of the tested implementation, or {@code null}.
+     * @param  summary         the retained sizes of the objects created by a test class.
+     * @return the statistics as a JSON object without line separator.
+     */
+    private static String toJSON(final String implementation, final RetainedSize.Summary summary) {
+        final var buffer = new StringBuilder(200).append('{');
+        if (implementation != null) {
+            ResultRecord.append(buffer, "implementation", implementation).append(',');
+        }
+        ResultRecord.append(buffer, "testClass", summary.testClass()).append(',');
+        ResultRecord.quote(buffer, "objects") .append(':').append(summary.count()).append(',');
+        ResultRecord.quote(buffer, "retained").append(':').append(summary.sum()).append(',');
+        ResultRecord.quote(buffer, "distinct").append(':').append(summary.distinct()).append(',');
+        ResultRecord.quote(buffer, "max")     .append(':').append(summary.max()).append(',');
+        ResultRecord.append(buffer, "maxCode", summary.maxCode());
+        return buffer.append('}').toString();
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.Map;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.stream.Stream;
+import org.iogp.gigs.internal.PrivateAccessor;
+
+
+/**
+ * Persistent cache of test results, for skipping the tests of an implementation which did not change.
+ * The cache is a directory containing one file per fingerprint, where the fingerprint is a SHA-256 digest
+ * of the content of the implementation JAR files (including the dependencies declared in their manifest)
+ * and of the GIGS tests themselves. Each file contains one line per test in JSON Lines format, with the
+ * effective configuration options of the test and its result in the format of {@link ResultRecord}.
+ *
+ * <p>A cached result is replayed instead of executing the test if the fingerprint, the test class,
+ * the test method and the configuration options applying to that method are the same.</p>
+ *
+ * <p>This object is also a consumer which records the results of the tests actually executed,
+ * then forwards them to the destination. The new results are written by {@link #save(ModuleLayer)}.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class ResultCache implements Consumer<ResultRecord> {
+    /**
+     * The file where the results are cached.
+     */
+    private final Path file;
+
+    /**
+     * Where to send the test results, both replayed and executed.
+     */
+    private final Consumer<ResultRecord> destination;
+
+    /**
+     * The cached results, indexed by {@code class#method} keys.
+     * Values are the configuration options of the test at the time it was executed, followed by the result.
+     */
+    private final Map<String, Map.Entry<String,ResultRecord>> cached;
+
+    /**
+     * Results of the tests executed in this run, indexed by {@code class#method} keys.
+     */
+    private final Map<String,ResultRecord> executed;
+
+    /**
+     * Number of results which have been replayed from the cache.
+     */
+    private int replayed;
+
+    /**
+     * Opens the cache for the given implementation and loads the results of previous runs, if any.
+     *
+     * @param  directory       the directory where the results are cached.
+     * @param  implementation  the JAR files of the implementation to test, including dependencies.
+     * @param  destination     where to send the test results, both replayed and executed.
+     * @throws IOException if a JAR file or the cache cannot be read.
+     */
+    ResultCache(final Path directory, final Collection<Path> implementation, final Consumer<ResultRecord> destination)
+            throws IOException
+    {
+        this.destination = destination;
+        file     = directory.resolve(fingerprint(implementation) + ".jsonl");
+        cached   = new HashMap<>();
+        executed = new ConcurrentHashMap<>();
+        if (Files.isRegularFile(file)) {
+            try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        final Map<String,Object> values = new ResultRecord.JSONParser(line).object();
+                        final Object result = values.get("result");
+                        if (!(result instanceof Map<?,?>)) {
+                            throw new IllegalArgumentException("Missing result in " + line);
+                        }
+                        final var record = ResultRecord.parse((Map<?,?>) result);
+                        cached.put(record.key(), Map.entry((String) values.get("options"), record));
+                    }
+                }
+            } catch (IllegalArgumentException | ClassCastException e) {
+                cached.clear();             // Corrupted cache: execute all tests again.
+            }
+        }
+    }
+
+    /**
+     * Computes a digest of the given implementation files and of the GIGS tests.
+     *
+     * @param  implementation  the JAR files of the implementation to test.
+     * @return hexadecimal representation of the SHA-256 digest.
+     * @throws IOException if a file cannot be read.
+     */
+    private static String fingerprint(final Collection<Path> implementation) throws IOException {
+        final MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);       // Should never happen since SHA-256 is mandatory.
+        }
+        for (final Path jar : implementation) {
+            digest(jar, md);
+        }
+        /*
+         * Version of GIGS, then the content of the GIGS classes because the tests
+         * may change without version change during development (snapshots).
+         */
+        final Module module = ResultCache.class.getModule();
+        String version = null;
+        if (module.getDescriptor() != null) {
+            version = module.getDescriptor().rawVersion().orElse(null);
+        }
+        if (version == null) {
+            version = ResultCache.class.getPackage().getImplementationVersion();
+        }
+        md.update(String.valueOf(version).getBytes(StandardCharsets.UTF_8));
+        final CodeSource source = ResultCache.class.getProtectionDomain().getCodeSource();
+        if (source != null) try {
+            digest(Path.of(source.getLocation().toURI()), md);
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            // Not a file. Rely on the version only.
+        }
+        final var buffer = new StringBuilder(64);
+        for (final byte b : md.digest()) {
+            buffer.append(Character.forDigit((b >>> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Updates the given digest with the content of the given file.
+     * If the file is a directory, then all regular files in that directory are digested in name order.
+     *
+     * @param  path  the file or directory to digest.
+     * @param  md    the digest to update.
+     * @throws IOException if a file cannot be read.
+     */
+    private static void digest(final Path path, final MessageDigest md) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> s = Files.walk(path)) {
+                s.filter(Files::isRegularFile).sorted().forEach(files::add);
+            }
+        } else {
+            files.add(path);
+        }
+        final byte[] buffer = new byte[8192];
+        for (final Path f : files) {
+            md.update(path.relativize(f).toString().getBytes(StandardCharsets.UTF_8));
+            try (InputStream in = Files.newInputStream(f)) {
+                int n;
+                while ((n = in.read(buffer)) >= 0) {
+                    md.update(buffer, 0, n);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the configuration options which apply to the given test, in a form suitable for comparisons.
+     *
+     * @param  layer  module layer of the tested implementation.
+     * @param  key    identifier of the test in {@code class#method} form.
+     * @return the options as sorted {@code name=value} pairs.
+     */
+    private static String options(final ModuleLayer layer, final String key) {
+        final int s = key.indexOf('#');
+        final Method method;
+        try {
+            method = Class.forName(key.substring(0, s)).getDeclaredMethod(key.substring(s+1));
+        } catch (ReflectiveOperationException e) {
+            return "";
+        }
+        final Properties properties = PrivateAccessor.INSTANCE.getEffectiveConfiguration(layer, method);
+        final var sorted = new TreeMap<>(properties);
+        final var buffer = new StringBuilder();
+        for (final Map.Entry<Object,Object> entry : sorted.entrySet()) {
+            if (buffer.length() != 0) buffer.append(',');
+            buffer.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Returns the durations of the tests recorded in this cache.
+     *
+     * @return durations in nanoseconds indexed by {@code class#method} keys. This map is modifiable.
+     */
+    final Map<String,Long> durations() {
+        final Map<String,Long> durations = new HashMap<>();
+        for (final Map.Entry<String, Map.Entry<String,ResultRecord>> entry : cached.entrySet()) {
+            final long duration = entry.getValue().getValue().duration;
+            if (duration > 0) {
+                durations.put(entry.getKey(), duration);
+            }
+        }
+        return durations;
+    }
+
+    /**
+     * Sends the cached results of the given tests to the destination,
+     * and returns the tests which still need to be executed.
+     *
+     * @param  layer  module layer of the tested implementation, for getting the configuration options.
+     * @param  keys   identifiers of the tests to execute, in {@code class#method} form.
+     * @return identifiers of the tests without valid cached result, in the same order.
+     */
+    final List<String> replay(final ModuleLayer layer, final List<String> keys) {
+        final List<String> remaining = new ArrayList<>();
+        for (final String key : keys) {
+            final Map.Entry<String,ResultRecord> entry = cached.get(key);
+            if (entry != null && entry.getKey().equals(options(layer, key))) {
+                destination.accept(entry.getValue());
+                replayed++;
+            } else {
+                remaining.add(key);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Returns the number of results which have been replayed from the cache.
+     *
+     * @return number of replayed results.
+     */
+    final int replayed() {
+        return replayed;
+    }
+
+    /**
+     * Records the result of a test which has been executed, then forwards it to the destination.
+     * Results of tests interrupted by a crash of a worker JVM are not recorded.
+     * This method can be invoked from any thread.
+     *
+     * @param  record  the result of a test.
+     */
+    @Override
+    public void accept(final ResultRecord record) {
+        if (!WorkerPool.CRASHED.equals(record.message)) {
+            executed.put(record.key(), record);
+        }
+        destination.accept(record);
+    }
+
+    /**
+     * Writes the cached results, updated with the results of the tests executed in this run.
+     * The file is written in a temporary file first, then moved for replacing the previous cache.
+     *
+     * @param  layer  module layer of the tested implementation, for getting the configuration options.
+     * @throws IOException if the cache cannot be written.
+     */
+    final void save(final ModuleLayer layer) throws IOException {
+        if (executed.isEmpty()) {
+            return;
+        }
+        final Map<String, Map.Entry<String,ResultRecord>> merged = new LinkedHashMap<>(cached);
+        for (final ResultRecord record : executed.values()) {
+            merged.put(record.key(), Map.entry(options(layer, record.key()), record));
+        }
+        Files.createDirectories(file.getParent());
+        final Path tmp = Files.createTempFile(file.getParent(), "gigs", ".tmp");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                final var buffer = new StringBuilder(500);
+                for (final Map.Entry<String,ResultRecord> entry : merged.values()) {
+                    buffer.setLength(0);
+                    ResultRecord.append(buffer.append('{'), "options", entry.getKey());
+                    ResultRecord.quote(buffer.append(','), "result").append(':').append(entry.getValue().toJSON());
+                    out.write(buffer.append('}').toString());
+                    out.newLine();
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -124,7 +124,7 @@ final class ResultCellRenderer extends DefaultTreeCellRenderer {
         super.getTreeCellRendererComponent(tree, value, selected, expanded, leaf, row, hasFocus);
         if (report != null) {
             if (!selected) {
-                switch (report.result.getStatus()) {
+                switch (report.status()) {
                     case ABORTED: {
                         setForeground(ignoreColor);
                         break;
@@ -36,8 +36,19 @@ import java.util.Map;
 import java.util.List;
 import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Paint;
@@ -49,6 +60,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.platform.launcher.TestIdentifier;
 import org.junit.platform.engine.TestExecutionResult;
 import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.opentest4j.IncompleteExecutionException;
 
 
 /**
@@ -74,7 +86,7 @@ final class ResultEntry {
     /**
      * The Java method which is the source of the test for which we are providing a result.
      */
-    private final MethodSource source;
+    final MethodSource source;
 
     /**
      * The human-readable name of the series to which this test belong.
@@ -99,25 +111,74 @@ final class ResultEntry {
      *   <li>The authority name (may be null)</li>
      * </ol>
      *
+     * This list is shared by all entries having the same factories and shall not be modified.
+     *
      * @see SwingFactoryTableModel
      */
     final List<String[]> factories;
 
     /**
-     * The configuration specified by the implementer for this test.
+     * The optional aspects of the test specified in the configuration, in iteration order.
+     * This array is shared by all entries having the same aspects and shall not be modified.
+     *
+     * @see #configuration()
+     */
+    private final Configuration.Key<?>[] aspects;
+
+    /**
+     * The status of each aspect, packed as {@value #STATUS_BITS} bits per aspect.
+     * The status of {@code aspects[i]} is the {@link TestAspect.Status} ordinal
+     * stored at bits {@code i*STATUS_BITS} inclusive to {@code (i+1)*STATUS_BITS} exclusive.
+     */
+    private final long aspectStatus;
+
+    /**
+     * Number of bits used for storing the status of a single aspect in {@link #aspectStatus}.
+     * The number of boolean configuration keys multiplied by this value shall not exceed 64.
      */
-    final List<TestAspect> configuration;
+    private static final int STATUS_BITS = 2;
 
     /**
-     * If a test failure occurred in an optional test, the configuration key for disabling that test.
+     * If a test failure occurred in an optional test, name of the configuration key for disabling that test.
      * Otherwise {@code null}.
      */
-    private final Configuration.Key<Boolean> configurationTip;
+    private final String configurationTip;
+
+    /**
+     * The {@link TestExecutionResult.Status} ordinal.
+     *
+     * @see #status()
+     */
+    private final byte status;
 
     /**
-     * The test status, optionally with the exception.
+     * The message of the exception which interrupted the test, or {@code null} if none.
      */
-    final TestExecutionResult result;
+    private final String message;
+
+    /**
+     * The stack trace of the exception which interrupted the test, compressed with the deflate
+     * algorithm, or {@code null} if none. This is inflated only when the stack trace is shown.
+     *
+     * @see #getStackTrace()
+     */
+    private final byte[] stackTrace;
+
+    /**
+     * Execution time of the test method in nanoseconds, or 0 if unknown.
+     */
+    final long duration;
+
+    /**
+     * CPU time used by the thread which executed the test method in nanoseconds, or 0 if unknown.
+     * This is less than {@link #duration} if the test waited for locks or for I/O operations.
+     */
+    final long cpuTime;
+
+    /**
+     * Number of bytes allocated by the thread which executed the test method, or 0 if unknown.
+     */
+    final long allocated;
 
     /**
      * An estimation of the test coverage, as a floating point value between 0 and 1.
@@ -127,30 +188,45 @@ final class ResultEntry {
     /**
      * {@code true} if the tolerance threshold has been relaxed.
      */
-    private boolean isToleranceRelaxed;
+    private final boolean isToleranceRelaxed;
 
     /**
      * Creates a new entry for the given result. The {@linkplain TestIdentifier#getSource() source} of the test
      * must be an instance of {@link MethodSource}; it is caller's responsibility to verify this condition.
      *
+     * @param runner      the runner which executed the test.
      * @param identifier  identification of the test provided by JUnit.
      * @param result      result of the test (success, failure, aborted).
+     * @param outcome     information saved after the test execution, such as its configuration.
+     * @param duration    execution time of the test method in nanoseconds, or 0 if unknown.
+     * @param cpuTime     CPU time used by the test method in nanoseconds, or 0 if unknown.
+     * @param allocated   number of bytes allocated by the test method, or 0 if unknown.
      */
-    ResultEntry(final Runner runner, final TestIdentifier identifier, final TestExecutionResult result) {
-        this.runner = runner;
-        this.result = result;
-        result.getThrowable().ifPresent(ResultEntry::trimStackTrace);
-        source = (MethodSource) identifier.getSource().get();
-        final Class<?> c = source.getJavaClass();
-        String className;
-        if (c != null) {
-            final DisplayName dn = c.getAnnotation(DisplayName.class);
-            className = (dn != null) ? dn.value() : c.getSimpleName();
+    ResultEntry(final Runner runner, final TestIdentifier identifier, final TestExecutionResult result,
+                final ExecutionContext.Outcome outcome, final long duration, final long cpuTime, final long allocated)
+    {
+        this.runner    = runner;
+        this.duration  = duration;
+        this.cpuTime   = cpuTime;
+        this.allocated = allocated;
+        status = (byte) result.getStatus().ordinal();
+        Throwable exception = result.getThrowable().orElse(null);
+        if (exception != null) {
+            message = exception.getLocalizedMessage();
+            if (exception instanceof IncompleteExecutionException) {
+                final Throwable cause = exception.getCause();
+                if (cause != null) exception = cause;
+            }
+            trimStackTrace(exception);
+            final var buffer = new StringWriter();
+            exception.printStackTrace(new PrintWriter(buffer));
+            stackTrace = deflate(buffer.toString());
         } else {
-            className = source.getClassName();
-            className = className.substring(className.lastIndexOf('.') + 1);
+            message    = null;
+            stackTrace = null;
         }
-        series = className;
+        source = (MethodSource) identifier.getSource().get();
+        series = series(source);
         displayName = identifier.getDisplayName();
         /*
          * Extract information from the configuration:
@@ -158,12 +234,14 @@ final class ResultEntry {
          *  - Get the list of factories.
          */
         int numTests=1, numSupported=1;
-        configurationTip = ExecutionContext.INSTANCE.configurationTip;
-        factories        = new ArrayList<>();
-        configuration    = new ArrayList<>();
-        for (Map.Entry<Configuration.Key<?>,Object> entry : ExecutionContext.INSTANCE.configuration().entrySet()) {
-            final Configuration.Key<?> key = entry.getKey();
-            final String   name  = key.name();
+        boolean relaxed = false;
+        long packed = 0;
+        configurationTip = outcome.configurationTip;
+        final var factories = new ArrayList<String[]>();
+        final var aspects   = new ArrayList<Configuration.Key<?>>();
+        for (Map.Entry<String,Object> entry : outcome.configuration().entrySet()) {
+            final String   name  = entry.getKey();
+            final Configuration.Key<?> key = Configuration.Key.valueOf(name).orElseThrow();
             final Class<?> type  = key.valueType();
             final Object   value = entry.getValue();
             /*
@@ -178,12 +256,13 @@ final class ResultEntry {
                         so = TestAspect.Status.DISABLED;
                     } else {
                         numSupported++;
-                        so = (key == configurationTip) ? TestAspect.Status.FAILED : TestAspect.Status.ENABLED;
+                        so = name.equals(configurationTip) ? TestAspect.Status.FAILED : TestAspect.Status.ENABLED;
                     }
-                    configuration.add(new TestAspect(this, key, so));
+                    packed |= ((long) so.ordinal()) << (aspects.size() * STATUS_BITS);
+                    aspects.add(key);
                     numTests++;
                 } else if (name.equals("isToleranceRelaxed")) {
-                    isToleranceRelaxed = (Boolean) value;
+                    relaxed = (Boolean) value;
                 }
             }
             /*
@@ -193,6 +272,77 @@ final class ResultEntry {
             FactoryTableModel.addTo(type, value, factories);
         }
         coverage = numSupported / ((float) numTests);
+        isToleranceRelaxed = relaxed;
+        aspectStatus = packed;
+        /*
+         * Share the descriptions of factories and aspects with other entries. Those descriptions
+         * are typically the same for all methods of a class, and often for all tests of a runner.
+         */
+        final var flat = new ArrayList<String>(factories.size() * 4);
+        for (final String[] row : factories) {
+            flat.addAll(Arrays.asList(row));
+        }
+        this.factories = runner.share(List.of("factories", flat), Collections.unmodifiableList(factories));
+        final Configuration.Key<?>[] keys = aspects.toArray(Configuration.Key<?>[]::new);
+        this.aspects = runner.share(List.of("aspects", Arrays.asList(keys)), keys);
+    }
+
+    /**
+     * Compresses the given text.
+     *
+     * @param  text  the text to compress.
+     * @return the compressed text.
+     */
+    private static byte[] deflate(final String text) {
+        final var buffer = new ByteArrayOutputStream(text.length() / 4);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(buffer)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);      // Should never happen with in-memory buffers.
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Returns the stack trace of the exception which interrupted the test.
+     * The stack trace is decompressed on each invocation of this method.
+     *
+     * @return the stack trace, or {@code null} if none.
+     */
+    String getStackTrace() {
+        if (stackTrace == null) {
+            return null;
+        }
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(stackTrace))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);      // Should never happen with in-memory buffers.
+        }
+    }
+
+    /**
+     * Returns whether the test was successful, aborted or failed.
+     *
+     * @return the test status.
+     */
+    TestExecutionResult.Status status() {
+        return TestExecutionResult.Status.values()[status];
+    }
+
+    /**
+     * Returns the configuration specified by the implementer for this test.
+     * A new list is created on each invocation of this method.
+     *
+     * @return the optional aspects of this test with their status.
+     */
+    List<TestAspect> configuration() {
+        final TestAspect.Status[] values = TestAspect.Status.values();
+        final var configuration = new ArrayList<TestAspect>(aspects.length);
+        for (int i=0; i<aspects.length; i++) {
+            final int ordinal = (int) (aspectStatus >>> (i * STATUS_BITS)) & ((1 << STATUS_BITS) - 1);
+            configuration.add(new TestAspect(this, aspects[i], values[ordinal]));
+        }
+        return configuration;
     }
 
     /**
@@ -292,17 +442,10 @@ final class ResultEntry {
      * @return the result, or {@code null} if none.
      */
     String getResultText() {
-        if (result != null) {
-            final Throwable exception = result.getThrowable().orElse(null);
-            if (exception != null) {
-                final String message = exception.getLocalizedMessage();
-                if (message != null) {
-                    return message;
-                }
-            }
-            return result.getStatus().name().toLowerCase(Locale.US);
+        if (message != null) {
+            return message;
         }
-        return null;
+        return status().name().toLowerCase(Locale.US);
     }
 
     /**
@@ -312,11 +455,30 @@ final class ResultEntry {
      */
     String getConfigurationTip() {
         if (configurationTip != null) {
-            return separateWords(configurationTip.name(), true, "?");
+            return separateWords(configurationTip, true, "?");
         }
         return null;
     }
 
+    /**
+     * Returns a string representation of the execution time and memory allocations of the test.
+     *
+     * @return the resources used by the test, or {@code null} if unknown.
+     */
+    String getTimingText() {
+        if (duration == 0) {
+            return null;
+        }
+        final var buffer = new StringBuilder(60).append(String.format(Locale.US, "%.3f s", duration / 1E9));
+        if (cpuTime != 0) {
+            buffer.append(String.format(Locale.US, " (CPU: %.3f s)", cpuTime / 1E9));
+        }
+        if (allocated != 0) {
+            buffer.append(String.format(Locale.US, ", %.1f MB allocated", allocated / 1E6));
+        }
+        return buffer.toString();
+    }
+
     /**
      * Draws a shape representing the test coverage using the given graphics handler.
      * This method changes the graphics paint, so caller should restore it to whatever
@@ -327,7 +489,7 @@ final class ResultEntry {
      */
     void drawCoverage(final Graphics2D graphics, final Rectangle bounds) {
         final Color color;
-        switch (result.getStatus()) {
+        switch (status()) {
             case SUCCESSFUL: {
                 color = isToleranceRelaxed ? Color.ORANGE : Color.GREEN;
                 break;
@@ -359,10 +521,53 @@ final class ResultEntry {
      * Re-execute this test.
      */
     void setAspectAndExecute(final Configuration.Key<Boolean> aspect, final Boolean value) {
-        PrivateAccessor.INSTANCE.setTestSpecificOption(source.getJavaMethod(), aspect, value);
+        PrivateAccessor.INSTANCE.setTestSpecificOption(runner.layer(), source.getJavaMethod(), aspect.name(), value);
         runner.execute(source);
     }
 
+    /**
+     * Returns the human-readable name of the series to which the given test belong.
+     * This is the value of the {@code DisplayName} annotation on the test class if present,
+     * or the simple class name otherwise.
+     *
+     * @param  source  the test method.
+     * @return human-readable name of the series.
+     */
+    static String series(final MethodSource source) {
+        final Class<?> c = source.getJavaClass();
+        if (c != null) {
+            final DisplayName dn = c.getAnnotation(DisplayName.class);
+            return (dn != null) ? dn.value() : c.getSimpleName();
+        }
+        final String className = source.getClassName();
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Returns this result in a form which can be written in a file.
+     *
+     * @return this result as a record.
+     */
+    ResultRecord toRecord() {
+        final Map<String,String> map = new LinkedHashMap<>();
+        for (final TestAspect aspect : configuration()) {
+            map.put(aspect.name(), aspect.status().name());
+        }
+        final TestExecutionResult.Status s = status();
+        return new ResultRecord(source.getClassName(), source.getMethodName(), series, displayName, s, getResultText(),
+                getConfigurationTip(), map, (s == TestExecutionResult.Status.FAILED) ? getStackTrace() : null,
+                duration, cpuTime, allocated);
+    }
+
+    /**
+     * Returns the module layer of the implementation which has been tested.
+     *
+     * @return module layer of the tested implementation.
+     */
+    ModuleLayer layer() {
+        return runner.layer();
+    }
+
     /**
      * Returns {@code true} if this entry uses the same configuration keys than the specified entry.
      *
@@ -370,18 +575,7 @@ final class ResultEntry {
      * @return whether the two entries use the same configuration keys.
      */
     boolean useSameConfigurationKeys(final ResultEntry other) {
-        if (other != null) {
-            final int n = configuration.size();
-            if (n == other.configuration.size()) {
-                for (int i=0; i<n; i++) {
-                    if (!configuration.get(i).useSameConfigurationKey(other.configuration.get(i))) {
-                        return false;
-                    }
-                }
-                return true;
-            }
-        }
-        return false;
+        return (other != null) && Arrays.equals(aspects, other.aspects);
     }
 
     /**
@@ -389,6 +583,6 @@ final class ResultEntry {
      */
     @Override
     public String toString() {
-        return displayName + ": " + result.getStatus();
+        return displayName + ": " + status();
     }
 }
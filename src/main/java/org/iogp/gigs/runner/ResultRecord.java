@@ -0,0 +1,526 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.Map;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.io.IOException;
+import java.io.BufferedReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import org.junit.platform.engine.TestExecutionResult;
+
+
+/**
+ * The result of a test in a form which can be written to a file and read back.
+ * Contrarily to {@link ResultEntry}, this record does not reference the runner, the test method
+ * or the exception. It is used for writing results of a run in a file, one record per line in
+ * <a href="https://jsonlines.org/">JSON Lines</a> format, and for merging the files produced
+ * by different processes (for example each shard of a run distributed on many machines).
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class ResultRecord {
+    /**
+     * Fully qualified name of the class of the test.
+     */
+    final String className;
+
+    /**
+     * Name of the test method.
+     */
+    final String methodName;
+
+    /**
+     * The human-readable name of the series to which this test belong.
+     */
+    final String series;
+
+    /**
+     * The human-readable name for the test method.
+     */
+    final String displayName;
+
+    /**
+     * Whether the test was successful, aborted or failed.
+     */
+    final TestExecutionResult.Status status;
+
+    /**
+     * The exception message or the status in lower cases, or {@code null} if none.
+     */
+    final String message;
+
+    /**
+     * Tip about a configuration change that may be done for avoiding the test failure, or {@code null}.
+     */
+    final String configurationTip;
+
+    /**
+     * Status of the optional aspects of the test, indexed by configuration key names.
+     * Values are the names of {@link TestAspect.Status} constants. May be empty but never null.
+     */
+    final Map<String,String> aspects;
+
+    /**
+     * Stack trace of the exception which caused the test failure, or {@code null} if none.
+     */
+    final String exception;
+
+    /**
+     * Execution time of the test method in nanoseconds, or 0 if unknown.
+     */
+    final long duration;
+
+    /**
+     * CPU time used by the test method in nanoseconds, or 0 if unknown.
+     */
+    final long cpuTime;
+
+    /**
+     * Number of bytes allocated by the test method, or 0 if unknown.
+     */
+    final long allocated;
+
+    /**
+     * Creates a new record with the given values.
+     *
+     * @param className         fully qualified name of the class of the test.
+     * @param methodName        name of the test method.
+     * @param series            human-readable name of the series to which this test belong.
+     * @param displayName       human-readable name for the test method.
+     * @param status            whether the test was successful, aborted or failed.
+     * @param message           the exception message or the status in lower cases, or {@code null}.
+     * @param configurationTip  tip about a configuration change for avoiding the test failure, or {@code null}.
+     * @param aspects           status of the optional aspects of the test, indexed by configuration key names.
+     * @param exception         stack trace of the exception which caused the test failure, or {@code null}.
+     * @param duration          execution time of the test method in nanoseconds, or 0 if unknown.
+     * @param cpuTime           CPU time used by the test method in nanoseconds, or 0 if unknown.
+     * @param allocated         number of bytes allocated by the test method, or 0 if unknown.
+     */
+    ResultRecord(final String className, final String methodName, final String series, final String displayName,
+                 final TestExecutionResult.Status status, final String message, final String configurationTip,
+                 final Map<String,String> aspects, final String exception,
+                 final long duration, final long cpuTime, final long allocated)
+    {
+        this.className        = className;
+        this.methodName       = methodName;
+        this.series           = series;
+        this.displayName      = displayName;
+        this.status           = status;
+        this.message          = message;
+        this.configurationTip = configurationTip;
+        this.aspects          = aspects;
+        this.exception        = exception;
+        this.duration         = duration;
+        this.cpuTime          = cpuTime;
+        this.allocated        = allocated;
+    }
+
+    /**
+     * Returns the key identifying the test method, in {@code class#method} form.
+     * This key is stable between runs and is used for sharding.
+     *
+     * @return identifier of the test method.
+     */
+    final String key() {
+        return key(className, methodName);
+    }
+
+    /**
+     * Returns the key identifying the given test method, in {@code class#method} form.
+     *
+     * @param  className   fully qualified name of the class of the test.
+     * @param  methodName  name of the test method.
+     * @return identifier of the test method.
+     */
+    static String key(final String className, final String methodName) {
+        return className + '#' + methodName;
+    }
+
+    /**
+     * Returns the programmatic name of the test, in {@code class.method} form.
+     *
+     * @return class and method name.
+     */
+    final String getProgrammaticName() {
+        return className + '.' + methodName;
+    }
+
+    /**
+     * Formats this record as a single line of JSON.
+     *
+     * @return this record as a JSON object without line separator.
+     */
+    final String toJSON() {
+        final var buffer = new StringBuilder(200).append('{');
+        append(buffer, "class",    className).append(',');
+        append(buffer, "method",   methodName).append(',');
+        append(buffer, "series",   series).append(',');
+        append(buffer, "name",     displayName).append(',');
+        append(buffer, "status",   status.name()).append(',');
+        append(buffer, "message",  message).append(',');
+        append(buffer, "tip",      configurationTip).append(',');
+        quote(buffer, "aspects").append(":{");
+        String separator = "";
+        for (final Map.Entry<String,String> entry : aspects.entrySet()) {
+            append(buffer.append(separator), entry.getKey(), entry.getValue());
+            separator = ",";
+        }
+        buffer.append("},");
+        append(buffer, "exception", exception).append(',');
+        quote(buffer, "duration").append(':').append(duration).append(',');
+        quote(buffer, "cpuTime").append(':').append(cpuTime).append(',');
+        quote(buffer, "allocated").append(':').append(allocated);
+        return buffer.append('}').toString();
+    }
+
+    /**
+     * Appends the given property name and string value.
+     *
+     * @param  buffer  where to append the property.
+     * @param  name    the property name.
+     * @param  value   the property value, or {@code null}.
+     * @return the given buffer.
+     */
+    static StringBuilder append(final StringBuilder buffer, final String name, final String value) {
+        quote(buffer, name).append(':');
+        return (value != null) ? quote(buffer, value) : buffer.append("null");
+    }
+
+    /**
+     * Appends the given text as a JSON string with quotes and escaped characters.
+     *
+     * @param  buffer  where to append the text.
+     * @param  text    the text to append.
+     * @return the given buffer.
+     */
+    static StringBuilder quote(final StringBuilder buffer, final String text) {
+        buffer.append('"');
+        for (int i=0; i<text.length(); i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '"':  buffer.append("\\\""); break;
+                case '\\': buffer.append("\\\\"); break;
+                case '\n': buffer.append("\\n");  break;
+                case '\r': buffer.append("\\r");  break;
+                case '\t': buffer.append("\\t");  break;
+                default: {
+                    if (c < ' ') {
+                        buffer.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        buffer.append(c);
+                    }
+                }
+            }
+        }
+        return buffer.append('"');
+    }
+
+    /**
+     * Parses a record from a single line of JSON.
+     *
+     * @param  line  the JSON object to parse.
+     * @return the record parsed from the given line.
+     * @throws IllegalArgumentException if the line cannot be parsed.
+     */
+    static ResultRecord parse(final String line) {
+        return parse(new JSONParser(line).object());
+    }
+
+    /**
+     * Creates a record from the properties of a JSON object.
+     *
+     * @param  values  the properties of a JSON object written by {@link #toJSON()}.
+     * @return the record for the given properties.
+     * @throws IllegalArgumentException if a property has an invalid value.
+     */
+    static ResultRecord parse(final Map<?,?> values) {
+        final Object aspects = values.get("aspects");
+        final Map<String,String> status = new LinkedHashMap<>();
+        if (aspects instanceof Map<?,?>) {
+            for (final Map.Entry<?,?> entry : ((Map<?,?>) aspects).entrySet()) {
+                status.put(entry.getKey().toString(), String.valueOf(entry.getValue()));
+            }
+        } else if (aspects != null) {
+            throw new IllegalArgumentException("The \"aspects\" property shall be an object but got: " + aspects);
+        }
+        final String name = string(values, "status", true);
+        final TestExecutionResult.Status result;
+        try {
+            result = TestExecutionResult.Status.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown test status: " + name, e);
+        }
+        return new ResultRecord(
+                string(values, "class",     true),
+                string(values, "method",    true),
+                string(values, "series",    false),
+                string(values, "name",      false),
+                result,
+                string(values, "message",   false),
+                string(values, "tip",       false),
+                status,
+                string(values, "exception", false),
+                number(values, "duration"),
+                number(values, "cpuTime"),
+                number(values, "allocated"));
+    }
+
+    /**
+     * Returns the value of the given property as a string.
+     *
+     * @param  values     the properties of a JSON object.
+     * @param  name       name of the property to get.
+     * @param  mandatory  whether the property shall be present.
+     * @return the property value, or {@code null} if absent and not mandatory.
+     * @throws IllegalArgumentException if the property is missing or is not a string.
+     */
+    private static String string(final Map<?,?> values, final String name, final boolean mandatory) {
+        final Object value = values.get(name);
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value != null) {
+            throw new IllegalArgumentException("The \"" + name + "\" property shall be a string but got: " + value);
+        }
+        if (mandatory) {
+            throw new IllegalArgumentException("Missing \"" + name + "\" property.");
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value of the given property as an integer.
+     *
+     * @param  values  the properties of a JSON object.
+     * @param  name    name of the property to get.
+     * @return the property value, or 0 if absent.
+     * @throws IllegalArgumentException if the property is not a number.
+     */
+    private static long number(final Map<?,?> values, final String name) {
+        final Object value = values.get(name);
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value != null) {
+            throw new IllegalArgumentException("The \"" + name + "\" property shall be a number but got: " + value);
+        }
+        return 0;
+    }
+
+    /**
+     * Reads all records from the given JSON Lines file. Blank lines are ignored.
+     *
+     * @param  file  the file to read.
+     * @return all records in the file, in order.
+     * @throws IOException if an error occurred while reading the file.
+     * @throws IllegalArgumentException if a line cannot be parsed.
+     */
+    static List<ResultRecord> read(final Path file) throws IOException {
+        final List<ResultRecord> records = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank()) {
+                    records.add(parse(line));
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * A minimal parser for the JSON objects written by {@link ResultRecord}.
+     * Values can be strings, numbers, booleans, {@code null}, objects or arrays of those values.
+     */
+    static final class JSONParser {
+        /**
+         * The text to parse.
+         */
+        private final String text;
+
+        /**
+         * Index of the next character to parse.
+         */
+        private int position;
+
+        /**
+         * Creates a new parser for the given text.
+         *
+         * @param  text  the text to parse.
+         */
+        JSONParser(final String text) {
+            this.text = text;
+        }
+
+        /**
+         * Parses a JSON object.
+         *
+         * @return the properties of the object, in order.
+         * @throws IllegalArgumentException if the text cannot be parsed.
+         */
+        final Map<String,Object> object() {
+            final Map<String,Object> values = new LinkedHashMap<>();
+            expect('{');
+            if (!skip('}')) {
+                do {
+                    final String name = string();
+                    expect(':');
+                    values.put(name, value());
+                } while (skip(','));
+                expect('}');
+            }
+            return values;
+        }
+
+        /**
+         * Parses a JSON value, which may be a string, a number, a boolean, {@code null} or an array.
+         *
+         * @return the value, or {@code null}.
+         */
+        private Object value() {
+            skipSpaces();
+            if (position >= text.length()) {
+                throw error();
+            }
+            final char c = text.charAt(position);
+            switch (c) {
+                case '"': return string();
+                case '{': return object();
+                case '[': {
+                    position++;
+                    final List<Object> values = new ArrayList<>();
+                    if (!skip(']')) {
+                        do values.add(value());
+                        while (skip(','));
+                        expect(']');
+                    }
+                    return values;
+                }
+            }
+            final int start = position;
+            while (position < text.length() && "{}[],: \t".indexOf(text.charAt(position)) < 0) {
+                position++;
+            }
+            final String word = text.substring(start, position);
+            switch (word) {
+                case "null":  return null;
+                case "true":  return Boolean.TRUE;
+                case "false": return Boolean.FALSE;
+            }
+            try {
+                if (word.indexOf('.') >= 0 || word.indexOf('e') >= 0 || word.indexOf('E') >= 0) {
+                    return Double.valueOf(word);
+                }
+                return Long.valueOf(word);
+            } catch (NumberFormatException e) {
+                throw error();
+            }
+        }
+
+        /**
+         * Parses a JSON string with escaped characters.
+         *
+         * @return the string without quotes.
+         */
+        private String string() {
+            expect('"');
+            final var buffer = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return buffer.toString();
+                }
+                if (c == '\\' && position < text.length()) {
+                    c = text.charAt(position++);
+                    switch (c) {
+                        case 'n': c = '\n'; break;
+                        case 'r': c = '\r'; break;
+                        case 't': c = '\t'; break;
+                        case 'b': c = '\b'; break;
+                        case 'f': c = '\f'; break;
+                        case 'u': {
+                            if (position + 4 > text.length()) throw error();
+                            c = (char) Integer.parseInt(text.substring(position, position += 4), 16);
+                            break;
+                        }
+                    }
+                }
+                buffer.append(c);
+            }
+            throw error();
+        }
+
+        /**
+         * Skips white spaces, then skips the given character if present.
+         *
+         * @param  c  the character to skip.
+         * @return whether the character has been found.
+         */
+        private boolean skip(final char c) {
+            skipSpaces();
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Skips white spaces, then skips the given character or throws an exception if not present.
+         *
+         * @param  c  the expected character.
+         */
+        private void expect(final char c) {
+            if (!skip(c)) {
+                throw error();
+            }
+        }
+
+        /**
+         * Moves the position after all white spaces.
+         */
+        private void skipSpaces() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        /**
+         * Creates an exception for a syntax error at the current position.
+         *
+         * @return the exception to throw.
+         */
+        private IllegalArgumentException error() {
+            return new IllegalArgumentException("Unexpected JSON syntax at position " + position + ": " + text);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.Map;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.BufferedWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+
+/**
+ * Writes test results in a file as soon as the tests finish.
+ * The format is determined by the file extension:
+ *
+ * <ul>
+ *   <li>{@code .xml}: the JUnit XML format understood by most continuous integration servers.</li>
+ *   <li>Any other extension: <a href="https://jsonlines.org/">JSON Lines</a> with one {@link ResultRecord} per line.</li>
+ * </ul>
+ *
+ * Results are queued in a buffer of bounded capacity and written by a background thread,
+ * which flushes the file each time that the buffer becomes empty. Consequently the file
+ * can be read incrementally while the tests are running. If the buffer is full, the threads
+ * executing the tests are blocked until the background thread catches up. If an error occurs
+ * while writing, the background thread continues to consume the buffer without writing, and
+ * the error is reported to the threads executing the tests.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class ResultWriter implements Consumer<ResultRecord>, Closeable {
+    /**
+     * Maximal number of results waiting to be written.
+     */
+    private static final int CAPACITY = 256;
+
+    /**
+     * Sentinel value put in the queue for stopping the background thread.
+     */
+    private static final ResultRecord STOP = new ResultRecord(
+            null, null, null, null, null, null, null, Map.of(), null, 0, 0, 0);
+
+    /**
+     * Where to write the results.
+     */
+    private final BufferedWriter out;
+
+    /**
+     * Whether to write in JUnit XML format instead of JSON Lines.
+     */
+    private final boolean xml;
+
+    /**
+     * The results waiting to be written.
+     */
+    private final BlockingQueue<ResultRecord> queue;
+
+    /**
+     * The thread writing the results.
+     */
+    private final Thread writer;
+
+    /**
+     * The error which occurred in the background thread, or {@code null} if none.
+     */
+    private volatile IOException error;
+
+    /**
+     * Creates a new writer for the given file. The file is overwritten if it already exists.
+     *
+     * @param  file  the file where to write the results.
+     * @throws IOException if the file cannot be created.
+     */
+    ResultWriter(final Path file) throws IOException {
+        xml   = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".xml");
+        out   = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        queue = new ArrayBlockingQueue<>(CAPACITY);
+        if (xml) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            out.newLine();
+            out.write("<testsuite name=\"GIGS\" timestamp=\"");
+            out.write(Instant.now().truncatedTo(ChronoUnit.SECONDS).toString());
+            out.write("\">");
+            out.newLine();
+        }
+        writer = new Thread(this::run, "GIGS result writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues the given result for writing. This method can be invoked from any thread.
+     * It blocks if the buffer is full.
+     *
+     * @param  record  the result of a test.
+     * @throws UncheckedIOException if an error occurred while writing a previous result.
+     */
+    @Override
+    public void accept(final ResultRecord record) {
+        final IOException e = error;
+        if (e != null) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            queue.put(record);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the queued results until the {@link #STOP} sentinel is received.
+     * This method is executed in the background thread.
+     */
+    private void run() {
+        try {
+            ResultRecord record;
+            while ((record = queue.take()) != STOP) {
+                if (xml) {
+                    writeXML(record);
+                } else {
+                    out.write(record.toJSON());
+                    out.newLine();
+                }
+                if (queue.isEmpty()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            error = e;
+            discard();
+        } catch (InterruptedException e) {
+            // Stop writing.
+        }
+    }
+
+    /**
+     * Discards the queued results until the {@link #STOP} sentinel is received.
+     * This method is invoked in the background thread after an error, for ensuring
+     * that the producers are never blocked on a full queue that nobody drains.
+     * The error will be reported by the next call to {@link #accept accept(…)} or {@link #close()}.
+     */
+    private void discard() {
+        try {
+            while (queue.take() != STOP) {
+                // Result lost because of the error.
+            }
+        } catch (InterruptedException e) {
+            // Stop discarding.
+        }
+    }
+
+    /**
+     * Writes the given result as a JUnit XML {@code <testcase>} element.
+     * The series, display name, configuration tip and test aspects are written as properties.
+     *
+     * @param  record  the result to write.
+     * @throws IOException if an error occurred while writing the result.
+     */
+    private void writeXML(final ResultRecord record) throws IOException {
+        out.write("  <testcase classname=\"");
+        escape(record.className);
+        out.write("\" name=\"");
+        escape(record.methodName);
+        out.write(String.format(Locale.ROOT, "\" time=\"%.3f\">", record.duration / 1E9));
+        out.newLine();
+        out.write("    <properties>");
+        out.newLine();
+        property("series", record.series);
+        property("displayName", record.displayName);
+        property("configurationTip", record.configurationTip);
+        if (record.cpuTime   != 0) property("cpuTime",   String.format(Locale.ROOT, "%.3f", record.cpuTime / 1E9));
+        if (record.allocated != 0) property("allocated", Long.toString(record.allocated));
+        for (final Map.Entry<String,String> entry : record.aspects.entrySet()) {
+            property(entry.getKey(), entry.getValue());
+        }
+        out.write("    </properties>");
+        out.newLine();
+        switch (record.status) {
+            case ABORTED: {
+                out.write("    <skipped message=\"");
+                escape(record.message);
+                out.write("\"/>");
+                out.newLine();
+                break;
+            }
+            case FAILED: {
+                out.write("    <failure message=\"");
+                escape(record.message);
+                out.write("\">");
+                escape(record.exception);
+                out.write("</failure>");
+                out.newLine();
+                break;
+            }
+        }
+        out.write("  </testcase>");
+        out.newLine();
+    }
+
+    /**
+     * Writes a {@code <property>} element if the given value is non-null.
+     *
+     * @param  name   name of the property.
+     * @param  value  value of the property, or {@code null} if none.
+     * @throws IOException if an error occurred while writing the property.
+     */
+    private void property(final String name, final String value) throws IOException {
+        if (value != null) {
+            out.write("      <property name=\"");
+            escape(name);
+            out.write("\" value=\"");
+            escape(value);
+            out.write("\"/>");
+            out.newLine();
+        }
+    }
+
+    /**
+     * Writes the given text with the XML special characters replaced by entities.
+     * Control characters other than white spaces are omitted because they are not allowed in XML.
+     *
+     * @param  text  the text to write, or {@code null} if none.
+     * @throws IOException if an error occurred while writing the text.
+     */
+    private void escape(final String text) throws IOException {
+        if (text != null) {
+            for (int i=0; i<text.length(); i++) {
+                final char c = text.charAt(i);
+                switch (c) {
+                    case '&':  out.write("&amp;");  break;
+                    case '<':  out.write("&lt;");   break;
+                    case '>':  out.write("&gt;");   break;
+                    case '"':  out.write("&quot;"); break;
+                    case '\n': case '\r': case '\t': out.write(c); break;
+                    default: if (c >= ' ') out.write(c); break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes all pending results and closes the file.
+     * This method blocks until all queued results have been written.
+     *
+     * @throws IOException if an error occurred while writing the results.
+     */
+    @Override
+    public void close() throws IOException {
+        try (out) {
+            queue.put(STOP);
+            writer.join();
+            if (xml && error == null) {
+                out.write("</testsuite>");
+                out.newLine();
+            }
+        } catch (InterruptedException e) {
+            writer.interrupt();
+            Thread.currentThread().interrupt();
+        }
+        final IOException e = error;
+        if (e != null) {
+            throw e;
+        }
+    }
+}
@@ -32,18 +32,31 @@
 package org.iogp.gigs.runner;
 
 import java.awt.Component;
-import java.awt.EventQueue;
+import java.util.Map;
+import java.util.Set;
+import java.util.Queue;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.AbstractList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.JTable;
 import javax.swing.JScrollPane;
 import javax.swing.JTree;
+import javax.swing.Timer;
 import javax.swing.event.TreeSelectionEvent;
 import javax.swing.event.TreeSelectionListener;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
+import org.iogp.gigs.internal.FactoryProfiler;
 import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.support.descriptor.MethodSource;
 
 
 /**
@@ -65,6 +78,52 @@ final class ResultsView implements TreeSelectionListener {
      */
     private final TestDetails details;
 
+    /**
+     * The execution time and memory allocations of each test, shown in a separated tab.
+     * All accesses to this model must be done in the Swing thread.
+     */
+    private final TimingTableModel timings;
+
+    /**
+     * The latencies of factory calls, shown in a separated tab if profiling is enabled.
+     * All accesses to this model must be done in the Swing thread.
+     */
+    private final ProfileTableModel profile;
+
+    /**
+     * The node of each series, indexed by series name.
+     * All accesses to this map must be done in the Swing thread.
+     */
+    private final Map<String, DefaultMutableTreeNode> seriesNodes;
+
+    /**
+     * The node of each test result, indexed by test method.
+     * All accesses to this map must be done in the Swing thread.
+     */
+    private final Map<MethodSource, DefaultMutableTreeNode> resultNodes;
+
+    /**
+     * Delay in milliseconds between the reception of a result and the update of the tree.
+     * Results received during that delay are added in the tree in a single batch.
+     */
+    private static final int DELAY = 50;
+
+    /**
+     * Test results waiting to be added in the tree.
+     * Results can be added by any thread and are removed by the Swing thread.
+     */
+    private final Queue<ResultEntry> pending;
+
+    /**
+     * Whether the {@linkplain #timer} has been started for adding the pending results.
+     */
+    private final AtomicBoolean scheduled;
+
+    /**
+     * The timer which adds the pending results in the tree after the {@value #DELAY} milliseconds delay.
+     */
+    private final Timer timer;
+
     /**
      * Creates a new, initially empty, view.
      *
@@ -74,6 +133,14 @@ final class ResultsView implements TreeSelectionListener {
         this.details = details;
         tree = new JTree(new DefaultTreeModel(new DefaultMutableTreeNode("Test results")));
         tree.setRootVisible(false);
+        timings     = new TimingTableModel();
+        profile     = new ProfileTableModel();
+        seriesNodes = new HashMap<>();
+        resultNodes = new HashMap<>();
+        pending   = new ConcurrentLinkedQueue<>();
+        scheduled = new AtomicBoolean();
+        timer     = new Timer(DELAY, (event) -> drain());
+        timer.setRepeats(false);
     }
 
     /**
@@ -88,6 +155,43 @@ final class ResultsView implements TreeSelectionListener {
         return pane;
     }
 
+    /**
+     * Creates the Swing component for viewing the execution time and memory allocations of the tests.
+     * Selecting a row in the tables shows the details of the corresponding test.
+     *
+     * @return the Swing view for the resources used by the tests.
+     */
+    final Component createTimingsView() {
+        final JTable all = timings.createView();
+        final JTable slowest = new JTable(timings.slowest);
+        all.getSelectionModel().addListSelectionListener((event) -> {
+            final int row = all.getSelectedRow();
+            if (!event.getValueIsAdjusting() && row >= 0) {
+                details.setTest(null, timings.getEntry(all.convertRowIndexToModel(row)));
+            }
+        });
+        slowest.getSelectionModel().addListSelectionListener((event) -> {
+            final int row = slowest.getSelectedRow();
+            if (!event.getValueIsAdjusting() && row >= 0) {
+                final ResultEntry entry = timings.slowest.getEntry(row);
+                if (entry != null) {
+                    details.setTest(null, entry);
+                }
+            }
+        });
+        return new SwingPanelBuilder().createTimingsPane(all, slowest);
+    }
+
+    /**
+     * Creates the Swing component for viewing the latencies of factory calls.
+     * This view is useful only if profiling is {@linkplain FactoryProfiler#isEnabled() enabled}.
+     *
+     * @return the Swing view for the latencies of factory calls.
+     */
+    final Component createProfileView() {
+        return new JScrollPane(profile.createView());
+    }
+
     /**
      * Invoked when the user clicked on a new row in the tree showing test results.
      * This method updates the "Details" tab with information relative to the test
@@ -114,54 +218,186 @@ final class ResultsView implements TreeSelectionListener {
      * If a node already exists for the test, its value will be replaced.
      * Otherwise a new node will be inserted in alphabetical order.
      *
-     * <p>This method can be invoked in any thread.</p>
+     * <p>This method can be invoked in any thread. The tree is not updated immediately.
+     * Instead, the results are queued and added in the tree by batches, in order to avoid
+     * flooding the Swing thread when many tests finish at the same time.</p>
      *
      * @param  entry  the test result to add or replace.
      */
     final void addOrReplace​(final ResultEntry entry) {
-        EventQueue.invokeLater(() -> {
-            final DefaultTreeModel model = (DefaultTreeModel) tree.getModel();
-            final DefaultMutableTreeNode parent = series(model, entry.series);
-            final Children searcher = new Children(parent);
-            final ResultEntry replace = searcher.insertOrReplace(model, entry);
+        pending.add(entry);
+        if (!scheduled.getAndSet(true)) {
+            timer.start();
+        }
+    }
+
+    /**
+     * Removes all test results from the tree, together with the indexes of its nodes.
+     * This method shall be invoked in the Swing thread before to test another implementation,
+     * for releasing the nodes which reference the results of the previous implementation.
+     */
+    final void clear() {
+        pending.clear();
+        seriesNodes.clear();
+        resultNodes.clear();
+        final DefaultTreeModel model = (DefaultTreeModel) tree.getModel();
+        ((DefaultMutableTreeNode) model.getRoot()).removeAllChildren();
+        model.reload();
+        details.setTest(null, null);
+    }
+
+    /**
+     * Adds in the tree all results queued by {@code addOrReplace(…)}.
+     * This method is invoked in the Swing thread by the {@linkplain #timer}.
+     * Listeners are notified by a single event per modified series.
+     */
+    private void drain() {
+        scheduled.set(false);       // Must be before polling, for not missing results added concurrently.
+        final DefaultTreeModel model = (DefaultTreeModel) tree.getModel();
+        final DefaultMutableTreeNode root = (DefaultMutableTreeNode) model.getRoot();
+        final int numSeries = root.getChildCount();
+        final Map<DefaultMutableTreeNode, Changes> changes = new LinkedHashMap<>();
+        FactoryProfiler profiler = null;
+        ResultEntry entry;
+        while ((entry = pending.poll()) != null) {
+            if (profiler == null && FactoryProfiler.isEnabled()) {
+                profiler = FactoryProfiler.forLayer(entry.layer());
+            }
+            final DefaultMutableTreeNode parent = series(root, entry.series);
+            final Changes c = changes.computeIfAbsent(parent, (k) -> new Changes());
+            final ResultEntry replace = insertOrReplace(parent, entry, c);
+            timings.addOrReplace(entry);
             if (replace != null) {
                 details.setTest(replace, entry);
             }
-            if (entry.result.getStatus() == TestExecutionResult.Status.FAILED) {
-                tree.expandPath(new TreePath(new Object[] {model.getRoot(), parent}));
+            if (entry.status() == TestExecutionResult.Status.FAILED) {
+                c.failed = true;
             }
-        });
+        }
+        timings.commit(profiler);
+        if (profiler != null) {
+            profile.update(profiler);
+        }
+        /*
+         * Notify the listeners: first the new series (which include their children),
+         * then the insertions and changes in existing series.
+         */
+        if (root.getChildCount() != numSeries) {
+            final int[] indices = new int[root.getChildCount() - numSeries];
+            for (int i=0; i<indices.length; i++) {
+                indices[i] = numSeries + i;
+            }
+            model.nodesWereInserted(root, indices);
+            /*
+             * The tree stay hidden if we do not expand the root
+             * as soon as we can (after we got at least one child).
+             */
+            if (numSeries == 0) {
+                tree.expandPath(new TreePath(root));
+            }
+        }
+        for (final Map.Entry<DefaultMutableTreeNode, Changes> e : changes.entrySet()) {
+            final DefaultMutableTreeNode parent = e.getKey();
+            final Changes c = e.getValue();
+            if (root.getIndex(parent) < numSeries) {
+                c.fire(model, parent);
+            }
+            if (c.failed) {
+                tree.expandPath(new TreePath(new Object[] {root, parent}));
+            }
+        }
     }
 
     /**
      * Returns the node of the series of the given name, creating it if needed.
-     * This method must be invoked in the Swing thread.
+     * Listeners are not notified. This method must be invoked in the Swing thread.
      *
-     * @param  model  value of {@code tree.getModel()}.
-     * @param  name   name of the series.
+     * @param  root  value of {@code tree.getModel().getRoot()}.
+     * @param  name  name of the series.
      * @return node of the series of the given name.
      */
-    private DefaultMutableTreeNode series(final DefaultTreeModel model, final String name) {
-        final DefaultMutableTreeNode root = (DefaultMutableTreeNode) model.getRoot();
-        DefaultMutableTreeNode series;
-        for (int i = root.getChildCount(); --i >= 0;) {
-            series = (DefaultMutableTreeNode) root.getChildAt(i);
-            if (name.equals(series.getUserObject())) {
-                return series;
+    private DefaultMutableTreeNode series(final DefaultMutableTreeNode root, final String name) {
+        return seriesNodes.computeIfAbsent(name, (key) -> {
+            final var series = new DefaultMutableTreeNode(key);
+            root.add(series);
+            return series;
+        });
+    }
+
+    /**
+     * Inserts the given entry in the given series, or replaces the previous result of the same test.
+     * Listeners are not notified; instead the modified node is recorded in the given changes.
+     * This method must be invoked in the Swing thread.
+     *
+     * @param  series   the node of the test series.
+     * @param  entry    the entry to add.
+     * @param  changes  where to record the inserted or changed node.
+     * @return the previous entry, or {@code null} if none.
+     */
+    private ResultEntry insertOrReplace(final DefaultMutableTreeNode series, final ResultEntry entry, final Changes changes) {
+        DefaultMutableTreeNode node = resultNodes.get(entry.source);
+        if (node != null && node.getParent() == series) {
+            final ResultEntry old = (ResultEntry) node.getUserObject();
+            node.setUserObject(entry);
+            if (!changes.inserted.contains(node)) {
+                changes.changed.add(node);
             }
+            return old;
         }
-        series = new DefaultMutableTreeNode(name);
-        final int index = root.getChildCount();
-        root.add(series);
-        model.nodesWereInserted(root, new int[] {index});
-        /*
-         * The tree stay hidden if we do not expand the root
-         * as soon as we can (after we got at least one child).
+        node = new DefaultMutableTreeNode(entry, false);
+        series.insert(node, new Children(series).position(entry));
+        resultNodes.put(entry.source, node);
+        changes.inserted.add(node);
+        return null;
+    }
+
+    /**
+     * The nodes inserted or changed in a series since the last notification of listeners.
+     * This object lives only during a {@link #drain()} execution.
+     */
+    private static final class Changes {
+        /**
+         * Nodes which have been inserted in the series.
+         */
+        final Set<DefaultMutableTreeNode> inserted = new HashSet<>();
+
+        /**
+         * Nodes which existed before and have a new value.
+         */
+        final Set<DefaultMutableTreeNode> changed = new HashSet<>();
+
+        /**
+         * Whether at least one of the new results is a failure.
          */
-        if (index == 0) {
-            tree.expandPath(new TreePath(model.getRoot()));
+        boolean failed;
+
+        /**
+         * Creates an initially empty set of changes.
+         */
+        Changes() {
+        }
+
+        /**
+         * Notifies the listeners about all insertions and changes in the given series.
+         *
+         * @param  model   the model to notify.
+         * @param  series  the node of the test series.
+         */
+        final void fire(final DefaultTreeModel model, final DefaultMutableTreeNode series) {
+            final int[] insertions = new int[inserted.size()];
+            final int[] changes = new int[changed.size()];
+            int ni = 0, nc = 0;
+            for (int i=0; i < series.getChildCount(); i++) {
+                final TreeNode node = series.getChildAt(i);
+                if (inserted.contains(node)) {
+                    insertions[ni++] = i;
+                } else if (changed.contains(node)) {
+                    changes[nc++] = i;
+                }
+            }
+            if (ni != 0) model.nodesWereInserted(series, Arrays.copyOf(insertions, ni));
+            if (nc != 0) model.nodesChanged(series, Arrays.copyOf(changes, nc));
         }
-        return series;
     }
 
     /**
@@ -225,26 +461,14 @@ final class ResultsView implements TreeSelectionListener {
         }
 
         /**
-         * Inserts the given entry in the list of children.
+         * Returns the index where to insert the given entry for keeping the children in alphabetical order.
          *
-         * @param  model  the model to notify.
-         * @param  entry  the entry to add.
-         * @return the previous entry, or {@code null} if none.
+         * @param  entry  the entry to insert.
+         * @return index where to insert the entry.
          */
-        final ResultEntry insertOrReplace(final DefaultTreeModel model, final ResultEntry entry) {
-            int i = Collections.binarySearch(this, entry, this);
-            if (i >= 0) {
-                final DefaultMutableTreeNode node = (DefaultMutableTreeNode) series.getChildAt(i);
-                final ResultEntry old = (ResultEntry) node.getUserObject();
-                node.setUserObject(entry);
-                model.nodeChanged(node);
-                return old;
-            } else {
-                i = ~i;             // Tild operator, not minus.
-                series.insert(new DefaultMutableTreeNode(entry, false), i);
-                model.nodesWereInserted(series, new int[] {i});
-                return null;
-            }
+        final int position(final ResultEntry entry) {
+            final int i = Collections.binarySearch(this, entry, this);
+            return (i >= 0) ? i : ~i;       // Tild operator, not minus.
         }
     }
 }
@@ -31,27 +31,46 @@
  */
 package org.iogp.gigs.runner;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.List;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.io.IOException;
 import java.lang.module.Configuration;
 import java.lang.module.ModuleFinder;
 import java.lang.module.ModuleReference;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import javax.swing.SwingWorker;
 
 import org.iogp.gigs.internal.TestSuite;
+import org.iogp.gigs.internal.RetainedSize;
 import org.iogp.gigs.internal.ExecutionContext;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.TestSource;
 import org.junit.platform.engine.TestExecutionResult;
 import org.junit.platform.engine.discovery.ClassSelector;
+import org.junit.platform.engine.discovery.MethodSelector;
 import org.junit.platform.engine.discovery.DiscoverySelectors;
 import org.junit.platform.engine.support.descriptor.MethodSource;
 import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
 import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
 import org.junit.platform.launcher.TestExecutionListener;
 import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
 
 
 /**
@@ -69,6 +88,12 @@ final class Runner implements TestExecutionListener {
      */
     private final TestSuite suite;
 
+    /**
+     * The class loader of the JAR files of the implementation to test.
+     * This loader is closed when this runner is {@linkplain #dispose() disposed}.
+     */
+    private final URLClassLoader loader;
+
     /**
      * The module layer to use for loading the implementation classes.
      */
@@ -80,37 +105,133 @@ final class Runner implements TestExecutionListener {
     private final Launcher launcher;
 
     /**
-     * Where the test results are shown.
+     * The context of the tests executed by this runner.
+     * Used for getting information about the tests after their execution.
+     */
+    private final ExecutionContext context;
+
+    /**
+     * Index of the values in the arrays returned by {@link #usage()}.
+     */
+    private static final int WALL_TIME = 0, CPU_TIME = 1, ALLOCATED = 2;
+
+    /**
+     * The bean used for measuring the CPU time and the memory allocated by the thread executing a test.
+     */
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Resources used by the current thread when each test method started, indexed by JUnit unique identifiers.
+     * Values are arrays returned by {@link #usage()}. Entries are removed when the test finished.
      */
-    private final ResultsView destination;
+    private final Map<String,long[]> started;
+
+    /**
+     * Where the test results are sent. This is typically {@link ResultsView#addOrReplace(ResultEntry)},
+     * but may also be a report written on the console when the tests are run without GUI.
+     * This consumer may be invoked from any thread and concurrently.
+     */
+    private final Consumer<ResultEntry> destination;
+
+    /**
+     * Descriptions shared by many test results, for reducing memory usage when many results are kept.
+     * Keys are values of the descriptions, and values are the shared objects for those descriptions.
+     *
+     * @see #share(Object, Object)
+     */
+    private final Map<Object,Object> shared;
 
     /**
      * Creates a new runner.
      *
      * @param  suite           set of classes containing the tests to execute.
      * @param  implementation  all JAR files required by the implementation to test.
-     * @param  destination     where to show the test results.
+     * @param  modules         the modules of the implementation to test.
+     * @param  destination     where to send the test results. May be invoked from any thread.
      * @throws IOException if an implementation JAR file cannot be parsed.
      */
     @SuppressWarnings("ThisEscapedInObjectConstruction")
-    Runner(final TestSuite suite, final Path[] implementation, final ModuleFinder modules, final ResultsView destination) throws IOException {
+    Runner(final TestSuite suite, final Path[] implementation, final ModuleFinder modules,
+           final Consumer<ResultEntry> destination) throws IOException
+    {
         this.suite = suite;
         this.destination = destination;
         final URL[] urls = new URL[implementation.length];
         for (int i=0; i < urls.length; i++) {
             urls[i] = implementation[i].toUri().toURL();
         }
-        final ClassLoader loader;
         final ModuleLayer parent;
         final Configuration config;
+        final ModuleLayer.Controller controller;
         loader   = new URLClassLoader(urls, Runner.class.getClassLoader());
         parent   = Runner.class.getModule().getLayer();
         config   = parent.configuration().resolveAndBind(ModuleFinder.of(), modules, getAllModuleNames(modules));
-        layer    = parent.defineModulesWithOneLoader(config, loader);
+        controller = ModuleLayer.defineModulesWithOneLoader(config, List.of(parent), loader);
+        layer    = controller.layer();
+        if (RetainedSize.isEnabled()) {
+            openPackages(controller);
+        }
+        context  = new ExecutionContext();
+        started  = new ConcurrentHashMap<>();
+        shared   = new ConcurrentHashMap<>();
         launcher = LauncherFactory.create();
         launcher.registerTestExecutionListeners(this);
     }
 
+    /**
+     * Opens all packages of the implementation to GIGS, for allowing the measurement of retained sizes
+     * by reflection. Open and automatic modules do not need this operation.
+     *
+     * @param  controller  the controller of the layer of the implementation to test.
+     */
+    private static void openPackages(final ModuleLayer.Controller controller) {
+        final Module target = Runner.class.getModule();
+        for (final Module module : controller.layer().modules()) {
+            final var descriptor = module.getDescriptor();
+            if (!(descriptor.isOpen() || descriptor.isAutomatic())) {
+                for (final String pn : module.getPackages()) {
+                    controller.addOpens(module, pn, target);
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards the resources cached for the implementation tested by this runner.
+     * This runner shall not be used anymore after this method call.
+     *
+     * @throws IOException if an error occurred while closing the JAR files.
+     */
+    final void dispose() throws IOException {
+        ExecutionContext.dispose(layer);
+        loader.close();
+    }
+
+    /**
+     * Returns the module layer used for loading the implementation classes.
+     *
+     * @return module layer of the implementation to test.
+     */
+    final ModuleLayer layer() {
+        return layer;
+    }
+
+    /**
+     * Returns a shared instance of the given value. If a value has already been registered for the given key,
+     * that previous value is returned. Otherwise the given value is registered and returned.
+     * This method can be invoked from any thread.
+     *
+     * @param  <T>    type of the value.
+     * @param  key    an object having the same content than the value, with value-based {@code equals(…)}.
+     * @param  value  the value to share.
+     * @return the shared value for the given key.
+     */
+    @SuppressWarnings("unchecked")
+    final <T> T share(final Object key, final T value) {
+        final Object previous = shared.putIfAbsent(key, value);
+        return (previous != null) ? (T) previous : value;
+    }
+
     /**
      * Returns the names of all modules that the given finder can see.
      */
@@ -123,16 +244,182 @@ final class Runner implements TestExecutionListener {
     }
 
     /**
-     * Executes all tests and shows the result in the destination {@code ResultsView}.
+     * Executes all tests sequentially and sends the results to the destination.
      * This method should be invoked in a background thread.
      */
     final void executeAll() {
+        executeAll(1);
+    }
+
+    /**
+     * Executes all tests and sends the results to the destination.
+     * Test classes are distributed over the given number of worker threads.
+     * This method blocks until all tests have been executed.
+     *
+     * @param  parallelism  maximal number of test classes to execute concurrently.
+     */
+    final void executeAll(final int parallelism) {
+        final ClassSelector[] selectors = selectAll(suite);
+        if (parallelism <= 1 || selectors.length <= 1) {
+            launch(null, batches(selectors));
+        } else {
+            final ExecutorService workers = ExecutionContext.newWorkerPool(Math.min(parallelism, selectors.length));
+            try {
+                launch(workers, batches(selectors));
+            } finally {
+                workers.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Executes all tests using the given worker threads and sends the results to the destination.
+     * The pool of worker threads may be shared with other runners testing other implementations.
+     * This method blocks until all tests of this runner have been executed.
+     *
+     * @param  workers  the worker threads where to execute test classes.
+     */
+    final void executeAll(final ExecutorService workers) {
+        launch(workers, batches(selectAll(suite)));
+    }
+
+    /**
+     * Returns selectors for all test classes of the given suite.
+     *
+     * @param  suite  set of classes containing the tests to execute.
+     * @return selectors for all test classes.
+     */
+    private static ClassSelector[] selectAll(final TestSuite suite) {
         final Class<?>[] tests = suite.getTestClasses();
         final ClassSelector[] selectors = new ClassSelector[tests.length];
         for (int i=0; i<selectors.length; i++) {
             selectors[i] = DiscoverySelectors.selectClass(tests[i]);
         }
-        ExecutionContext.INSTANCE.execute(layer, launcher, selectors);
+        return selectors;
+    }
+
+    /**
+     * Wraps each given selector in a batch of its own, for executing each test class as a separated request.
+     *
+     * @param  selectors  the tests to execute.
+     * @return one batch for each selector.
+     */
+    private static List<List<DiscoverySelector>> batches(final DiscoverySelector[] selectors) {
+        final var batches = new ArrayList<List<DiscoverySelector>>(selectors.length);
+        for (final DiscoverySelector selector : selectors) {
+            batches.add(List.of(selector));
+        }
+        return batches;
+    }
+
+    /**
+     * Executes batches of tests using the given pool of worker threads.
+     * Each batch is executed as a separated JUnit request, so different batches may be
+     * executed concurrently. The pool may be shared with other runners testing other
+     * implementations. This method blocks until all tests of this runner have been executed.
+     *
+     * @param  workers  the worker threads, or {@code null} for executing all tests in the current thread.
+     * @param  batches  the tests to execute, grouped in batches executed as single requests.
+     */
+    private void launch(final ExecutorService workers, final List<? extends List<? extends DiscoverySelector>> batches) {
+        context.start(layer);
+        try {
+            if (workers == null) {
+                final List<DiscoverySelector> selectors = new ArrayList<>();
+                batches.forEach(selectors::addAll);
+                launcher.execute(launcher.discover(request(selectors)));
+            } else {
+                final List<Future<?>> tasks = new ArrayList<>(batches.size());
+                for (final List<? extends DiscoverySelector> batch : batches) {
+                    tasks.add(workers.submit(() -> launcher.execute(request(batch))));
+                }
+                for (final Future<?> task : tasks) {
+                    task.get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            context.stop();
+        }
+    }
+
+    /**
+     * Creates a JUnit request for the tests identified by the given selectors.
+     * The request contains the configuration parameters identifying the execution context.
+     *
+     * @param  selectors  the tests to execute.
+     * @return request for executing the specified tests.
+     */
+    private LauncherDiscoveryRequest request(final List<? extends DiscoverySelector> selectors) {
+        return LauncherDiscoveryRequestBuilder.request().selectors(selectors)
+                .configurationParameters(context.configurationParameters()).build();
+    }
+
+    /**
+     * Executes the given batches of test methods and sends the results to the destination.
+     * The keys are in the {@code class#method} form returned by {@link ResultRecord#key()}.
+     * Each batch is executed as a single JUnit request by one of the given worker threads,
+     * in the order of the list. This method blocks until all tests have been executed.
+     *
+     * @param  workers  the worker threads where to execute the batches, or {@code null} for the current thread.
+     * @param  batches  identifiers of the test methods to execute, grouped in batches.
+     *
+     * @see Scheduler
+     */
+    final void execute(final ExecutorService workers, final List<? extends Collection<String>> batches) {
+        final var requests = new ArrayList<List<MethodSelector>>(batches.size());
+        for (final Collection<String> batch : batches) {
+            final var selectors = new ArrayList<MethodSelector>(batch.size());
+            for (final String key : batch) {
+                final int s = key.indexOf('#');
+                selectors.add(DiscoverySelectors.selectMethod(key.substring(0, s), key.substring(s+1)));
+            }
+            requests.add(selectors);
+        }
+        launch(workers, requests);
+    }
+
+    /**
+     * Groups the given keys by test class, preserving the order in which classes first appear.
+     *
+     * @param  keys  identifiers of test methods in {@code class#method} form.
+     * @return the keys grouped in one list per test class.
+     */
+    static List<List<String>> batches(final Collection<String> keys) {
+        final Map<String, List<String>> batches = new LinkedHashMap<>();
+        for (final String key : keys) {
+            batches.computeIfAbsent(key.substring(0, key.indexOf('#')), (k) -> new ArrayList<>()).add(key);
+        }
+        return new ArrayList<>(batches.values());
+    }
+
+    /**
+     * Discovers all test methods of the given suite, without executing them.
+     * This method does not need the implementation to test.
+     *
+     * @param  suite  set of classes containing the tests to discover.
+     * @return identifiers of all test methods in {@code class#method} form, in the order of the suite.
+     */
+    static List<String> discoverKeys(final TestSuite suite) {
+        final Launcher launcher = LauncherFactory.create();
+        final TestPlan plan = launcher.discover(LauncherDiscoveryRequestBuilder.request().selectors(selectAll(suite)).build());
+        final List<String> keys = new ArrayList<>();
+        for (final TestIdentifier root : plan.getRoots()) {
+            for (final TestIdentifier test : plan.getDescendants(root)) {
+                final TestSource source = test.getSource().orElse(null);
+                if (source instanceof MethodSource) {
+                    final var method = (MethodSource) source;
+                    keys.add(ResultRecord.key(method.getClassName(), method.getMethodName()));
+                }
+            }
+        }
+        return keys;
     }
 
     /**
@@ -152,12 +439,64 @@ final class Runner implements TestExecutionListener {
              */
             @Override protected Runner doInBackground() {
                 var selector = DiscoverySelectors.selectMethod(test.getJavaClass(), test.getJavaMethod());
-                ExecutionContext.INSTANCE.execute(layer, launcher, selector);
+                launch(null, List.of(List.of(selector)));
                 return null;
             }
         }.execute();
     }
 
+    /**
+     * Returns the resources used by the current thread until now. The array contains the time in nanoseconds
+     * given by {@link System#nanoTime()}, the CPU time of the current thread in nanoseconds and the number
+     * of bytes allocated by the current thread, in that order. Values that cannot be measured are -1.
+     *
+     * <p>This method is invoked at the start and at the end of each test method. It relies on JUnit invoking
+     * the listeners in the thread which executes the test, which is the case of the default JUnit engine.</p>
+     *
+     * @return wall time, CPU time and allocated bytes of the current thread.
+     */
+    private static long[] usage() {
+        final long[] usage = new long[3];
+        usage[CPU_TIME]  = THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+        usage[ALLOCATED] = -1;
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            final var bean = (com.sun.management.ThreadMXBean) THREADS;
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                usage[ALLOCATED] = bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        usage[WALL_TIME] = System.nanoTime();
+        return usage;
+    }
+
+    /**
+     * Returns the difference between the resource usages at the end and at the start of a test.
+     *
+     * @param  start  value of {@link #usage()} when the test started, or {@code null} if unknown.
+     * @param  end    value of {@link #usage()} when the test finished.
+     * @param  index  index of the resource for which to compute the difference.
+     * @return resource used by the test, or 0 if unknown.
+     */
+    private static long used(final long[] start, final long[] end, final int index) {
+        if (start == null || start[index] < 0 || end[index] < 0) {
+            return 0;
+        }
+        return end[index] - start[index];
+    }
+
+    /**
+     * Called in background thread when a test is about to be started.
+     * This is used for measuring the execution time and the memory allocations of test methods.
+     *
+     * @param  identifier  identification of the test method or test class.
+     */
+    @Override
+    public void executionStarted(final TestIdentifier identifier) {
+        if (identifier.getSource().orElse(null) instanceof MethodSource) {
+            started.put(identifier.getUniqueId(), usage());
+        }
+    }
+
     /**
      * Called in background thread when a test finished, successfully or not.
      * This method is invoked after each method, but also after each class.
@@ -169,7 +508,11 @@ final class Runner implements TestExecutionListener {
     @Override
     public void executionFinished​(final TestIdentifier identifier, final TestExecutionResult result) {
         if (identifier.getSource().orElse(null) instanceof MethodSource) {
-            destination.addOrReplace​(new ResultEntry(this, identifier, result));
+            final long[] end = usage();
+            final long[] start = started.remove(identifier.getUniqueId());
+            final ExecutionContext.Outcome outcome = context.outcome(identifier.getUniqueId());
+            destination.accept(new ResultEntry(this, identifier, result, outcome,
+                    used(start, end, WALL_TIME), used(start, end, CPU_TIME), used(start, end, ALLOCATED)));
         }
     }
 }
@@ -0,0 +1,151 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.Map;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Comparator;
+
+
+/**
+ * Orders the tests for execution by worker threads or worker processes in longest-processing-time-first order.
+ * The tests are grouped in batches of one class, except the classes which are expected to take a large part
+ * of the total execution time. Those classes are split in many batches of methods, so that they do not end
+ * the run with a long tail executed by a single worker. The batches are sorted by decreasing estimated duration,
+ * so that a pool of workers taking batches in submission order performs a longest-processing-time-first schedule.
+ *
+ * <p>Durations are taken from a previous run. Tests without recorded duration are assumed to have the average
+ * duration of the recorded tests, or all the same duration if no duration is known. In the latter case,
+ * the schedule is still useful because classes are ordered and split according to their number of methods.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class Scheduler {
+    /**
+     * Number of batches per worker that a single class should not exceed.
+     * A class expected to take more than 1/{@value} of the work of one worker is split.
+     */
+    private static final int SPLIT = 2;
+
+    /**
+     * Durations in nanoseconds of test methods in a previous run, indexed by {@code class#method} keys.
+     */
+    private final Map<String,Long> durations;
+
+    /**
+     * Number of workers executing the batches concurrently.
+     */
+    private final int parallelism;
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param  durations    durations of test methods in a previous run, or an empty map if unknown.
+     * @param  parallelism  number of workers executing the batches concurrently.
+     */
+    Scheduler(final Map<String,Long> durations, final int parallelism) {
+        this.durations   = durations;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Groups the given tests in batches and sorts the batches in decreasing order of estimated duration.
+     *
+     * @param  keys  identifiers of the tests to execute, in {@code class#method} form.
+     * @return batches of tests in the order in which to submit them to the workers.
+     */
+    final List<List<String>> schedule(final List<String> keys) {
+        final long average = Math.max(1, Math.round(durations.values().stream().mapToLong(Long::longValue).average().orElse(1)));
+        long total = 0;
+        for (final String key : keys) {
+            total += durations.getOrDefault(key, average);
+        }
+        final long limit = Math.max(1, total / (parallelism * SPLIT));
+        final List<Batch> batches = new ArrayList<>();
+        for (final List<String> tests : Runner.batches(keys)) {
+            Batch batch = new Batch();
+            long sum = 0;
+            for (final String key : tests) {
+                sum += durations.getOrDefault(key, average);
+            }
+            if (sum <= limit) {
+                batch.keys.addAll(tests);
+                batch.duration = sum;
+                batches.add(batch);
+                continue;
+            }
+            /*
+             * Class too large: split in chunks of methods not exceeding the limit.
+             * The longest methods are distributed first for keeping chunks balanced.
+             */
+            final List<String> sorted = new ArrayList<>(tests);
+            sorted.sort(Comparator.comparingLong((String key) -> durations.getOrDefault(key, average)).reversed());
+            final int n = (int) Math.min(tests.size(), (sum + limit - 1) / limit);
+            final Batch[] chunks = new Batch[n];
+            for (int i=0; i<n; i++) {
+                chunks[i] = new Batch();
+            }
+            for (final String key : sorted) {
+                Batch target = chunks[0];
+                for (final Batch chunk : chunks) {
+                    if (chunk.duration < target.duration) target = chunk;
+                }
+                target.keys.add(key);
+                target.duration += durations.getOrDefault(key, average);
+            }
+            batches.addAll(List.of(chunks));
+        }
+        batches.sort(Comparator.comparingLong((Batch b) -> b.duration).reversed());
+        final List<List<String>> ordered = new ArrayList<>(batches.size());
+        for (final Batch batch : batches) {
+            ordered.add(batch.keys);
+        }
+        return ordered;
+    }
+
+    /**
+     * Tests to execute together, with their estimated duration.
+     */
+    private static final class Batch {
+        /**
+         * Identifiers of the tests in {@code class#method} form.
+         */
+        final List<String> keys = new ArrayList<>();
+
+        /**
+         * Sum of the estimated durations of all tests in this batch, in nanoseconds.
+         */
+        long duration;
+
+        /**
+         * Creates an initially empty batch.
+         */
+        Batch() {
+        }
+    }
+}
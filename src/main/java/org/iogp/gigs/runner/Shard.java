@@ -0,0 +1,148 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.Map;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * A subset of the tests to execute when a run is distributed over many processes or machines.
+ * Test methods are identified by keys in {@code class#method} form and assigned to one of
+ * {@link #count} shards in a way which is deterministic, so that all processes agree
+ * on the partition without communication. Two strategies are available:
+ *
+ * <ul>
+ *   <li>By a stable hash of the key. This is the default strategy.</li>
+ *   <li>By the durations recorded in a previous run, with the longest tests assigned first
+ *       to the shard having the smallest total duration. This gives better balanced shards.</li>
+ * </ul>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class Shard {
+    /**
+     * Index of this shard, from 0 inclusive to {@link #count} exclusive.
+     */
+    final int index;
+
+    /**
+     * Total number of shards.
+     */
+    final int count;
+
+    /**
+     * Durations in nanoseconds of test methods in a previous run, indexed by {@code class#method} keys.
+     * If empty, the partition is done by hash codes.
+     */
+    private final Map<String,Long> durations;
+
+    /**
+     * Creates a new shard.
+     *
+     * @param  index      index of this shard, from 0 inclusive to {@code count} exclusive.
+     * @param  count      total number of shards.
+     * @param  durations  durations of test methods in a previous run, or an empty map for partition by hash codes.
+     */
+    Shard(final int index, final int count, final Map<String,Long> durations) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Illegal shard: " + (index + 1) + '/' + count);
+        }
+        this.index     = index;
+        this.count     = count;
+        this.durations = durations;
+    }
+
+    /**
+     * Parses a shard specification in the {@code i/N} form, where <var>i</var> is from 1 to <var>N</var> inclusive.
+     *
+     * @param  spec       the shard specification.
+     * @param  durations  durations of test methods in a previous run, or an empty map for partition by hash codes.
+     * @return the shard.
+     * @throws IllegalArgumentException if the specification cannot be parsed.
+     */
+    static Shard parse(final String spec, final Map<String,Long> durations) {
+        final int s = spec.indexOf('/');
+        try {
+            if (s > 0) {
+                return new Shard(Integer.parseInt(spec.substring(0, s).trim()) - 1,
+                                 Integer.parseInt(spec.substring(s+1).trim()), durations);
+            }
+        } catch (NumberFormatException e) {
+            // Exception thrown below.
+        }
+        throw new IllegalArgumentException("Illegal shard: " + spec + " (expected i/N)");
+    }
+
+    /**
+     * Returns the subset of the given keys which are assigned to this shard.
+     *
+     * @param  keys  keys in {@code class#method} form of all test methods.
+     * @return keys of the test methods to execute in this shard.
+     */
+    final Set<String> select(final Collection<String> keys) {
+        final Set<String> selected = new HashSet<>();
+        if (durations.isEmpty()) {
+            final var crc = new CRC32();
+            for (final String key : keys) {
+                crc.reset();
+                crc.update(key.getBytes(StandardCharsets.UTF_8));
+                if (crc.getValue() % count == index) {
+                    selected.add(key);
+                }
+            }
+            return selected;
+        }
+        /*
+         * Longest-processing-time-first partition. Tests without recorded duration are assumed
+         * to have the average duration. Ties are resolved by key order for determinism.
+         */
+        final long average = Math.max(1, Math.round(durations.values().stream().mapToLong(Long::longValue).average().orElse(1)));
+        final List<String> sorted = new ArrayList<>(keys);
+        sorted.sort(Comparator.comparingLong((String key) -> durations.getOrDefault(key, average)).reversed()
+                              .thenComparing(Comparator.naturalOrder()));
+        final long[] loads = new long[count];
+        for (final String key : sorted) {
+            int target = 0;
+            for (int i=1; i<count; i++) {
+                if (loads[i] < loads[target]) target = i;
+            }
+            loads[target] += durations.getOrDefault(key, average);
+            if (target == index) {
+                selected.add(key);
+            }
+        }
+        return selected;
+    }
+}
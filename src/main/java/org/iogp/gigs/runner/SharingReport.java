@@ -0,0 +1,112 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.List;
+import java.io.PrintWriter;
+import org.iogp.gigs.internal.InstanceAudit;
+
+
+/**
+ * Number of distinct datum, ellipsoid, prime meridian and coordinate system instances per EPSG code,
+ * aggregated by type of component. An implementation which caches the objects created from authority
+ * codes should have exactly one instance per code. Codes having more instances are listed, with the
+ * class which declares the {@code equals(Object)} method used for comparing those instances.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class SharingReport {
+    /**
+     * Maximal number of codes having many instances to list for each type of component.
+     */
+    private static final int MAX_LISTED = 10;
+
+    /**
+     * The number of instances for each EPSG code, sorted by type and code.
+     */
+    private final List<InstanceAudit.Entry> entries;
+
+    /**
+     * Creates a report from the given audit.
+     *
+     * @param  audit  the audit of the instances reached from the created objects.
+     */
+    SharingReport(final InstanceAudit audit) {
+        entries = audit.entries();
+    }
+
+    /**
+     * Returns the number of instances for each EPSG code, sorted by type and code.
+     *
+     * @return the audited EPSG codes.
+     */
+    final List<InstanceAudit.Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * Writes the number of codes and instances for each type of component,
+     * followed by the codes having more than one instance.
+     *
+     * @param  out  where to write the statistics.
+     */
+    final void print(final PrintWriter out) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        out.println();
+        out.printf("%-44s %10s %10s %10s %10s%n", "Instances per EPSG code", "Codes", "Shared", "Instances", "References");
+        for (final InstanceAudit.Type type : InstanceAudit.Type.values()) {
+            int codes = 0, shared = 0, instances = 0, references = 0;
+            for (final InstanceAudit.Entry entry : entries) {
+                if (entry.type == type) {
+                    codes++;
+                    if (entry.instances == 1) shared++;
+                    instances  += entry.instances;
+                    references += entry.references;
+                }
+            }
+            if (codes != 0) {
+                out.printf("%-44s %10d %10d %10d %10d%n", type, codes, shared, instances, references);
+            }
+        }
+        for (final InstanceAudit.Type type : InstanceAudit.Type.values()) {
+            int listed = 0;
+            for (final InstanceAudit.Entry entry : entries) {
+                if (entry.type == type && entry.instances > 1) {
+                    if (++listed > MAX_LISTED) {
+                        out.printf("NOT SHARED: more %s codes omitted%n", type);
+                        break;
+                    }
+                    out.printf("NOT SHARED: %s EPSG:%d has %d instances in %d references (equals declared in %s)%n",
+                               type, entry.code, entry.instances, entry.references, entry.equalsClass);
+                }
+            }
+        }
+        out.flush();
+    }
+}
@@ -42,6 +42,7 @@ import javax.swing.JTable;
 import javax.swing.JButton;
 import javax.swing.JTextArea;
 import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
 import javax.swing.JTabbedPane;
 import javax.swing.border.Border;
 import javax.swing.BorderFactory;
@@ -112,6 +113,7 @@ final class SwingPanelBuilder extends GridBagConstraints {
      * @param  testName          where to write the test method name.
      * @param  testResult        where to write the test result.
      * @param  configurationTip  where to write tip about configuration for allowing test to pass.
+     * @param  timing            where to write the execution time and memory allocations of the test.
      * @param  viewJavadoc       button for showing test javadoc.
      * @param  factories         table showing available factories.
      * @param  configuration     configuration at the time the test was executed.
@@ -119,7 +121,7 @@ final class SwingPanelBuilder extends GridBagConstraints {
      * @return the panel showing details about selected test.
      */
     JPanel createDetailsPane(final JLabel testName, final JLabel testResult, final JLabel configurationTip,
-            final JButton viewJavadoc, final JTable factories, final JTable configuration, final JTextArea exception)
+            final JLabel timing, final JButton viewJavadoc, final JTable factories, final JTable configuration, final JTextArea exception)
     {
         final Font monospaced = Font.decode("Monospaced");
         testName.setFont(monospaced);
@@ -136,10 +138,12 @@ final class SwingPanelBuilder extends GridBagConstraints {
         gridy=0; desc.add(createLabel("Test method:", testName), this); anchor=NORTHWEST;
         gridy++; desc.add(createLabel("Result:",    testResult), this);
         gridy++; desc.add(createLabel("Tip:", configurationTip), this);
+        gridy++; desc.add(createLabel("Timing:",        timing), this);
         gridx++; weightx=1; anchor=SOUTHWEST;
         gridy=0; desc.add(testName,         this); anchor=NORTHWEST; fill=BOTH; gridwidth=2;
         gridy++; desc.add(testResult,       this);
         gridy++; desc.add(configurationTip, this);
+        gridy++; desc.add(timing,           this);
         /*
          * Javadoc button in the upper-right corner.
          */
@@ -181,6 +185,27 @@ final class SwingPanelBuilder extends GridBagConstraints {
         return panel;
     }
 
+    /**
+     * Creates the panel where to display the execution time and memory allocations of all tests.
+     * The upper part lists all tests and the lower part lists only the slowest factory calls.
+     *
+     * @param  all      table showing the resources used by all tests.
+     * @param  slowest  table showing the slowest factory calls.
+     * @return the panel showing the resources used by the tests.
+     */
+    JSplitPane createTimingsPane(final JTable all, final JTable slowest) {
+        final JPanel bottom = new JPanel(new GridBagLayout());
+        gridx=0; gridy=0; weightx=1; weighty=0;
+        anchor=WEST; fill=HORIZONTAL; insets.left=6; insets.top=6; insets.bottom=6;
+        bottom.add(new JLabel("Slowest factory calls:"), this);
+        gridy++; weighty=1; fill=BOTH; insets.left=0; insets.top=0; insets.bottom=0;
+        bottom.add(new JScrollPane(slowest), this);
+        final JSplitPane pane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(all), bottom);
+        pane.setContinuousLayout(true);
+        pane.setResizeWeight(0.6);
+        return pane;
+    }
+
     /**
      * Creates a new label with the given text. The created label will be a header
      * for the given component.
@@ -32,8 +32,6 @@
 package org.iogp.gigs.runner;
 
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.util.Collections;
 import java.awt.Desktop;
 import java.awt.Component;
@@ -43,7 +41,6 @@ import javax.swing.JLabel;
 import javax.swing.JButton;
 import javax.swing.JOptionPane;
 import javax.swing.JTextArea;
-import org.opentest4j.IncompleteExecutionException;
 
 
 /**
@@ -79,6 +76,11 @@ final class TestDetails implements ActionListener {
      */
     private final JLabel configurationTip;
 
+    /**
+     * Labels used for rendering the execution time and memory allocations of the test.
+     */
+    private final JLabel timing;
+
     /**
      * The factories used for the test case, to be reported in the "details" tab.
      */
@@ -117,6 +119,7 @@ final class TestDetails implements ActionListener {
         testName         = new JLabel();
         testResult       = new JLabel();
         configurationTip = new JLabel();
+        timing           = new JLabel();
         configuration    = new ConfigurationTableModel();
         factories        = new FactoryTableModel();
         exception        = new JTextArea();
@@ -135,7 +138,7 @@ final class TestDetails implements ActionListener {
         viewJavadoc.setEnabled(false);
         viewJavadoc.setToolTipText("View javadoc for this test");
         viewJavadoc.addActionListener(this);
-        return new SwingPanelBuilder().createDetailsPane(testName, testResult, configurationTip,
+        return new SwingPanelBuilder().createDetailsPane(testName, testResult, configurationTip, timing,
                 viewJavadoc, factories.createView(), configuration.createView(), exception);
     }
 
@@ -156,28 +159,21 @@ final class TestDetails implements ActionListener {
         String stacktrace = null;
         String result     = null;
         String tip        = null;
+        String resources  = null;
         if (entry == null) {
             factories.entries     = Collections.emptyList();
             configuration.entries = Collections.emptyList();
+            configuration.layer   = null;
             numUpdatedRows        = -1;
         } else {
             result   = entry.getResultText();
             progName = entry.getProgrammaticName();
             tip      = entry.getConfigurationTip();
-            Throwable ex = entry.result.getThrowable().orElse(null);
-            if (ex != null) {
-                if (ex instanceof IncompleteExecutionException) {
-                    final Throwable cause = ex.getCause();
-                    if (cause != null) ex = cause;
-                }
-                final StringWriter buffer = new StringWriter();
-                final PrintWriter printer = new PrintWriter(buffer);
-                ex.printStackTrace(printer);
-                printer.flush();
-                stacktrace = buffer.toString();
-            }
+            resources  = entry.getTimingText();
+            stacktrace = entry.getStackTrace();
             factories.entries     = entry.factories;
-            configuration.entries = entry.configuration;
+            configuration.entries = entry.configuration();
+            configuration.layer   = entry.layer();
             numUpdatedRows = entry.useSameConfigurationKeys(replace) ? configuration.getRowCount() - 1 : -1;
         }
         factories.fireTableDataChanged();
@@ -188,6 +184,7 @@ final class TestDetails implements ActionListener {
             configuration.fireTableRowsUpdated(0, numUpdatedRows);
         }
         configurationTip.setText(tip);
+        timing          .setText(resources);
         testName        .setText(progName);
         testResult      .setText(toHTML(result));
         exception       .setText(stacktrace);
@@ -0,0 +1,139 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.io.PrintWriter;
+import org.iogp.gigs.internal.TransformStatistics;
+
+
+/**
+ * Number of points transformed per second by the tests which transform large arrays of coordinates.
+ * The throughput is written on the console after the tests, for each stage and operation method,
+ * followed by the gain of in-place transformations compared to transformations in a new array.
+ * The "derivative" stage is the number of Jacobian matrices computed per second.
+ * The stages named by a number of threads are the throughput of the same transform used concurrently,
+ * which is summarized by the speedup compared to a single thread.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class ThroughputReport {
+    /**
+     * The stages compared for reporting the throughput gain of in-place transformations.
+     * Those names shall be the same as the ones used by the tests.
+     */
+    private static final String IN_PLACE = "double[] in place", COPY = "double[] to new array";
+
+    /**
+     * The text after the number of threads in the names of the stages of concurrency tests.
+     * Those stages are named for example {@code "1 thread"} or {@code "4 threads"}.
+     */
+    private static final String THREADS = " thread";
+
+    /**
+     * Do not allow instantiation of this class.
+     */
+    private ThroughputReport() {
+    }
+
+    /**
+     * Writes the throughput of each stage and operation method.
+     * If no coordinate has been transformed, then this method writes nothing.
+     *
+     * @param  out         where to write the throughput.
+     * @param  name        name of the tested implementation, or {@code null} if only one implementation is tested.
+     * @param  statistics  the statistics of the tested implementation, or {@code null} if none.
+     */
+    static void print(final PrintWriter out, final String name, final TransformStatistics statistics) {
+        if (statistics == null) {
+            return;
+        }
+        final List<TransformStatistics.Entry> entries = statistics.entries();
+        if (entries.isEmpty()) {
+            return;
+        }
+        out.println();
+        if (name != null) {
+            out.println(name + ':');
+        }
+        out.printf("%-24s %-40s %12s %16s%n", "Throughput", "Operation method", "Points", "Points/second");
+        for (final TransformStatistics.Entry entry : entries) {
+            out.printf("%-24s %-40s %12d %16.0f%n", entry.stage, entry.method, entry.points(), entry.pointsPerSecond());
+        }
+        for (final TransformStatistics.Entry inPlace : entries) {
+            if (inPlace.stage.equals(IN_PLACE)) {
+                for (final TransformStatistics.Entry copy : entries) {
+                    if (copy.stage.equals(COPY) && copy.method.equals(inPlace.method)) {
+                        out.printf("In-place transformation of %s is %.2f times the throughput with copy.%n",
+                                   inPlace.method, inPlace.pointsPerSecond() / copy.pointsPerSecond());
+                    }
+                }
+            }
+        }
+        final Map<String, SortedMap<Integer,Double>> scaling = new TreeMap<>();
+        for (final TransformStatistics.Entry entry : entries) {
+            final int n = threadCount(entry.stage);
+            if (n > 0) {
+                scaling.computeIfAbsent(entry.method, (k) -> new TreeMap<>()).put(n, entry.pointsPerSecond());
+            }
+        }
+        for (final Map.Entry<String, SortedMap<Integer,Double>> entry : scaling.entrySet()) {
+            final SortedMap<Integer,Double> curve = entry.getValue();
+            final Double single = curve.get(1);
+            if (single != null && curve.size() > 1) {
+                final var line = new StringBuilder("Speedup of ").append(entry.getKey()).append(" by number of threads:");
+                String separator = " ";
+                for (final Map.Entry<Integer,Double> point : curve.entrySet()) {
+                    line.append(separator).append(point.getKey()).append(": ")
+                        .append(String.format("%.2f", point.getValue() / single));
+                    separator = ", ";
+                }
+                out.println(line);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Returns the number of threads of a stage of concurrency tests, or 0 if the given stage is not such test.
+     *
+     * @param  stage  name of a stage, for example {@code "4 threads"}.
+     * @return number of threads, or 0 if none.
+     */
+    private static int threadCount(final String stage) {
+        final int s = stage.indexOf(' ');
+        if (s > 0 && stage.startsWith(THREADS, s)) try {
+            return Integer.parseInt(stage.substring(0, s));
+        } catch (NumberFormatException e) {
+            // Not a concurrency test.
+        }
+        return 0;
+    }
+}
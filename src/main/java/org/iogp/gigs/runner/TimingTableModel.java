@@ -0,0 +1,369 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.Map;
+import java.util.Locale;
+import java.util.List;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import javax.swing.JTable;
+import javax.swing.SortOrder;
+import javax.swing.RowSorter;
+import javax.swing.table.AbstractTableModel;
+import org.iogp.gigs.internal.FactoryProfiler;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+
+
+/**
+ * The table model for the execution time and memory allocations of each test.
+ * The view created by this model can be sorted by any column, which allows users to find the slowest tests.
+ * This model also provides a {@linkplain #slowest second model} listing only the slowest factory calls.
+ * All methods in this class shall be invoked in the Swing thread.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+@SuppressWarnings("serial")
+final class TimingTableModel extends AbstractTableModel {
+    /**
+     * Index of columns handled by this model.
+     */
+    static final int SERIES_COLUMN    = 0,
+                     TEST_COLUMN      = 1,
+                     WALL_TIME_COLUMN = 2,
+                     CPU_TIME_COLUMN  = 3,
+                     ALLOCATED_COLUMN = 4;
+
+    /**
+     * The titles of all columns.
+     */
+    private static final String[] COLUMN_TITLES;
+    static {
+        COLUMN_TITLES = new String[5];
+        COLUMN_TITLES[SERIES_COLUMN]    = "Series";
+        COLUMN_TITLES[TEST_COLUMN]      = "Test";
+        COLUMN_TITLES[WALL_TIME_COLUMN] = "Time (s)";
+        COLUMN_TITLES[CPU_TIME_COLUMN]  = "CPU time (s)";
+        COLUMN_TITLES[ALLOCATED_COLUMN] = "Allocated (MB)";
+    }
+
+    /**
+     * Number of rows shown in the table of {@linkplain #slowest slowest factory calls}.
+     */
+    private static final int SLOWEST_COUNT = 20;
+
+    /**
+     * Prefix of the names of test methods which create an object from an EPSG code.
+     * Each of those methods invokes an authority factory for the code encoded in the method name.
+     */
+    private static final String EPSG_PREFIX = "EPSG_";
+
+    /**
+     * The result of each test, in the order they were received.
+     */
+    private final List<ResultEntry> entries;
+
+    /**
+     * Index of the row of each test method in the {@link #entries} list.
+     */
+    private final Map<MethodSource,Integer> rows;
+
+    /**
+     * Index of the first row added since the last call to {@link #commit()}.
+     */
+    private int firstNewRow;
+
+    /**
+     * Whether an existing row has been replaced since the last call to {@link #commit()}.
+     */
+    private boolean replaced;
+
+    /**
+     * The slowest calls to authority factories, sorted by decreasing execution time.
+     */
+    final Slowest slowest;
+
+    /**
+     * Creates an initially empty table model.
+     */
+    TimingTableModel() {
+        entries = new ArrayList<>();
+        rows    = new HashMap<>();
+        slowest = new Slowest();
+    }
+
+    /**
+     * Adds or replaces the row for the given test result.
+     * Listeners are not notified until {@link #commit()} is invoked.
+     *
+     * @param  entry  the test result to add or replace.
+     */
+    final void addOrReplace(final ResultEntry entry) {
+        final Integer row = rows.putIfAbsent(entry.source, entries.size());
+        if (row != null) {
+            entries.set(row, entry);
+            replaced = true;
+        } else {
+            entries.add(entry);
+        }
+    }
+
+    /**
+     * Notifies the listeners about all rows added or replaced since the last invocation of this method.
+     * The table of slowest factory calls is also updated.
+     *
+     * @param  profiler  the latencies measured for each authority code, or {@code null} if none.
+     */
+    final void commit(final FactoryProfiler profiler) {
+        final int size = entries.size();
+        if (replaced) {
+            fireTableRowsUpdated(0, firstNewRow - 1);
+        }
+        if (size != firstNewRow) {
+            fireTableRowsInserted(firstNewRow, size - 1);
+        }
+        if (replaced || size != firstNewRow) {
+            slowest.update(entries, profiler);
+        }
+        firstNewRow = size;
+        replaced = false;
+    }
+
+    /**
+     * Returns the test result shown in the given row of the model.
+     *
+     * @param  row  index of the row in the model (not in the view).
+     * @return test result in the given row.
+     */
+    final ResultEntry getEntry(final int row) {
+        return entries.get(row);
+    }
+
+    /**
+     * Returns a new table view using this model.
+     * The view is initially sorted with the slowest tests first.
+     *
+     * @return the configured table view.
+     */
+    JTable createView() {
+        final JTable view = new JTable(this);
+        view.setAutoCreateRowSorter(true);
+        view.getRowSorter().setSortKeys(List.of(new RowSorter.SortKey(WALL_TIME_COLUMN, SortOrder.DESCENDING)));
+        return view;
+    }
+
+    /**
+     * Returns the number of columns in this table.
+     */
+    @Override
+    public int getColumnCount() {
+        return COLUMN_TITLES.length;
+    }
+
+    /**
+     * Returns the name of the given column.
+     */
+    @Override
+    public String getColumnName(final int column) {
+        return COLUMN_TITLES[column];
+    }
+
+    /**
+     * Returns the type of values in the given column.
+     * Numbers are used for the resources, in order to sort them in numerical order.
+     */
+    @Override
+    public Class<?> getColumnClass(final int column) {
+        return (column >= WALL_TIME_COLUMN) ? Double.class : String.class;
+    }
+
+    /**
+     * Returns the number of rows in this table.
+     */
+    @Override
+    public int getRowCount() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the value in the given cell.
+     *
+     * @param  row     the row index.
+     * @param  column  the column index.
+     * @return the value in the given cell, or {@code null} if unknown.
+     */
+    @Override
+    public Object getValueAt(final int row, final int column) {
+        final ResultEntry entry = entries.get(row);
+        switch (column) {
+            case SERIES_COLUMN:    return entry.series;
+            case TEST_COLUMN:      return entry.displayName;
+            case WALL_TIME_COLUMN: return seconds(entry.duration);
+            case CPU_TIME_COLUMN:  return seconds(entry.cpuTime);
+            case ALLOCATED_COLUMN: return (entry.allocated != 0) ? entry.allocated / 1E6 : null;
+            default: throw new IndexOutOfBoundsException(column);
+        }
+    }
+
+    /**
+     * Converts the given duration from nanoseconds to seconds.
+     *
+     * @param  time  the duration in nanoseconds, or 0 if unknown.
+     * @return the duration in seconds, or {@code null} if unknown.
+     */
+    private static Double seconds(final long time) {
+        return (time != 0) ? time / 1E9 : null;
+    }
+
+    /**
+     * The table model for the slowest calls to authority factories. If profiling is enabled, the latencies
+     * are measured by {@link FactoryProfiler} for each authority code. Otherwise they are approximated by the
+     * tests of the series 2000, which create one object for each EPSG code with the code encoded in the name
+     * of the test method. The execution time of those tests is dominated by the {@code createFoo(code)} call,
+     * which may need to build dependencies such as grid-based transformations.
+     */
+    static final class Slowest extends AbstractTableModel {
+        /**
+         * Values of the rows: authority code, type of object, name of object and time in seconds.
+         */
+        private final List<Object[]> rows;
+
+        /**
+         * The test which created the object of each row, or {@code null} if unknown.
+         */
+        private final List<ResultEntry> tests;
+
+        /**
+         * Creates an initially empty table model.
+         */
+        Slowest() {
+            rows  = new ArrayList<>();
+            tests = new ArrayList<>();
+        }
+
+        /**
+         * Recomputes the list of slowest factory calls.
+         *
+         * @param  all       the results of all tests.
+         * @param  profiler  the latencies measured for each authority code, or {@code null} if none.
+         */
+        final void update(final List<ResultEntry> all, final FactoryProfiler profiler) {
+            final Map<String,ResultEntry> byCode = new HashMap<>();
+            for (final ResultEntry entry : all) {
+                final String method = entry.source.getMethodName();
+                if (method.startsWith(EPSG_PREFIX)) {
+                    byCode.putIfAbsent(method.substring(EPSG_PREFIX.length()), entry);
+                }
+            }
+            rows.clear();
+            tests.clear();
+            if (profiler != null) {
+                final List<FactoryProfiler.Entry> calls = profiler.entries();
+                calls.removeIf((e) -> e.code == null);
+                calls.sort(Comparator.comparingLong((FactoryProfiler.Entry e) -> e.latencies.max()).reversed());
+                for (final FactoryProfiler.Entry call : calls.subList(0, Math.min(calls.size(), SLOWEST_COUNT))) {
+                    final ResultEntry test = byCode.get(call.code);
+                    add(call.code, (test != null) ? test.series : call.method, test, call.latencies.max());
+                }
+            } else {
+                final var selected = new ArrayList<>(byCode.values());
+                selected.removeIf((e) -> e.duration == 0);
+                selected.sort(Comparator.comparingLong((ResultEntry e) -> e.duration).reversed());
+                for (final ResultEntry test : selected.subList(0, Math.min(selected.size(), SLOWEST_COUNT))) {
+                    add(test.source.getMethodName().substring(EPSG_PREFIX.length()), test.series, test, test.duration);
+                }
+            }
+            fireTableDataChanged();
+        }
+
+        /**
+         * Adds a row for a factory call.
+         *
+         * @param  code    the authority code.
+         * @param  type    type of the created object, or name of the factory method.
+         * @param  test    the test which created the object, or {@code null} if unknown.
+         * @param  time    latency of the call in nanoseconds.
+         */
+        private void add(final String code, final String type, final ResultEntry test, final long time) {
+            rows.add(new Object[] {code, type, (test != null) ? test.displayName : null,
+                                   String.format(Locale.US, "%.3f", time / 1E9)});
+            tests.add(test);
+        }
+
+        /**
+         * Returns the test which created the object shown in the given row.
+         *
+         * @param  row  index of the row.
+         * @return test of the given row, or {@code null} if unknown.
+         */
+        final ResultEntry getEntry(final int row) {
+            return tests.get(row);
+        }
+
+        /**
+         * Returns the number of columns in this table.
+         */
+        @Override
+        public int getColumnCount() {
+            return 4;
+        }
+
+        /**
+         * Returns the name of the given column.
+         */
+        @Override
+        public String getColumnName(final int column) {
+            switch (column) {
+                case 0:  return "Code";
+                case 1:  return "Object";
+                case 2:  return "Name";
+                default: return COLUMN_TITLES[WALL_TIME_COLUMN];
+            }
+        }
+
+        /**
+         * Returns the number of rows in this table.
+         */
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        /**
+         * Returns the value in the given cell.
+         *
+         * @param  row     the row index.
+         * @param  column  the column index.
+         * @return the value in the given cell.
+         */
+        @Override
+        public Object getValueAt(final int row, final int column) {
+            return rows.get(row)[column];
+        }
+    }
+}
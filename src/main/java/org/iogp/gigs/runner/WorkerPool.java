@@ -0,0 +1,416 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.Map;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.io.IOException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+
+
+/**
+ * A pool of child JVMs executing the tests in separated processes.
+ * Each child process loads the implementation to test once, then receives batches of test methods
+ * on its standard input stream and sends the results on its standard output stream, one record per
+ * line in the format of {@link ResultRecord#toJSON()}. The end of each batch is marked by {@link #END}.
+ *
+ * <p>If a child process crashes, or does not send any result during the timeout duration,
+ * the process is killed and a new one is started. The tests of the interrupted batch which
+ * have no result yet are executed again, one test per batch. A test which interrupts its
+ * process twice when executed alone is reported as failed.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+final class WorkerPool {
+    /**
+     * The line sent by a child process after the last result of a batch.
+     */
+    static final String END = "END";
+
+    /**
+     * The message of the failure reported for a test which interrupted its worker JVM.
+     */
+    static final String CRASHED = "The worker JVM crashed or did not respond.";
+
+    /**
+     * Sentinel value put in the queue of lines when the output stream of a child process is closed.
+     * Compared by identity, so it cannot be confused with a line sent by the process.
+     */
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    private static final String CLOSED = new String(END);
+
+    /**
+     * Maximal number of times that a test executed alone can be retried after its process has been interrupted.
+     */
+    private static final int MAX_RETRIES = 1;
+
+    /**
+     * The command to execute for starting a child process.
+     */
+    private final List<String> command;
+
+    /**
+     * Number of child processes to run concurrently.
+     */
+    private final int count;
+
+    /**
+     * Maximal time in nanoseconds to wait for a result before to consider a child process as stuck.
+     */
+    private final long timeout;
+
+    /**
+     * Where to send the test results. May be invoked from any thread.
+     */
+    private final Consumer<ResultRecord> destination;
+
+    /**
+     * The batches of tests waiting for execution.
+     */
+    private final BlockingQueue<Batch> queue;
+
+    /**
+     * Number of batches which have not yet been fully executed, including the batches in execution.
+     */
+    private final AtomicInteger remaining;
+
+    /**
+     * Number of child processes which have been restarted after a crash or a timeout.
+     */
+    private final AtomicInteger restarts;
+
+    /**
+     * Creates a new pool of child processes.
+     *
+     * @param  command      the command to execute for starting a child process.
+     * @param  count        number of child processes to run concurrently.
+     * @param  timeout      maximal time in seconds to wait for a result before to restart a process.
+     * @param  destination  where to send the test results. May be invoked from any thread.
+     */
+    WorkerPool(final List<String> command, final int count, final long timeout, final Consumer<ResultRecord> destination) {
+        this.command     = command;
+        this.count       = count;
+        this.timeout     = TimeUnit.SECONDS.toNanos(timeout);
+        this.destination = destination;
+        queue     = new LinkedBlockingQueue<>();
+        remaining = new AtomicInteger();
+        restarts  = new AtomicInteger();
+    }
+
+    /**
+     * Returns the command for starting a child JVM executing the tests of the given implementation.
+     * The child uses the same Java executable and the same module path or class path than this JVM.
+     *
+     * @param  implementation  the JAR files of the implementation to test, as given to the {@code --impl} option.
+     * @return the command to give to {@link #WorkerPool(List, int, long, Consumer)}.
+     */
+    static List<String> command(final List<Path> implementation) {
+        final var command = new ArrayList<String>();
+        command.add(ProcessHandle.current().info().command()
+                .orElseGet(() -> Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+        for (final String property : new String[] {"org.iogp.gigs.config", "org.iogp.gigs.prewarm"}) {
+            final String value = System.getProperty(property);
+            if (value != null) {
+                command.add("-D" + property + '=' + value);
+            }
+        }
+        final String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null) {
+            command.add("--module-path");
+            command.add(modulePath);
+            command.add("--module");
+            command.add(Launcher.class.getModule().getName() + '/' + Launcher.class.getName());
+        } else {
+            command.add("--class-path");
+            command.add(System.getProperty("java.class.path"));
+            command.add(Launcher.class.getName());
+        }
+        command.add("--worker");
+        command.add("--impl");
+        for (final Path file : implementation) {
+            command.add(file.toString());
+        }
+        return command;
+    }
+
+    /**
+     * Executes the given batches of tests in the child processes and sends the results to the destination.
+     * This method blocks until all tests have been executed.
+     *
+     * @param  batches  identifiers of the test methods to execute, in {@code class#method} form.
+     * @return number of child processes which have been restarted after a crash or a timeout.
+     * @throws InterruptedException if this thread has been interrupted while waiting for the tests.
+     */
+    final int execute(final List<? extends Collection<String>> batches) throws InterruptedException {
+        for (final Collection<String> keys : batches) {
+            submit(new Batch(keys, 0));
+        }
+        final Thread[] slots = new Thread[Math.min(count, Math.max(batches.size(), 1))];
+        for (int i=0; i<slots.length; i++) {
+            slots[i] = new Thread(this::run, "GIGS worker JVM #" + (i+1));
+            slots[i].setDaemon(true);
+            slots[i].start();
+        }
+        try {
+            for (final Thread slot : slots) {
+                slot.join();
+            }
+        } finally {
+            for (final Thread slot : slots) {
+                slot.interrupt();
+            }
+        }
+        return restarts.get();
+    }
+
+    /**
+     * Adds the given batch in the queue of tests to execute.
+     *
+     * @param  batch  the batch to add.
+     */
+    private void submit(final Batch batch) {
+        remaining.incrementAndGet();
+        queue.add(batch);
+    }
+
+    /**
+     * Executes batches in a child process until all tests have been executed.
+     * There is one thread executing this method for each child process.
+     */
+    private void run() {
+        Worker worker = null;
+        try {
+            while (remaining.get() != 0) {
+                final Batch batch = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (batch == null) {
+                    continue;               // Other threads may still add batches to retry.
+                }
+                boolean success = false;
+                try {
+                    if (worker == null) {
+                        worker = new Worker();
+                    }
+                    success = worker.execute(batch);
+                } catch (IOException e) {
+                    Logger.getLogger("org.iogp.gigs").log(Level.WARNING, "Can not start a worker JVM.", e);
+                }
+                if (!success) {
+                    if (worker != null) {
+                        worker.close(true);
+                        worker = null;
+                        restarts.incrementAndGet();
+                    }
+                    retry(batch);
+                }
+                remaining.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            // Stop the process.
+        } finally {
+            if (worker != null) {
+                worker.close(false);
+            }
+        }
+    }
+
+    /**
+     * Schedules again the tests of a batch which has been interrupted by a crash or a timeout.
+     * If the batch contained many tests, each test without result is retried alone.
+     * If the batch contained only one test, that test is retried at most {@value #MAX_RETRIES} time
+     * before to be reported as failed.
+     *
+     * @param  batch  the interrupted batch.
+     */
+    private void retry(final Batch batch) {
+        if (batch.pending.size() > 1) {
+            for (final String key : batch.pending) {
+                submit(new Batch(List.of(key), 0));
+            }
+        } else if (!batch.pending.isEmpty()) {
+            if (batch.attempts < MAX_RETRIES) {
+                submit(new Batch(batch.pending, batch.attempts + 1));
+            } else {
+                final String key = batch.pending.iterator().next();
+                final int s = key.indexOf('#');
+                final String className  = key.substring(0, s);
+                final String methodName = key.substring(s+1);
+                destination.accept(new ResultRecord(className, methodName,
+                        ResultEntry.series(MethodSource.from(className, methodName)), methodName,
+                        TestExecutionResult.Status.FAILED, CRASHED, null, Map.of(), null, 0, 0, 0));
+            }
+        }
+    }
+
+    /**
+     * A batch of tests to execute in the same child process.
+     */
+    private static final class Batch {
+        /**
+         * Identifiers of the tests which have not yet been executed, in {@code class#method} form.
+         */
+        final Collection<String> pending;
+
+        /**
+         * Number of times that this batch has already been tried.
+         */
+        final int attempts;
+
+        /**
+         * Creates a new batch for the given tests.
+         *
+         * @param  keys      identifiers of the tests to execute.
+         * @param  attempts  number of times that this batch has already been tried.
+         */
+        Batch(final Collection<String> keys, final int attempts) {
+            this.pending  = new LinkedHashSet<>(keys);
+            this.attempts = attempts;
+        }
+    }
+
+    /**
+     * A child process executing tests.
+     */
+    private final class Worker {
+        /**
+         * The child process.
+         */
+        private final Process process;
+
+        /**
+         * Where to send the identifiers of the tests to execute.
+         */
+        private final BufferedWriter requests;
+
+        /**
+         * The lines received from the child process, followed by {@link #CLOSED} after the last line.
+         */
+        private final BlockingQueue<String> lines;
+
+        /**
+         * Starts a new child process.
+         *
+         * @throws IOException if the process cannot be started.
+         */
+        Worker() throws IOException {
+            process  = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            requests = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            lines    = new LinkedBlockingQueue<>();
+            final var reader = new Thread(this::read, "GIGS worker JVM reader");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        /**
+         * Reads all lines sent by the child process until the stream is closed.
+         * This method is executed in a separated thread for allowing timeouts.
+         */
+        private void read() {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    lines.add(line);
+                }
+            } catch (IOException e) {
+                // Process killed. The queue will be marked as closed.
+            } finally {
+                lines.add(CLOSED);
+            }
+        }
+
+        /**
+         * Executes the given batch and sends the results to the destination.
+         * The tests are removed from the batch as their results are received.
+         *
+         * @param  batch  the tests to execute.
+         * @return whether the batch has been completed, or {@code false} if the process crashed or is stuck.
+         * @throws InterruptedException if the thread has been interrupted while waiting for results.
+         */
+        final boolean execute(final Batch batch) throws InterruptedException {
+            try {
+                requests.write(String.join(" ", batch.pending));
+                requests.newLine();
+                requests.flush();
+            } catch (IOException e) {
+                return false;
+            }
+            for (;;) {
+                final String line = lines.poll(timeout, TimeUnit.NANOSECONDS);
+                if (line == null || line == CLOSED) {
+                    return false;
+                }
+                if (line.equals(END)) {
+                    return true;
+                }
+                if (line.startsWith("{")) {
+                    final ResultRecord record;
+                    try {
+                        record = ResultRecord.parse(line);
+                    } catch (IllegalArgumentException e) {
+                        continue;                           // Not a line of the protocol.
+                    }
+                    if (batch.pending.remove(record.key())) {
+                        destination.accept(record);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Stops the child process.
+         *
+         * @param  kill  whether to kill the process immediately instead of letting it finish normally.
+         */
+        final void close(final boolean kill) {
+            if (!kill) try {
+                requests.close();           // Child process stops when its input stream is closed.
+                if (process.waitFor(10, TimeUnit.SECONDS)) {
+                    return;
+                }
+            } catch (IOException | InterruptedException e) {
+                // Kill the process below.
+            }
+            process.destroyForcibly();
+        }
+    }
+}
@@ -34,12 +34,16 @@ module org.iogp.gigs {
     requires java.prefs;
     requires java.logging;
     requires java.desktop;
+    requires java.management;
+    requires jdk.management;
+    requires jdk.jfr;
     requires org.junit.platform.engine;
     requires org.junit.platform.launcher;
 
     requires transitive org.junit.jupiter.api;
     requires transitive org.opengis.geoapi;
-//  exports org.iogp.gigs.runner;               // Avoid a NullPointerException because no runner package in tests.
+    exports org.iogp.gigs.runner;
+    exports org.iogp.gigs.internal;
     exports org.iogp.gigs;
     opens   org.iogp.gigs;
 
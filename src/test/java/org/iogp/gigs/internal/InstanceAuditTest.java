@@ -0,0 +1,93 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.internal;
+
+import java.util.List;
+import java.util.ArrayList;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Tests the {@link InstanceAudit} class.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+public final class InstanceAuditTest {
+    /**
+     * Creates a new test case.
+     */
+    public InstanceAuditTest() {
+    }
+
+    /**
+     * Tests the open addressing map of {@link InstanceAudit.Codes}. The number of codes is large enough
+     * for causing collisions and many increases of capacity. Some codes have many instances, for testing
+     * the growth of the arrays of hash codes, and the same instance is added many times.
+     */
+    @Test
+    public void testCodes() {
+        final var codes = new InstanceAudit.Codes();
+        final int n = 1000;
+        for (int pass=0; pass<3; pass++) {
+            for (int i=n; i>0; i--) {
+                final int code = 4000 + 7*i;
+                codes.add(code, 100, "First");
+                if (i % 10 == 0) {
+                    for (int h=0; h<5; h++) {
+                        codes.add(code, 200 + h, "Other");
+                    }
+                }
+            }
+        }
+        final List<InstanceAudit.Entry> entries = new ArrayList<>();
+        entries.add(null);                      // For verifying that existing elements are not sorted.
+        codes.addTo(InstanceAudit.Type.DATUM, entries);
+        assertNull(entries.remove(0));
+        assertEquals(n, entries.size());
+        for (int i=1; i<=n; i++) {
+            final InstanceAudit.Entry entry = entries.get(i - 1);
+            final boolean many = (i % 10 == 0);
+            assertEquals(InstanceAudit.Type.DATUM, entry.type);
+            assertEquals(4000 + 7*i,               entry.code);
+            assertEquals(many ? 6 : 1,             entry.instances);
+            assertEquals(many ? 18 : 3,            entry.references);
+            assertEquals(many ? "Other" : "First", entry.equalsClass);
+        }
+    }
+
+    /**
+     * Tests {@link InstanceAudit.Codes} with no code.
+     */
+    @Test
+    public void testEmpty() {
+        final List<InstanceAudit.Entry> entries = new ArrayList<>();
+        new InstanceAudit.Codes().addTo(InstanceAudit.Type.ELLIPSOID, entries);
+        assertTrue(entries.isEmpty());
+    }
+}
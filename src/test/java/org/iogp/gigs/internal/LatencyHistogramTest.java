@@ -0,0 +1,120 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.internal;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Tests the {@link LatencyHistogram} class.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+public final class LatencyHistogramTest {
+    /**
+     * Creates a new test case.
+     */
+    public LatencyHistogramTest() {
+    }
+
+    /**
+     * Records a single value in a new histogram and returns the bucket where the value has been recorded.
+     *
+     * @param  value  the value to record.
+     * @return inclusive lower bound, exclusive upper bound and count of the bucket.
+     */
+    private static long[] bucket(final long value) {
+        final var histogram = new LatencyHistogram();
+        histogram.record(value);
+        final long[][] buckets = histogram.buckets();
+        assertEquals(1, buckets.length);
+        assertEquals(1, buckets[0][2]);
+        return buckets[0];
+    }
+
+    /**
+     * Tests the bounds of some buckets computed by hand.
+     */
+    @Test
+    public void testBuckets() {
+        for (int i=0; i<8; i++) {
+            assertArrayEquals(new long[] {i, i+1, 1}, bucket(i));
+        }
+        assertArrayEquals(new long[] {   8,    9, 1}, bucket(8));
+        assertArrayEquals(new long[] {  16,   18, 1}, bucket(16));
+        assertArrayEquals(new long[] {  16,   18, 1}, bucket(17));
+        assertArrayEquals(new long[] {  48,   52, 1}, bucket(50));
+        assertArrayEquals(new long[] { 960, 1024, 1}, bucket(1000));
+        assertArrayEquals(new long[] {1024, 1152, 1}, bucket(1024));
+    }
+
+    /**
+     * Tests that each value is recorded in a bucket containing that value,
+     * and that the width of the bucket is not greater than 1/8 of its lower bound.
+     */
+    @Test
+    public void testRelativePrecision() {
+        for (long value = 8; value < (1L << 42); value += 1 + value / 3) {
+            final long[] bucket = bucket(value);
+            assertTrue(bucket[0] <= value && value < bucket[1], "Value " + value);
+            assertTrue((bucket[1] - bucket[0]) * 8 <= bucket[0], "Value " + value);
+        }
+    }
+
+    /**
+     * Tests the recording of values outside the range of the histogram.
+     * Negative values shall be in the first bucket and very large values in the last one.
+     */
+    @Test
+    public void testOutOfRange() {
+        assertArrayEquals(new long[] {0, 1, 1}, bucket(-5));
+        final long[] last = bucket(Long.MAX_VALUE);
+        assertEquals(1L << 42, last[1]);
+        assertArrayEquals(last, bucket(1L << 50));
+        assertArrayEquals(last, bucket((1L << 42) - 1));
+    }
+
+    /**
+     * Tests {@link LatencyHistogram#percentile(double)} and the statistics.
+     */
+    @Test
+    public void testPercentile() {
+        final var histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(50));
+        for (int i=1; i<=100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100,  histogram.count());
+        assertEquals(5050, histogram.total());
+        assertEquals(100,  histogram.max());
+        assertEquals(1,    histogram.percentile(0));
+        assertEquals(51,   histogram.percentile(50));
+        assertEquals(100,  histogram.percentile(100));
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.internal;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Tests the {@link RoundTripAccuracy} class.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+public final class RoundTripAccuracyTest {
+    /**
+     * Creates a new test case.
+     */
+    public RoundTripAccuracyTest() {
+    }
+
+    /**
+     * Counts the cells of the given heat map which contain at least one point.
+     *
+     * @param  map  the heat map to examine.
+     * @return number of cells which are not NaN.
+     */
+    private static long countNonEmpty(final double[][] map) {
+        long n = 0;
+        for (final double[] row : map) {
+            for (final double value : row) {
+                if (!Double.isNaN(value)) n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Tests {@link RoundTripAccuracy#merge(RoundTripAccuracy)} with values computed by hand.
+     * The two accumulators have one heat map cell in common.
+     */
+    @Test
+    public void testMerge() {
+        final var a = new RoundTripAccuracy("Test");
+        a.add(2,   47,   0.3);
+        a.add(2.5, 47.5, 0.1);
+        a.addUntransformed(2);
+        final var b = new RoundTripAccuracy("Test");
+        b.add(-72, -33, 0.4);
+        b.add(3,    46, 0.2);
+        b.addUntransformed(1);
+        a.merge(b);
+        assertEquals(4,   a.points());
+        assertEquals(3,   a.untransformed());
+        assertEquals(0.4, a.max());
+        assertEquals(-72, a.maxLongitude());
+        assertEquals(-33, a.maxLatitude());
+        assertEquals(Math.sqrt((0.09 + 0.01 + 0.16 + 0.04) / 4), a.rms(), 1E-15);
+
+        final double[][] map = a.heatMap();
+        assertEquals(RoundTripAccuracy.ROWS,    map.length);
+        assertEquals(RoundTripAccuracy.COLUMNS, map[0].length);
+        assertEquals(0.3, map[ 8][36]);         // Cell from 0°E to 5°E and 45°N to 50°N.
+        assertEquals(0.4, map[24][21]);         // Cell from 75°W to 70°W and 35°S to 30°S.
+        assertEquals(2, countNonEmpty(map));
+
+        // The merged accumulator shall not have been modified.
+        assertEquals(2,   b.points());
+        assertEquals(0.2, b.heatMap()[8][36]);
+    }
+
+    /**
+     * Tests merging with an empty accumulator, in both directions.
+     */
+    @Test
+    public void testMergeEmpty() {
+        final var a = new RoundTripAccuracy("Test");
+        a.add(10, 20, 0.5);
+        a.merge(new RoundTripAccuracy("Test"));
+        assertEquals(1,   a.points());
+        assertEquals(0.5, a.max());
+        assertEquals(1,   countNonEmpty(a.heatMap()));
+
+        final var empty = new RoundTripAccuracy("Test");
+        assertTrue(Double.isNaN(empty.rms()));
+        empty.merge(a);
+        assertEquals(1,   empty.points());
+        assertEquals(0.5, empty.max());
+        assertEquals(10,  empty.maxLongitude());
+        assertEquals(20,  empty.maxLatitude());
+        assertArrayEquals(a.heatMap(), empty.heatMap());
+    }
+
+    /**
+     * Verifies that accumulating points in a parallel stream gives the same result than accumulating
+     * them sequentially. This is the way {@code TransformVerifier} combines the residuals of each chunk.
+     */
+    @Test
+    public void testParallelCollect() {
+        final int n = 10000;
+        final var expected = new RoundTripAccuracy("Test");
+        for (int i=0; i<n; i++) {
+            expected.add(longitude(i), latitude(i), residual(i));
+        }
+        final RoundTripAccuracy actual = IntStream.range(0, n).parallel().mapToObj((i) -> {
+                    final var r = new RoundTripAccuracy("Test");
+                    r.add(longitude(i), latitude(i), residual(i));
+                    return r;
+                }).collect(() -> new RoundTripAccuracy("Test"), RoundTripAccuracy::merge, RoundTripAccuracy::merge);
+        assertEquals(expected.points(),       actual.points());
+        assertEquals(expected.max(),          actual.max());
+        assertEquals(expected.maxLongitude(), actual.maxLongitude());
+        assertEquals(expected.maxLatitude(),  actual.maxLatitude());
+        assertEquals(expected.rms(),          actual.rms(), 1E-12);
+        assertArrayEquals(expected.heatMap(), actual.heatMap());
+    }
+
+    /**
+     * Returns an arbitrary longitude for the point at the given index.
+     *
+     * @param  i  index of the point.
+     * @return longitude in degrees of the point.
+     */
+    private static double longitude(final int i) {
+        return (i * 37) % 360 - 180;
+    }
+
+    /**
+     * Returns an arbitrary latitude for the point at the given index.
+     *
+     * @param  i  index of the point.
+     * @return latitude in degrees of the point.
+     */
+    private static double latitude(final int i) {
+        return (i * 11) % 180 - 90;
+    }
+
+    /**
+     * Returns an arbitrary residual for the point at the given index. All residuals are distinct,
+     * so the location of the maximal residual does not depend on the order of accumulation.
+     *
+     * @param  i  index of the point.
+     * @return residual of the point in metres.
+     */
+    private static double residual(final int i) {
+        return ((i * 7919L) % 10007) * 1E-6;
+    }
+}
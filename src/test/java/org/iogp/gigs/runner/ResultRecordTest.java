@@ -0,0 +1,101 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.Map;
+import java.util.LinkedHashMap;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Tests the {@link ResultRecord} class.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+public final class ResultRecordTest {
+    /**
+     * Creates a new test case.
+     */
+    public ResultRecordTest() {
+    }
+
+    /**
+     * Creates a record with characters that need to be escaped in JSON.
+     *
+     * @return an arbitrary record.
+     */
+    private static ResultRecord sample() {
+        final Map<String,String> aspects = new LinkedHashMap<>();
+        aspects.put("isDerivativeSupported", "ENABLED");
+        aspects.put("isInverseTransformSupported", "DISABLED");
+        return new ResultRecord("org.iogp.gigs.Test3206", "testMercator", "Geodetic data", "Mercator (variant A)",
+                TestExecutionResult.Status.FAILED, "Expected \"12.5\"\nbut got\t13\u0001", null, aspects,
+                "java.lang.AssertionError: \\ at line 2", 1234567890123L, 987654321L, 42);
+    }
+
+    /**
+     * Tests {@link ResultRecord#toJSON()} followed by {@link ResultRecord#parse(String)}.
+     */
+    @Test
+    public void testRoundTrip() {
+        final ResultRecord expected = sample();
+        final String json = expected.toJSON();
+        assertEquals(-1, json.indexOf('\n'), "JSON Lines format requires a single line.");
+        final ResultRecord actual = ResultRecord.parse(json);
+        assertEquals(expected.className,        actual.className);
+        assertEquals(expected.methodName,       actual.methodName);
+        assertEquals(expected.series,           actual.series);
+        assertEquals(expected.displayName,      actual.displayName);
+        assertEquals(expected.status,           actual.status);
+        assertEquals(expected.message,          actual.message);
+        assertEquals(expected.configurationTip, actual.configurationTip);
+        assertEquals(expected.aspects,          actual.aspects);
+        assertEquals(expected.exception,        actual.exception);
+        assertEquals(expected.duration,         actual.duration);
+        assertEquals(expected.cpuTime,          actual.cpuTime);
+        assertEquals(expected.allocated,        actual.allocated);
+        assertEquals(json, actual.toJSON());
+    }
+
+    /**
+     * Tests {@link ResultRecord#parse(String)} with invalid input.
+     * All errors shall be reported by {@link IllegalArgumentException}.
+     */
+    @Test
+    public void testInvalidInput() {
+        final String json = sample().toJSON();
+        assertThrows(IllegalArgumentException.class, () -> ResultRecord.parse(json.substring(0, json.length() - 1)));
+        assertThrows(IllegalArgumentException.class, () -> ResultRecord.parse(json.replace("\"FAILED\"", "null")));
+        assertThrows(IllegalArgumentException.class, () -> ResultRecord.parse(json.replace("\"FAILED\"", "\"BROKEN\"")));
+        assertThrows(IllegalArgumentException.class, () -> ResultRecord.parse(json.replace("\"testMercator\"", "12")));
+        assertThrows(IllegalArgumentException.class, () -> ResultRecord.parse(json.replace("987654321", "\"fast\"")));
+        assertThrows(IllegalArgumentException.class, () -> ResultRecord.parse("{\"class\":\"Test\",\"method\":\"test\"}"));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.Map;
+import java.util.List;
+import java.util.Set;
+import java.util.HashSet;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Tests the {@link Scheduler} class.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+public final class SchedulerTest {
+    /**
+     * Creates a new test case.
+     */
+    public SchedulerTest() {
+    }
+
+    /**
+     * Tests the schedule when no duration is known. The class having many methods
+     * shall be split in chunks of equal sizes, scheduled before the small classes.
+     */
+    @Test
+    public void testWithoutDurations() {
+        final List<String> keys = List.of("A#a", "A#b", "A#c", "B#a", "A#d", "A#e", "A#f", "C#a");
+        final List<List<String>> batches = new Scheduler(Map.of(), 2).schedule(keys);
+        assertEquals(5, batches.size());
+        final Set<String> all = new HashSet<>();
+        for (int i=0; i<batches.size(); i++) {
+            final List<String> batch = batches.get(i);
+            assertEquals(i < 3 ? 2 : 1, batch.size());
+            for (final String key : batch) {
+                assertTrue(all.add(key), key);
+                assertEquals(i < 3, key.startsWith("A#"), key);
+            }
+        }
+        assertEquals(Set.copyOf(keys), all);
+        assertEquals(List.of("B#a"), batches.get(3));
+        assertEquals(List.of("C#a"), batches.get(4));
+    }
+
+    /**
+     * Tests the schedule with recorded durations. The class exceeding the limit (half of the total
+     * duration for a single worker) shall be split with the longest method alone in its chunk,
+     * and the batches shall be sorted by decreasing duration.
+     */
+    @Test
+    public void testWithDurations() {
+        final Map<String,Long> durations = Map.of(
+                "A#a", 100L, "A#b", 10L, "A#c", 10L, "A#d", 10L, "B#a", 30L, "C#a", 20L);
+        final List<String> keys = List.of("C#a", "A#a", "A#b", "B#a", "A#c", "A#d");
+        final List<List<String>> batches = new Scheduler(durations, 1).schedule(keys);
+        assertEquals(List.of(List.of("A#a"),
+                             List.of("A#b", "A#c", "A#d"),
+                             List.of("B#a"),
+                             List.of("C#a")), batches);
+    }
+}
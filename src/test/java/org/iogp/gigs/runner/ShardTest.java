@@ -0,0 +1,133 @@
+/*
+ * GIGS - Geospatial Integrity of Geoscience Software
+ * https://gigs.iogp.org/
+ *
+ * Copyright (C) 2023 International Association of Oil and Gas Producers.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package org.iogp.gigs.runner;
+
+import java.util.Map;
+import java.util.List;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Tests the {@link Shard} class.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 1.0
+ * @since   1.0
+ */
+public final class ShardTest {
+    /**
+     * Creates a new test case.
+     */
+    public ShardTest() {
+    }
+
+    /**
+     * Returns arbitrary keys in {@code class#method} form.
+     *
+     * @return keys of fictitious test methods.
+     */
+    private static List<String> keys() {
+        final List<String> keys = new ArrayList<>();
+        for (int c=2201; c<=2211; c++) {
+            for (int m=0; m<30; m++) {
+                keys.add(ResultRecord.key("org.iogp.gigs.Test" + c, "EPSG_" + (4000 + 7*m)));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Tests {@link Shard#parse(String, Map)}.
+     */
+    @Test
+    public void testParse() {
+        final Shard shard = Shard.parse(" 2 / 3 ", Map.of());
+        assertEquals(1, shard.index);
+        assertEquals(3, shard.count);
+        assertThrows(IllegalArgumentException.class, () -> Shard.parse("0/3", Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> Shard.parse("4/3", Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> Shard.parse("2",   Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> Shard.parse("a/3", Map.of()));
+    }
+
+    /**
+     * Tests the partition by CRC of the keys. Each key shall be assigned to exactly one shard,
+     * and the assignment shall depend only on the key (not on the other keys or their order).
+     */
+    @Test
+    public void testSelectByHash() {
+        final List<String> keys = keys();
+        final Set<String> all = new HashSet<>();
+        final var crc = new CRC32();
+        for (int i=0; i<4; i++) {
+            final Set<String> selected = new Shard(i, 4, Map.of()).select(keys);
+            assertFalse(selected.isEmpty());
+            for (final String key : selected) {
+                assertTrue(all.add(key), key);
+                crc.reset();
+                crc.update(key.getBytes(StandardCharsets.UTF_8));
+                assertEquals(i, crc.getValue() % 4, key);
+            }
+            final List<String> subset = new ArrayList<>(keys.subList(0, keys.size() / 2));
+            final Set<String> expected = new HashSet<>(selected);
+            expected.retainAll(subset);
+            assertEquals(expected, new Shard(i, 4, Map.of()).select(subset));
+        }
+        assertEquals(new HashSet<>(keys), all);
+    }
+
+    /**
+     * Tests the partition by durations. Each key shall be assigned to exactly one shard,
+     * and the shards shall be balanced.
+     */
+    @Test
+    public void testSelectByDurations() {
+        final Map<String,Long> durations = Map.of(
+                "A#a", 100L, "A#b", 70L, "A#c", 60L, "B#a", 50L, "B#b", 40L, "B#c", 30L);
+        final List<String> keys = List.of("A#a", "A#b", "A#c", "B#a", "B#b", "B#c");
+        final Set<String> all = new HashSet<>();
+        final long[] loads = new long[2];
+        for (int i=0; i<loads.length; i++) {
+            for (final String key : new Shard(i, loads.length, durations).select(keys)) {
+                assertTrue(all.add(key), key);
+                loads[i] += durations.get(key);
+            }
+        }
+        assertEquals(Set.copyOf(keys), all);
+        assertArrayEquals(new long[] {180, 170}, loads);
+        /*
+         * A key without recorded duration is assumed to have the average duration (58).
+         */
+        final Set<String> selected = new Shard(0, 2, durations).select(List.of("A#a", "C#a", "C#b"));
+        assertEquals(Set.of("A#a"), selected);
+    }
+}